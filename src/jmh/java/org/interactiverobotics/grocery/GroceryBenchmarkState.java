@@ -0,0 +1,113 @@
+/*
+ * GroceryBenchmarkState.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery;
+
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.ShoppingList;
+import org.interactiverobotics.grocery.domain.ShoppingListItem;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.PurchaseRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.interactiverobotics.grocery.repository.ShoppingListItemRepository;
+import org.interactiverobotics.grocery.repository.ShoppingListRepository;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application context with embedded in-memory database filled with test data.
+ * Every 2nd Item is purchased and every 3rd Item is added to shopping list.
+ */
+@State(Scope.Benchmark)
+public class GroceryBenchmarkState {
+
+    public static final int ITEMS_COUNT = 1000;
+
+    private ConfigurableApplicationContext context;
+
+    private Visit visit;
+
+    private ShoppingList shoppingList;
+
+    /**
+     * Starts application and creates test data.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+
+        context = new SpringApplicationBuilder(GroceryApplication.class).profiles("benchmark").run();
+
+        final List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_COUNT; i ++) {
+            items.add(new Item("Item-" + i));
+        }
+        getBean(ItemRepository.class).saveAll(items);
+
+        final Shop shop = getBean(ShopRepository.class).save(new Shop("Shop"));
+        visit = getBean(VisitRepository.class).save(new Visit(shop));
+        shoppingList = getBean(ShoppingListRepository.class).save(new ShoppingList("Shopping List"));
+
+        final List<Purchase> purchases = new ArrayList<>();
+        final List<ShoppingListItem> shoppingListItems = new ArrayList<>();
+        for (int i = 0; i < ITEMS_COUNT; i ++) {
+            if (i % 2 == 0) {
+                purchases.add(new Purchase(visit, items.get(i), 1L, BigDecimal.TEN));
+            }
+            if (i % 3 == 0) {
+                shoppingListItems.add(new ShoppingListItem(shoppingList, items.get(i), 1L));
+            }
+        }
+        getBean(PurchaseRepository.class).saveAll(purchases);
+        getBean(ShoppingListItemRepository.class).saveAll(shoppingListItems);
+    }
+
+    /**
+     * Stops application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(final Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public Visit getVisit() {
+        return visit;
+    }
+
+    public ShoppingList getShoppingList() {
+        return shoppingList;
+    }
+}
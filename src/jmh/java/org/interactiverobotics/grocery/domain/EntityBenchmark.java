@@ -0,0 +1,259 @@
+/*
+ * EntityBenchmark.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.domain;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity equals/hashCode/toString benchmark.
+ * Copies of the entities with the former reflection based methods are used as baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+
+    private static final int ITEMS_COUNT = 100;
+
+    private Purchase purchase;
+
+    private Item item;
+
+    private Set<Item> items;
+
+    private ReflectivePurchase reflectivePurchase;
+
+    private ReflectiveItem reflectiveItem;
+
+    private Set<ReflectiveItem> reflectiveItems;
+
+    /**
+     * Creates entities.
+     */
+    @Setup
+    public void setup() {
+        final Shop shop = new Shop(1L, "Shop");
+        final Visit visit = new Visit(1L, shop);
+        final ReflectiveShop reflectiveShop = new ReflectiveShop(1L, "Shop");
+        final ReflectiveVisit reflectiveVisit = new ReflectiveVisit(1L, reflectiveShop);
+        items = new HashSet<>();
+        reflectiveItems = new HashSet<>();
+        for (long id = 1; id <= ITEMS_COUNT; id ++) {
+            items.add(new Item(id, "Item-" + id));
+            reflectiveItems.add(new ReflectiveItem(id, "Item-" + id));
+        }
+        item = new Item(ITEMS_COUNT / 2L, "Item-" + ITEMS_COUNT / 2);
+        reflectiveItem = new ReflectiveItem(ITEMS_COUNT / 2L, "Item-" + ITEMS_COUNT / 2);
+        purchase = new Purchase(1L, visit, item, 1L, BigDecimal.TEN);
+        reflectivePurchase = new ReflectivePurchase(1L, reflectiveVisit, reflectiveItem, 1L, BigDecimal.TEN);
+    }
+
+    @Benchmark
+    public String purchaseToString() {
+        return purchase.toString();
+    }
+
+    @Benchmark
+    public String purchaseToStringReflection() {
+        return reflectivePurchase.toString();
+    }
+
+    @Benchmark
+    public int purchaseHashCode() {
+        return purchase.hashCode();
+    }
+
+    @Benchmark
+    public int purchaseHashCodeReflection() {
+        return reflectivePurchase.hashCode();
+    }
+
+    @Benchmark
+    public boolean itemSetContains() {
+        return items.contains(item);
+    }
+
+    @Benchmark
+    public boolean itemSetContainsReflection() {
+        return reflectiveItems.contains(reflectiveItem);
+    }
+
+    /**
+     * Shop with reflection based methods.
+     */
+    private static class ReflectiveShop {
+
+        private Long id;
+
+        private String name;
+
+        ReflectiveShop(final Long id, final String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return EqualsBuilder.reflectionEquals(this, object);
+        }
+
+        @Override
+        public int hashCode() {
+            return HashCodeBuilder.reflectionHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return ToStringBuilder.reflectionToString(this);
+        }
+    }
+
+    /**
+     * Item with reflection based methods.
+     */
+    private static class ReflectiveItem {
+
+        private Long id;
+
+        private String name;
+
+        ReflectiveItem(final Long id, final String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return EqualsBuilder.reflectionEquals(this, object);
+        }
+
+        @Override
+        public int hashCode() {
+            return HashCodeBuilder.reflectionHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return ToStringBuilder.reflectionToString(this);
+        }
+    }
+
+    /**
+     * Visit with reflection based methods. Shopping list and purchases are not loaded.
+     */
+    private static class ReflectiveVisit {
+
+        private Long id;
+
+        private ReflectiveShop shop;
+
+        private Date started;
+
+        private Date completed;
+
+        private Object shoppingList;
+
+        private List<ReflectivePurchase> purchases;
+
+        ReflectiveVisit(final Long id, final ReflectiveShop shop) {
+            this.id = id;
+            this.shop = shop;
+            this.started = new Date();
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return EqualsBuilder.reflectionEquals(this, object);
+        }
+
+        @Override
+        public int hashCode() {
+            return HashCodeBuilder.reflectionHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return ToStringBuilder.reflectionToString(this);
+        }
+    }
+
+    /**
+     * Purchase with reflection based methods.
+     */
+    private static class ReflectivePurchase {
+
+        private Long id;
+
+        private ReflectiveVisit visit;
+
+        private ReflectiveItem item;
+
+        private Long quantity;
+
+        private BigDecimal price;
+
+        ReflectivePurchase(final Long id, final ReflectiveVisit visit, final ReflectiveItem item,
+                           final Long quantity, final BigDecimal price) {
+            this.id = id;
+            this.visit = visit;
+            this.item = item;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return EqualsBuilder.reflectionEquals(this, object);
+        }
+
+        @Override
+        public int hashCode() {
+            return HashCodeBuilder.reflectionHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return ToStringBuilder.reflectionToString(this);
+        }
+    }
+}
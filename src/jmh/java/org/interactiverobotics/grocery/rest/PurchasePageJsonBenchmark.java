@@ -0,0 +1,87 @@
+/*
+ * PurchasePageJsonBenchmark.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.interactiverobotics.grocery.GroceryBenchmarkState;
+import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.service.PurchaseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of Page of Purchase(s) as it is returned by PurchaseRestController.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchasePageJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private Page<Purchase> purchases;
+
+    /**
+     * Loads Page of Purchase(s).
+     * Page is serialized once in transaction to initialize lazy Visit(s) and Item(s).
+     */
+    @Setup
+    public void setup(final GroceryBenchmarkState state) {
+        objectMapper = state.getBean(ObjectMapper.class);
+        purchases = new TransactionTemplate(state.getBean(PlatformTransactionManager.class)).execute(status -> {
+            final Page<Purchase> page = state.getBean(PurchaseService.class)
+                    .getPurchases(PageRequest.of(0, 100), state.getVisit());
+            serialize(page);
+            return page;
+        });
+    }
+
+    @Benchmark
+    public String serializePurchasePage() {
+        return serialize(purchases);
+    }
+
+    private String serialize(final Page<Purchase> page) {
+        try {
+            return objectMapper.writeValueAsString(page);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
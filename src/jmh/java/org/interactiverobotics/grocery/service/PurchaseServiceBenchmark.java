@@ -0,0 +1,89 @@
+/*
+ * PurchaseServiceBenchmark.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.GroceryBenchmarkState;
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.form.PurchaseBuyForm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PurchaseService benchmark.
+ * Price of single Item is averaged by database, so basket merge is used to benchmark price averaging.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseServiceBenchmark {
+
+    private static final int BASKET_SIZE = 100;
+
+    private static final int BASKET_ITEMS_COUNT = 10;
+
+    private List<PurchaseBuyForm> basket;
+
+    /**
+     * Creates basket with repeated Item(s).
+     */
+    @Setup
+    public void setup() {
+        basket = new ArrayList<>();
+        for (long i = 0; i < BASKET_SIZE; i ++) {
+            basket.add(new PurchaseBuyForm(i % BASKET_ITEMS_COUNT, i % 3 + 1, BigDecimal.valueOf(i + 1, 2)));
+        }
+    }
+
+    @Benchmark
+    public Map<Long, PurchaseBuyForm> mergeBasket() {
+        return PurchaseService.mergeBasket(basket);
+    }
+
+    @Benchmark
+    public List<Item> getNotPurchasedItems(final GroceryBenchmarkState state) {
+        return state.getBean(PurchaseService.class).getNotPurchasedItems(state.getVisit());
+    }
+
+    @Benchmark
+    public Page<Item> getNotPurchasedItemsPage(final GroceryBenchmarkState state) {
+        return state.getBean(PurchaseService.class)
+                .getNotPurchasedItems(PageRequest.of(1, 10), state.getVisit(), "item-1");
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * ShoppingListItemServiceBenchmark.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.GroceryBenchmarkState;
+import org.interactiverobotics.grocery.domain.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShoppingListItemService benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShoppingListItemServiceBenchmark {
+
+    @Benchmark
+    public List<Item> getNotAddedItems(final GroceryBenchmarkState state) {
+        return state.getBean(ShoppingListItemService.class).getNotAddedItems(state.getShoppingList().getId());
+    }
+
+    /**
+     * Page of Item(s) after the middle of the table.
+     */
+    @Benchmark
+    public List<Item> getNotAddedItemsAfter(final GroceryBenchmarkState state) {
+        return state.getBean(ShoppingListItemService.class).getNotAddedItems(PageRequest.of(0, 10),
+                state.getShoppingList().getId(), "item", (long) GroceryBenchmarkState.ITEMS_COUNT / 2);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * CacheConfiguration.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache configuration.
+ * Caches are created by Spring Boot from <code>spring.cache</code> properties; hit/miss metrics are exposed
+ * as <code>cache.gets</code>.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    /**
+     * Item(s) by Id.
+     */
+    public static final String ITEMS = "items";
+
+    /**
+     * Item(s) by Name.
+     */
+    public static final String ITEMS_BY_NAME = "items_by_name";
+
+    /**
+     * Version of all Item(s).
+     */
+    public static final String ITEMS_VERSION = "items_version";
+
+    /**
+     * Shop(s) by Id.
+     */
+    public static final String SHOPS = "shops";
+
+    /**
+     * Shop(s) by Name.
+     */
+    public static final String SHOPS_BY_NAME = "shops_by_name";
+
+    /**
+     * Version of all Shop(s).
+     */
+    public static final String SHOPS_VERSION = "shops_version";
+
+}
@@ -0,0 +1,64 @@
+/*
+ * MetricsConfiguration.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.interactiverobotics.grocery.metrics.QueryCountFilter;
+import org.interactiverobotics.grocery.metrics.QueryCountProperties;
+import org.interactiverobotics.grocery.metrics.QueryCounter;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Metrics configuration.
+ * SQL statements are counted by QueryCounter that wraps data source, so statements of Hibernate
+ * and JdbcTemplate are counted alike.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryCountProperties.class)
+public class MetricsConfiguration {
+
+    /**
+     * Query count filter bean.
+     */
+    @Bean
+    public QueryCountFilter queryCountFilter(QueryCountProperties properties, MeterRegistry meterRegistry) {
+        return new QueryCountFilter(properties, meterRegistry);
+    }
+
+    /**
+     * Bean post processor that wraps data source(s) to count SQL statements.
+     */
+    @Bean
+    public static BeanPostProcessor queryCountPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ? QueryCounter.wrap((DataSource) bean) : bean;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * PurchaseEventConfiguration.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Purchase event configuration.
+ * Purchase events are pushed to subscribers by bounded executor, so thread that changed Purchase doesn't wait
+ * for clients.
+ */
+@Configuration
+@EnableConfigurationProperties(PurchaseEventProperties.class)
+public class PurchaseEventConfiguration {
+
+    public static final String PURCHASE_EVENT_EXECUTOR = "purchaseEventExecutor";
+
+    /**
+     * Purchase event sender executor bean.
+     */
+    @Bean(PURCHASE_EVENT_EXECUTOR)
+    public ThreadPoolTaskExecutor purchaseEventExecutor(PurchaseEventProperties properties) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getSenderThreads());
+        executor.setMaxPoolSize(properties.getSenderThreads());
+        executor.setQueueCapacity(properties.getSenderQueueCapacity());
+        executor.setThreadNamePrefix("purchase-event-");
+        return executor;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * PurchaseEventProperties.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Purchase event properties.
+ * Sender threads push Purchase events to subscribers, sender queue capacity is max number of subscribers waiting
+ * for sender thread. Subscriber queue capacity is max number of events not yet sent to one subscriber. Subscriber
+ * is dropped if its queue is full or its send takes longer than send timeout in milliseconds.
+ */
+@ConfigurationProperties("grocery.purchase-events")
+public class PurchaseEventProperties {
+
+    private int senderThreads = 4;
+
+    private int senderQueueCapacity = 1000;
+
+    private int subscriberQueueCapacity = 100;
+
+    private long sendTimeout = 5000L;
+
+    public int getSenderThreads() {
+        return senderThreads;
+    }
+
+    public void setSenderThreads(int senderThreads) {
+        this.senderThreads = senderThreads;
+    }
+
+    public int getSenderQueueCapacity() {
+        return senderQueueCapacity;
+    }
+
+    public void setSenderQueueCapacity(int senderQueueCapacity) {
+        this.senderQueueCapacity = senderQueueCapacity;
+    }
+
+    public int getSubscriberQueueCapacity() {
+        return subscriberQueueCapacity;
+    }
+
+    public void setSubscriberQueueCapacity(int subscriberQueueCapacity) {
+        this.subscriberQueueCapacity = subscriberQueueCapacity;
+    }
+
+    public long getSendTimeout() {
+        return sendTimeout;
+    }
+
+    public void setSendTimeout(long sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * ReplicaConfiguration.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.interactiverobotics.grocery.datasource.ReplicaRoutingDataSource;
+import org.interactiverobotics.grocery.datasource.StickyPrimaryFilter;
+import org.interactiverobotics.grocery.service.ItemService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replica configuration.
+ * Enabled by replicas in properties. Read-only transactions of Services are routed to replicas, other transactions
+ * go to primary (spring.datasource). Pools of primary and replicas share Hikari properties.
+ * Hibernate releases connection after every transaction instead of holding it until session is closed (session
+ * is open for the whole request), so every transaction of request is routed separately. Connections are still
+ * prepared by read-only flag and isolation level of transaction.
+ * Read-only transactions of client stay on primary for sticky primary time after its write.
+ */
+@Configuration
+@ConditionalOnProperty("grocery.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaConfiguration {
+
+    private static final String HIKARI_PROPERTIES = "spring.datasource.hikari";
+
+    /**
+     * Data source bean, routes connections to primary and replicas.
+     */
+    @Bean(destroyMethod = "close")
+    @Primary
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaProperties properties,
+                                               Environment environment, MeterRegistry meterRegistry) {
+        final HikariDataSource primary = createDataSource(ReplicaRoutingDataSource.PRIMARY,
+                dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(), environment, meterRegistry);
+        primary.setDriverClassName(dataSourceProperties.determineDriverClassName());
+
+        final Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (final ReplicaProperties.Replica replica : properties.getReplicas()) {
+            final String name = "replica-" + (replicas.size() + 1);
+            final HikariDataSource dataSource = createDataSource(name, replica.getUrl(),
+                    StringUtils.defaultIfEmpty(replica.getUsername(), primary.getUsername()),
+                    StringUtils.defaultIfEmpty(replica.getPassword(), primary.getPassword()),
+                    environment, meterRegistry);
+            dataSource.setReadOnly(true);
+            replicas.put(name, dataSource);
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, properties.getMaxLag(),
+                ItemService.class.getPackage().getName() + ".", meterRegistry);
+    }
+
+    private static HikariDataSource createDataSource(String poolName, String url, String username, String password,
+                                                     Environment environment, MeterRegistry meterRegistry) {
+        final HikariDataSource dataSource = new HikariDataSource();
+        Binder.get(environment).bind(HIKARI_PROPERTIES, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    /**
+     * Replica lag check executor bean.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService replicaLagCheckExecutor(ReplicaProperties properties,
+                                                            ReplicaRoutingDataSource dataSource) {
+        final ScheduledExecutorService executor =
+                Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-lag-check-"));
+        executor.scheduleWithFixedDelay(dataSource::checkReplicas, 0L,
+                properties.getLagCheckInterval(), TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    /**
+     * Hibernate properties customizer bean, makes Hibernate release connection after transaction.
+     * Unlike turning off preparing of connections by JPA dialect, it keeps read-only and isolation level
+     * of transactions.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Sticky primary filter bean.
+     */
+    @Bean
+    public StickyPrimaryFilter stickyPrimaryFilter(ReplicaProperties properties) {
+        return new StickyPrimaryFilter(properties.getStickyPrimary());
+    }
+}
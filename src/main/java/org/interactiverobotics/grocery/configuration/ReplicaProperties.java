@@ -0,0 +1,112 @@
+/*
+ * ReplicaProperties.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replica properties.
+ * Read-only transactions of Services are routed to replicas which lag doesn't exceed max lag in milliseconds.
+ * Lag is checked every lag check interval in milliseconds. Username and password of replica are the primary ones
+ * by default. Client that wrote reads from primary for sticky primary time in milliseconds (0 turns it off).
+ */
+@ConfigurationProperties("grocery.datasource")
+public class ReplicaProperties {
+
+    private long maxLag = 5000L;
+
+    private long lagCheckInterval = 1000L;
+
+    private long stickyPrimary = 5000L;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(long maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public long getLagCheckInterval() {
+        return lagCheckInterval;
+    }
+
+    public void setLagCheckInterval(long lagCheckInterval) {
+        this.lagCheckInterval = lagCheckInterval;
+    }
+
+    public long getStickyPrimary() {
+        return stickyPrimary;
+    }
+
+    public void setStickyPrimary(long stickyPrimary) {
+        this.stickyPrimary = stickyPrimary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * Replica database.
+     */
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
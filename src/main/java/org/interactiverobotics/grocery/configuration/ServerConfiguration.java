@@ -0,0 +1,78 @@
+/*
+ * ServerConfiguration.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Server configuration.
+ * Every request blocks its thread on JDBC, so with default thread pool of Jetty a burst of requests parks most
+ * threads on JDBC connection pool and exhausts the thread pool long before database is busy. In JDBC_BOUNDED mode
+ * size of JDBC connection pool is the real concurrency limit.
+ */
+@Configuration
+@EnableConfigurationProperties(ServerExecutionProperties.class)
+public class ServerConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServerConfiguration.class);
+
+    private static final int IDLE_TIMEOUT = 60000;
+
+    /**
+     * Jetty thread pool customizer bean.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<JettyServletWebServerFactory> jettyThreadPoolCustomizer(
+            ServerExecutionProperties properties,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+
+        return factory -> {
+            if (properties.getMode() == ServerExecutionProperties.Mode.JDBC_BOUNDED) {
+                factory.setThreadPool(createThreadPool(properties, connectionPoolSize));
+            }
+        };
+    }
+
+    /**
+     * Creates thread pool with thread per JDBC connection, extra threads and bounded queue.
+     * Request is rejected when queue is full.
+     */
+    static QueuedThreadPool createThreadPool(final ServerExecutionProperties properties,
+                                             final int connectionPoolSize) {
+
+        final int maxThreads = connectionPoolSize + properties.getExtraThreads();
+        final QueuedThreadPool threadPool = new QueuedThreadPool(maxThreads, Math.min(8, maxThreads),
+                IDLE_TIMEOUT, new BlockingArrayQueue<>(properties.getQueueCapacity()));
+        threadPool.setName("jetty-jdbc-bounded");
+        LOG.info("Jetty thread pool is bounded by JDBC connection pool: {} thread(s), queue capacity {}",
+                maxThreads, properties.getQueueCapacity());
+        return threadPool;
+    }
+}
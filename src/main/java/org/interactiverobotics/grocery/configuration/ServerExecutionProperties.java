@@ -0,0 +1,70 @@
+/*
+ * ServerExecutionProperties.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Server execution properties.
+ * Mode POOL runs requests on default thread pool of Jetty. Mode JDBC_BOUNDED sizes thread pool of Jetty by size of
+ * JDBC connection pool plus extra threads for acceptors, selectors and requests not using database; requests
+ * above that wait in bounded queue of Jetty instead of blocking threads on JDBC connection pool.
+ */
+@ConfigurationProperties("grocery.server")
+public class ServerExecutionProperties {
+
+    /**
+     * Execution mode.
+     */
+    public enum Mode {
+        POOL, JDBC_BOUNDED
+    }
+
+    private Mode mode = Mode.POOL;
+
+    private int extraThreads = 16;
+
+    private int queueCapacity = 1000;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getExtraThreads() {
+        return extraThreads;
+    }
+
+    public void setExtraThreads(int extraThreads) {
+        this.extraThreads = extraThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * StreamConfiguration.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Stream configuration.
+ * Streams are returned by controllers as Flux and written to clients asynchronously, so request threads of Jetty
+ * are not held by streams. Blocking queries of streams run on JDBC scheduler with thread per JDBC connection.
+ */
+@Configuration
+@EnableConfigurationProperties(StreamProperties.class)
+public class StreamConfiguration {
+
+    /**
+     * JDBC scheduler bean.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        return Schedulers.newParallel("jdbc", connectionPoolSize, true);
+    }
+
+    /**
+     * Stream writer executor bean.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor streamWriterExecutor(StreamProperties properties) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getWriterThreads());
+        executor.setMaxPoolSize(properties.getWriterThreads());
+        executor.setThreadNamePrefix("stream-writer-");
+        return executor;
+    }
+
+    /**
+     * Web MVC configurer bean, sets executor and timeout of asynchronous requests.
+     */
+    @Bean
+    public WebMvcConfigurer streamWebMvcConfigurer(StreamProperties properties,
+                                                   ThreadPoolTaskExecutor streamWriterExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(streamWriterExecutor);
+                configurer.setDefaultTimeout(properties.getTimeout());
+            }
+        };
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * ReplicaRoutingDataSource.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replica routing data source.
+ * Connections of read-only transactions started by routed (Service) methods are taken from available replicas in
+ * turn, other connections are taken from primary. Read-only transactions of Spring Data repositories (their default)
+ * stay on primary, so entities loaded to be changed are up to date.
+ * Replica is available if its last checked lag doesn't exceed max lag, read-only transactions fall back to primary
+ * if there is no available replica. Read-only transactions stay on primary while StickyPrimary is on, write
+ * transactions turn it on.
+ * Connection is taken on first statement, when transaction is already started and its read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    public static final String ROUTE_METRIC = "grocery.datasource.route";
+
+    public static final String LAG_METRIC = "grocery.datasource.replica.lag";
+
+    public static final String STICKY_METRIC = "grocery.datasource.sticky";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * Lag of replica in milliseconds, replica that replayed all received WAL (or primary) has no lag.
+     */
+    private static final String LAG_QUERY = "SELECT CAST(CASE WHEN NOT pg_is_in_recovery()"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END AS bigint)";
+
+    private final DataSource primary;
+
+    private final Map<String, DataSource> replicas;
+
+    private final long maxLag;
+
+    private final String routedPrefix;
+
+    private final Map<String, AtomicLong> lags = new HashMap<>();
+
+    private final Counter primaryCounter;
+
+    private final Counter fallbackCounter;
+
+    private final Counter stickyCounter;
+
+    private final Map<String, Counter> replicaCounters = new HashMap<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile List<String> availableReplicas = Collections.emptyList();
+
+    /**
+     * Parametrized constructor.
+     * Replicas are not available until they are checked.
+     *
+     * @param routedPrefix prefix of names of routed methods (transactions are named by them)
+     */
+    public ReplicaRoutingDataSource(final DataSource primary, final Map<String, DataSource> replicas,
+                                    final long maxLag, final String routedPrefix, final MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.maxLag = maxLag;
+        this.routedPrefix = routedPrefix;
+
+        primaryCounter = createRouteCounter(meterRegistry, PRIMARY, false);
+        fallbackCounter = createRouteCounter(meterRegistry, PRIMARY, true);
+        stickyCounter = meterRegistry.counter(STICKY_METRIC);
+        replicas.keySet().forEach(name -> {
+            replicaCounters.put(name, createRouteCounter(meterRegistry, name, true));
+            final AtomicLong lag = new AtomicLong(-1L);
+            lags.put(name, lag);
+            Gauge.builder(LAG_METRIC, lag, AtomicLong::get)
+                    .tag("replica", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        });
+
+        final AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return route();
+            }
+        };
+        final Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        router.setTargetDataSources(targetDataSources);
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+
+        setTargetDataSource(router);
+        // Defaults of PostgreSQL, connection is not taken to check them
+        setDefaultAutoCommit(true);
+        setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        afterPropertiesSet();
+    }
+
+    private static Counter createRouteCounter(final MeterRegistry meterRegistry, final String route,
+                                              final boolean routed) {
+        return Counter.builder(ROUTE_METRIC)
+                .tag("route", route)
+                .tag("routed", String.valueOf(routed))
+                .register(meterRegistry);
+    }
+
+    private String route() {
+        if (!isRoutedTransaction()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                StickyPrimary.written();
+            }
+            primaryCounter.increment();
+            return PRIMARY;
+        }
+        if (StickyPrimary.isOn()) {
+            stickyCounter.increment();
+            fallbackCounter.increment();
+            return PRIMARY;
+        }
+        final List<String> available = availableReplicas;
+        if (available.isEmpty()) {
+            fallbackCounter.increment();
+            return PRIMARY;
+        }
+        final String replica = available.get(Math.floorMod(next.getAndIncrement(), available.size()));
+        replicaCounters.get(replica).increment();
+        return replica;
+    }
+
+    private boolean isRoutedTransaction() {
+        final String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && name != null && name.startsWith(routedPrefix);
+    }
+
+    /**
+     * Checks lag of replicas and updates available ones.
+     * Replica which lag can't be checked is not available.
+     */
+    public void checkReplicas() {
+        final List<String> available = new ArrayList<>();
+        replicas.forEach((name, replica) -> {
+            final long lag = getLag(name, replica);
+            lags.get(name).set(lag);
+            if (lag >= 0 && lag <= maxLag) {
+                available.add(name);
+            }
+        });
+        if (!available.equals(availableReplicas)) {
+            LOG.info("Available replica(s): {}", available);
+        }
+        availableReplicas = Collections.unmodifiableList(available);
+    }
+
+    private long getLag(final String name, final DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            final long lag = resultSet.getLong(1);
+            // Replica that hasn't replayed any transaction yet
+            return resultSet.wasNull() ? -1L : lag;
+        } catch (SQLException e) {
+            LOG.debug("Lag of replica {} not checked: {}", name, e.getMessage());
+            return -1L;
+        }
+    }
+
+    public List<String> getAvailableReplicas() {
+        return availableReplicas;
+    }
+
+    /**
+     * Closes primary and replicas.
+     */
+    @Override
+    public void close() throws IOException {
+        for (final DataSource replica : replicas.values()) {
+            close(replica);
+        }
+        close(primary);
+    }
+
+    private static void close(final DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * StickyPrimary.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.datasource;
+
+/**
+ * Sticky primary of current thread (request).
+ * While it is on, read-only transactions of Services are routed to primary, so client reads its own writes before
+ * replicas replay them. It is on for request of client that wrote recently (see StickyPrimaryFilter) and after
+ * the first write transaction of request. It is off for threads where it isn't started.
+ */
+public final class StickyPrimary {
+
+    private static final ThreadLocal<StickyPrimary> CURRENT = new ThreadLocal<>();
+
+    private final Runnable writeListener;
+
+    private boolean on;
+
+    private boolean written;
+
+    private StickyPrimary(final boolean on, final Runnable writeListener) {
+        this.on = on;
+        this.writeListener = writeListener;
+    }
+
+    /**
+     * Starts sticky primary of current thread.
+     *
+     * @param on true if client wrote recently
+     * @param writeListener called on the first write transaction
+     */
+    public static void start(final boolean on, final Runnable writeListener) {
+        CURRENT.set(new StickyPrimary(on, writeListener));
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static boolean isOn() {
+        final StickyPrimary current = CURRENT.get();
+        return current != null && current.on;
+    }
+
+    /**
+     * Records write transaction of current thread and turns sticky primary on.
+     */
+    public static void written() {
+        final StickyPrimary current = CURRENT.get();
+        if (current != null && !current.written) {
+            current.written = true;
+            current.on = true;
+            current.writeListener.run();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * StickyPrimaryFilter.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.datasource;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sticky primary filter.
+ * Write transaction of request (re)opens sticky primary window of client by cookie with end time of window.
+ * Read-only transactions of requests with open window are routed to primary, so client reads its writes until
+ * replicas which lag doesn't exceed max lag have them. Filter does nothing if window is 0.
+ */
+public class StickyPrimaryFilter extends OncePerRequestFilter {
+
+    public static final String STICKY_PRIMARY_COOKIE = "grocery-sticky-primary";
+
+    private final long window;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param window sticky primary window in milliseconds
+     */
+    public StickyPrimaryFilter(final long window) {
+        this.window = window;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return window <= 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        final Cookie cookie = WebUtils.getCookie(request, STICKY_PRIMARY_COOKIE);
+        final long end = cookie == null ? 0L : NumberUtils.toLong(cookie.getValue());
+        StickyPrimary.start(end > System.currentTimeMillis(), () -> openWindow(request, response));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            StickyPrimary.end();
+        }
+    }
+
+    /**
+     * Adds cookie with end of window, unless response is already committed.
+     */
+    private void openWindow(final HttpServletRequest request, final HttpServletResponse response) {
+        if (response.isCommitted()) {
+            return;
+        }
+        final Cookie cookie = new Cookie(STICKY_PRIMARY_COOKIE, String.valueOf(System.currentTimeMillis() + window));
+        cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+        cookie.setMaxAge((int) TimeUnit.MILLISECONDS.toSeconds(window + TimeUnit.SECONDS.toMillis(1L) - 1L));
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+}
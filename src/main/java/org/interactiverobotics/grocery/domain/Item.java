@@ -20,17 +20,22 @@
 
 package org.interactiverobotics.grocery.domain;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import java.util.Date;
+import java.util.Objects;
 
 /**
  * Item domain class.
@@ -41,12 +46,19 @@ public class Item {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_id_seq")
-    @SequenceGenerator(name = "item_id_seq", sequenceName = "item_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "item_id_seq", sequenceName = "item_id_seq", allocationSize = 50)
     private Long id;
 
     @Column
     private String name;
 
+    @Column
+    private Long version;
+
+    @Column
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updated;
+
     public Item() {
     }
 
@@ -75,19 +87,54 @@ public class Item {
         this.name = name;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Date getUpdated() {
+        return updated == null ? null : new Date(updated.getTime());
+    }
+
+    public void setUpdated(Date updated) {
+        this.updated = updated == null ? null : new Date(updated.getTime());
+    }
+
+    /**
+     * Increments version and sets time of modification, they are used as ETag and Last-Modified of collections.
+     */
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        version = version == null ? 0L : version + 1;
+        updated = new Date();
+    }
+
     @Override
     public boolean equals(Object object) {
-        return EqualsBuilder.reflectionEquals(this, object);
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof Item)) {
+            return false;
+        }
+        return id != null && id.equals(((Item) object).getId());
     }
 
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this);
+        return Objects.hashCode(id);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this);
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("id", id)
+                .append("name", name)
+                .toString();
     }
 
 }
@@ -20,9 +20,8 @@
 
 package org.interactiverobotics.grocery.domain;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -36,6 +35,7 @@ import javax.persistence.OneToOne;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import java.math.BigDecimal;
+import java.util.Objects;
 
 /**
  * Purchase domain class.
@@ -46,7 +46,7 @@ public class Purchase {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_id_seq")
-    @SequenceGenerator(name = "purchase_id_seq", sequenceName = "purchase_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "purchase_id_seq", sequenceName = "purchase_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -138,16 +138,27 @@ public class Purchase {
 
     @Override
     public boolean equals(Object object) {
-        return EqualsBuilder.reflectionEquals(this, object);
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof Purchase)) {
+            return false;
+        }
+        return id != null && id.equals(((Purchase) object).getId());
     }
 
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this);
+        return Objects.hashCode(id);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this);
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("id", id)
+                .append("itemId", item == null ? null : item.getId())
+                .append("quantity", quantity)
+                .append("price", price)
+                .toString();
     }
 }
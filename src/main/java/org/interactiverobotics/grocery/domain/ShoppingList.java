@@ -20,9 +20,8 @@
 
 package org.interactiverobotics.grocery.domain;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -32,10 +31,16 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
 import javax.persistence.Transient;
+import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * ShoppingList domain class.
@@ -46,7 +51,7 @@ public class ShoppingList {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shopping_list_id_seq")
-    @SequenceGenerator(name = "shopping_list_id_seq", sequenceName = "shopping_list_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "shopping_list_id_seq", sequenceName = "shopping_list_id_seq", allocationSize = 50)
     private Long id;
 
     @Column
@@ -56,6 +61,13 @@ public class ShoppingList {
     @OneToMany(mappedBy = "shoppingList", cascade = CascadeType.REMOVE, fetch = FetchType.LAZY)
     private List<Item> items;
 
+    @Column
+    private Long version;
+
+    @Column
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updated;
+
     public ShoppingList() {
     }
 
@@ -92,18 +104,53 @@ public class ShoppingList {
         this.items = items;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Date getUpdated() {
+        return updated == null ? null : new Date(updated.getTime());
+    }
+
+    public void setUpdated(Date updated) {
+        this.updated = updated == null ? null : new Date(updated.getTime());
+    }
+
+    /**
+     * Increments version and sets time of modification, they are used as ETag and Last-Modified of collections.
+     */
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        version = version == null ? 0L : version + 1;
+        updated = new Date();
+    }
+
     @Override
     public boolean equals(Object object) {
-        return EqualsBuilder.reflectionEquals(this, object);
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof ShoppingList)) {
+            return false;
+        }
+        return id != null && id.equals(((ShoppingList) object).getId());
     }
 
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this);
+        return Objects.hashCode(id);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this);
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("id", id)
+                .append("name", name)
+                .toString();
     }
 }
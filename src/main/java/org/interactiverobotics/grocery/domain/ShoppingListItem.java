@@ -20,9 +20,8 @@
 
 package org.interactiverobotics.grocery.domain;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -33,8 +32,14 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import java.util.Date;
+import java.util.Objects;
 
 /**
  * ShoppingListItem domain class.
@@ -46,7 +51,7 @@ public class ShoppingListItem {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shopping_list_item_id_seq")
     @SequenceGenerator(name = "shopping_list_item_id_seq", sequenceName = "shopping_list_item_id_seq",
-            allocationSize = 1)
+            allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -60,6 +65,13 @@ public class ShoppingListItem {
     @Column
     private Long quantity;
 
+    @Column
+    private Long version;
+
+    @Column
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updated;
+
     public ShoppingListItem() {
     }
 
@@ -114,19 +126,54 @@ public class ShoppingListItem {
         this.quantity = quantity;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Date getUpdated() {
+        return updated == null ? null : new Date(updated.getTime());
+    }
+
+    public void setUpdated(Date updated) {
+        this.updated = updated == null ? null : new Date(updated.getTime());
+    }
+
+    /**
+     * Increments version and sets time of modification, they are used as ETag and Last-Modified of collections.
+     */
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        version = version == null ? 0L : version + 1;
+        updated = new Date();
+    }
+
     @Override
     public boolean equals(Object object) {
-        return EqualsBuilder.reflectionEquals(this, object);
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof ShoppingListItem)) {
+            return false;
+        }
+        return id != null && id.equals(((ShoppingListItem) object).getId());
     }
 
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this);
+        return Objects.hashCode(id);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this);
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("id", id)
+                .append("quantity", quantity)
+                .toString();
     }
 
 }
@@ -21,9 +21,8 @@
 package org.interactiverobotics.grocery.domain;
 
 import com.fasterxml.jackson.annotation.JsonFilter;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -43,6 +42,7 @@ import javax.persistence.TemporalType;
 import javax.persistence.Transient;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Visit domain class.
@@ -54,7 +54,7 @@ public class Visit {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visit_id_seq")
-    @SequenceGenerator(name = "visit_id_seq", sequenceName = "visit_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "visit_id_seq", sequenceName = "visit_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -139,17 +139,27 @@ public class Visit {
 
     @Override
     public boolean equals(Object object) {
-        return EqualsBuilder.reflectionEquals(this, object);
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof Visit)) {
+            return false;
+        }
+        return id != null && id.equals(((Visit) object).getId());
     }
 
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this);
+        return Objects.hashCode(id);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this);
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("id", id)
+                .append("started", started)
+                .append("completed", completed)
+                .toString();
     }
 
     /**
@@ -0,0 +1,126 @@
+/*
+ * PurchaseEvent.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.event;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Purchase;
+
+import java.math.BigDecimal;
+
+/**
+ * Purchase event.
+ * Delta of Purchase of Visit: Purchase is created or updated (UPDATED) or deleted (DELETED).
+ * Event holds values, so it doesn't depend on persistence context when it is delivered.
+ */
+public class PurchaseEvent {
+
+    /**
+     * Event type.
+     */
+    public enum Type {
+        UPDATED, DELETED
+    }
+
+    private final Type type;
+
+    private final Long visitId;
+
+    private final Long id;
+
+    private final Long itemId;
+
+    private final String itemName;
+
+    private final Long quantity;
+
+    private final BigDecimal price;
+
+    /**
+     * Parametrized constructor.
+     */
+    public PurchaseEvent(final Type type, final Long visitId, final Long id, final Long itemId,
+                         final String itemName, final Long quantity, final BigDecimal price) {
+        this.type = type;
+        this.visitId = visitId;
+        this.id = id;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    /**
+     * Returns event of created or updated Purchase of Item.
+     */
+    public static PurchaseEvent updated(final Long visitId, final Purchase purchase, final Item item) {
+        return new PurchaseEvent(Type.UPDATED, visitId, purchase.getId(), item.getId(), item.getName(),
+                purchase.getQuantity(), purchase.getPrice());
+    }
+
+    /**
+     * Returns event of deleted Purchase of Item.
+     */
+    public static PurchaseEvent deleted(final Long visitId, final Purchase purchase, final Item item) {
+        return new PurchaseEvent(Type.DELETED, visitId, purchase.getId(), item.getId(), item.getName(), 0L, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getVisitId() {
+        return visitId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("type", type)
+                .append("visitId", visitId)
+                .append("id", id)
+                .append("itemId", itemId)
+                .append("quantity", quantity)
+                .append("price", price)
+                .toString();
+    }
+}
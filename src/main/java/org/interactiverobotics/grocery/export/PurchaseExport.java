@@ -0,0 +1,120 @@
+/*
+ * PurchaseExport.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.export;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Purchase export record.
+ * Purchase joined with its Visit, Shop and Item, selected by constructor expression,
+ * so exported rows are not attached to persistence context.
+ */
+public class PurchaseExport {
+
+    private final Long id;
+
+    private final Long visitId;
+
+    private final Date started;
+
+    private final Date completed;
+
+    private final Long shopId;
+
+    private final String shopName;
+
+    private final Long itemId;
+
+    private final String itemName;
+
+    private final Long quantity;
+
+    private final BigDecimal price;
+
+    /**
+     * Parametrized constructor.
+     */
+    public PurchaseExport(final Long id, final Long visitId, final Date started, final Date completed,
+                          final Long shopId, final String shopName, final Long itemId, final String itemName,
+                          final Long quantity, final BigDecimal price) {
+        this.id = id;
+        this.visitId = visitId;
+        this.started = copyDate(started);
+        this.completed = copyDate(completed);
+        this.shopId = shopId;
+        this.shopName = shopName;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVisitId() {
+        return visitId;
+    }
+
+    public Date getStarted() {
+        return copyDate(started);
+    }
+
+    public Date getCompleted() {
+        return copyDate(completed);
+    }
+
+    public Long getShopId() {
+        return shopId;
+    }
+
+    public String getShopName() {
+        return shopName;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    /**
+     * Returns copy of given date or null if source is null.
+     */
+    private static Date copyDate(final Date source) {
+        if (source == null) {
+            return null;
+        }
+        return new Date(source.getTime());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * MetricsAspect.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Metrics aspect.
+ * Records timer of every call of public Service and Repository method tagged with class, method and exception.
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+
+    public static final String SERVICE_METRIC = "grocery.service";
+
+    public static final String REPOSITORY_METRIC = "grocery.repository";
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsAspect(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times call of Service method.
+     */
+    @Around("execution(public * org.interactiverobotics.grocery.service.*Service.*(..))")
+    public Object timeService(final ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE_METRIC, joinPoint.getSignature().getDeclaringType().getSimpleName());
+    }
+
+    /**
+     * Times call of Repository method.
+     * Repository is tagged with its interface because most of methods are declared by Spring Data interfaces.
+     */
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object timeRepository(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+        return time(joinPoint, REPOSITORY_METRIC, interfaces[0].getSimpleName());
+    }
+
+    private Object time(final ProceedingJoinPoint joinPoint, final String name, final String className)
+            throws Throwable {
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("class", className)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
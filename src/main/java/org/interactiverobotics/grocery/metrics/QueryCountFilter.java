@@ -0,0 +1,120 @@
+/*
+ * QueryCountFilter.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Query count filter.
+ * Counts SQL statements of request including rendering of view and records count to metrics.
+ * If count exceeds budget of endpoint then warning is logged or request fails
+ * if <code>grocery.query-count.fail-on-budget-exceeded</code> is set.
+ * Count is returned in response header if <code>grocery.query-count.header</code> is set.
+ * Response is buffered (to add header or replace it by error after the body is rendered) only if header
+ * or failing is on. Response of streaming endpoint is never buffered.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    public static final String QUERY_COUNT_METRIC = "grocery.request.queries";
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    private final QueryCountProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public QueryCountFilter(final QueryCountProperties properties, final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        final boolean buffered = (properties.isHeader() || properties.isFailOnBudgetExceeded())
+                && !isStreaming(request);
+        final ContentCachingResponseWrapper responseWrapper = buffered
+                ? new ContentCachingResponseWrapper(response) : null;
+        QueryCounter.reset();
+        try {
+            chain.doFilter(request, buffered ? responseWrapper : response);
+        } finally {
+            final long count = QueryCounter.getCount();
+            final String endpoint = request.getMethod() + " " + Optional
+                    .ofNullable(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+                    .orElse("UNKNOWN");
+
+            DistributionSummary.builder(QUERY_COUNT_METRIC)
+                    .tag("method", request.getMethod())
+                    .tag("uri", endpoint.substring(request.getMethod().length() + 1))
+                    .register(meterRegistry)
+                    .record(count);
+
+            final Long budget = properties.getBudget().get(endpoint);
+            if (budget != null && count > budget) {
+                LOG.warn("{} SQL statement(s) executed for {} exceed budget {}", count, endpoint, budget);
+                if (properties.isFailOnBudgetExceeded() && buffered) {
+                    responseWrapper.resetBuffer();
+                    responseWrapper.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                            "Query budget " + budget + " exceeded: " + count);
+                }
+            } else {
+                LOG.debug("{} SQL statement(s) executed for {}", count, endpoint);
+            }
+
+            if (buffered) {
+                if (properties.isHeader()) {
+                    responseWrapper.setHeader(QUERY_COUNT_HEADER, String.valueOf(count));
+                }
+                responseWrapper.copyBodyToResponse();
+            }
+        }
+    }
+
+    /**
+     * Returns true if request path matches one of streaming endpoints.
+     */
+    private boolean isStreaming(final HttpServletRequest request) {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getStreaming().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * QueryCountProperties.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query count properties.
+ * Budget is max number of SQL statements per request by endpoint, e.g. "GET /api/v1/item/list".
+ * Header turns on response header with count of SQL statements.
+ * Streaming is list of path patterns of endpoints which response is not buffered, e.g. "/api/v1/purchase/export".
+ */
+@ConfigurationProperties("grocery.query-count")
+public class QueryCountProperties {
+
+    private Map<String, Long> budget = new HashMap<>();
+
+    private boolean failOnBudgetExceeded;
+
+    private boolean header;
+
+    private List<String> streaming = new ArrayList<>();
+
+    public Map<String, Long> getBudget() {
+        return budget;
+    }
+
+    public void setBudget(Map<String, Long> budget) {
+        this.budget = budget;
+    }
+
+    public boolean isFailOnBudgetExceeded() {
+        return failOnBudgetExceeded;
+    }
+
+    public void setFailOnBudgetExceeded(boolean failOnBudgetExceeded) {
+        this.failOnBudgetExceeded = failOnBudgetExceeded;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    public void setHeader(boolean header) {
+        this.header = header;
+    }
+
+    public List<String> getStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(List<String> streaming) {
+        this.streaming = streaming;
+    }
+}
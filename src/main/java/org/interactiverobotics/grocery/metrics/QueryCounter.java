@@ -0,0 +1,99 @@
+/*
+ * QueryCounter.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Query counter.
+ * Counts SQL statements executed by current thread through connections of data source wrapped by counter,
+ * so statements of Hibernate and JdbcTemplate are counted alike. Batch is counted as one statement.
+ * Counter is reset by QueryCountFilter at the start of every request.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static final Set<String> EXECUTE_METHODS = new HashSet<>(Arrays.asList("execute", "executeQuery",
+            "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch"));
+
+    private QueryCounter() {
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static long getCount() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * Wraps data source to count statements of its connections.
+     * Wrapper is subclass of data source, so it can be injected as data source of its own type.
+     */
+    public static DataSource wrap(final DataSource dataSource) {
+        final ProxyFactory proxyFactory = new ProxyFactory(dataSource);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            final Object result = invocation.proceed();
+            return result instanceof Connection ? proxy(result) : result;
+        });
+        return (DataSource) proxyFactory.getProxy(dataSource.getClass().getClassLoader());
+    }
+
+    /**
+     * Returns proxy of Connection or Statement that wraps created Statement(s) and counts executions of Statement.
+     */
+    private static Object proxy(final Object target) {
+        return Proxy.newProxyInstance(QueryCounter.class.getClassLoader(),
+                ClassUtils.getAllInterfacesForClass(target.getClass(), QueryCounter.class.getClassLoader()),
+                (proxy, method, arguments) -> {
+                    // Proxy is equal only to itself, like target
+                    if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                        return proxy == arguments[0];
+                    } else if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (target instanceof Statement && EXECUTE_METHODS.contains(method.getName())) {
+                        COUNT.get()[0] ++;
+                    }
+                    final Object result;
+                    try {
+                        result = method.invoke(target, arguments);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    return target instanceof Connection && result instanceof Statement ? proxy(result) : result;
+                });
+    }
+}
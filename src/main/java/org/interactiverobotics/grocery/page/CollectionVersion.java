@@ -0,0 +1,72 @@
+/*
+ * CollectionVersion.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.page;
+
+import java.util.Date;
+
+/**
+ * Version of collection of entities.
+ * Consists of number of entities, sum of their versions and time of the last modification, so any create,
+ * update or delete changes it. Used as strong ETag and Last-Modified of collection.
+ */
+public class CollectionVersion {
+
+    private final long count;
+
+    private final long version;
+
+    private final Date updated;
+
+    /**
+     * Parametrized constructor. Sum of versions and time of the last modification are null for empty collection.
+     */
+    public CollectionVersion(final Long count, final Long version, final Date updated) {
+        this.count = count == null ? 0L : count;
+        this.version = version == null ? 0L : version;
+        this.updated = updated == null ? null : new Date(updated.getTime());
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Date getUpdated() {
+        return updated == null ? null : new Date(updated.getTime());
+    }
+
+    /**
+     * Returns ETag of collection.
+     */
+    public String getETag() {
+        return count + "-" + version + "-" + getLastModified();
+    }
+
+    /**
+     * Returns time of the last modification in milliseconds or -1 for empty collection.
+     */
+    public long getLastModified() {
+        return updated == null ? -1L : updated.getTime();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * CountCache.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.page;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of total counts of pages.
+ * Count is kept for short time (<code>grocery.count-cache.ttl</code> in milliseconds) and invalidated
+ * by Services on create and delete. Key is name of entities optionally followed by ':' and Id of owner,
+ * e.g. "purchases:1" for Purchase(s) of Visit #1.
+ * Counts are indexed by name of entities, every name has its own cache of at most
+ * <code>grocery.count-cache.maximum-size</code> counts, so invalidation touches only counts of the same entities.
+ */
+@Component
+public class CountCache {
+
+    public static final String ITEMS = "items";
+    public static final String SHOPS = "shops";
+    public static final String SHOPPING_LISTS = "shopping_lists";
+    public static final String SHOPPING_LIST_ITEMS = "shopping_list_items";
+    public static final String VISITS = "visits";
+    public static final String PURCHASES = "purchases";
+
+    private static final String SEPARATOR = ":";
+
+    private final long ttl;
+
+    private final long maximumSize;
+
+    private final ConcurrentMap<String, Cache<String, Long>> counts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CountCache(@Value("${grocery.count-cache.ttl:5000}") final long ttl,
+                      @Value("${grocery.count-cache.maximum-size:10000}") final long maximumSize) {
+        this.ttl = ttl;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns key of count of entities that belong to owner.
+     */
+    public static String key(final String name, final Long ownerId) {
+        return name + SEPARATOR + ownerId;
+    }
+
+    /**
+     * Returns cached count or counts and caches result.
+     * Counter is called outside of cache, so slow count doesn't block other keys.
+     */
+    public long get(final String key, final LongSupplier counter) {
+        final Cache<String, Long> cache = getCache(key);
+        final String owner = getOwner(key);
+        final Long count = cache.getIfPresent(owner);
+        if (count != null) {
+            return count;
+        }
+        final long value = counter.getAsLong();
+        cache.put(owner, value);
+        return value;
+    }
+
+    /**
+     * Invalidates count by key and all counts of the same entities by owners if key is entities name.
+     */
+    public void invalidate(final String key) {
+        final Cache<String, Long> cache = counts.get(getName(key));
+        if (cache == null) {
+            return;
+        }
+        if (key.contains(SEPARATOR)) {
+            cache.invalidate(getOwner(key));
+        } else {
+            cache.invalidateAll();
+        }
+    }
+
+    private Cache<String, Long> getCache(final String key) {
+        return counts.computeIfAbsent(getName(key), name -> Caffeine.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .maximumSize(maximumSize)
+                .build());
+    }
+
+    private static String getName(final String key) {
+        final int separator = key.indexOf(SEPARATOR);
+        return separator < 0 ? key : key.substring(0, separator);
+    }
+
+    /**
+     * Returns Id of owner from key, or empty string for count of all entities.
+     */
+    private static String getOwner(final String key) {
+        final int separator = key.indexOf(SEPARATOR);
+        return separator < 0 ? "" : key.substring(separator + 1);
+    }
+}
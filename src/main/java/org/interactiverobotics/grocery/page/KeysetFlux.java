@@ -0,0 +1,67 @@
+/*
+ * KeysetFlux.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.page;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Keyset flux.
+ * Flux of pages of entities ordered by Id which are loaded by keyset on demand: page is loaded only when
+ * subscriber requests it, so nothing is read ahead of slow subscriber.
+ * Every page is loaded by its own short query, so no database connection is held between pages.
+ */
+public final class KeysetFlux {
+
+    private KeysetFlux() {
+    }
+
+    /**
+     * Returns flux of pages of entities of given size loaded on scheduler.
+     *
+     * @param pageAfter loads page of entities with Id greater than given ordered by Id
+     * @param pageSize page size
+     * @param id returns Id of entity
+     * @param scheduler scheduler to run blocking queries on
+     */
+    public static <T> Flux<List<T>> of(final BiFunction<Pageable, Long, List<T>> pageAfter, final int pageSize,
+                                       final Function<T, Long> id, final Scheduler scheduler) {
+
+        final Pageable pageable = PageRequest.of(0, pageSize);
+        return Flux.<List<T>, Long>generate(() -> 0L, (after, sink) -> {
+            final List<T> page = pageAfter.apply(pageable, after);
+            if (!page.isEmpty()) {
+                sink.next(page);
+            }
+            if (page.size() < pageSize) {
+                sink.complete();
+                return after;
+            }
+            return id.apply(page.get(page.size() - 1));
+        }).subscribeOn(scheduler);
+    }
+}
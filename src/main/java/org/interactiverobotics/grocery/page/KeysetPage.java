@@ -0,0 +1,112 @@
+/*
+ * KeysetPage.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.page;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset page.
+ * Page of entities ordered by Id that starts after the entity identified by opaque token.
+ * Total count is not known. Token of the next page is null for the last page.
+ */
+public class KeysetPage<T> {
+
+    private final List<T> content;
+
+    private final int size;
+
+    private final String next;
+
+    /**
+     * Parametrized constructor.
+     */
+    @JsonCreator
+    public KeysetPage(@JsonProperty("content") final List<T> content,
+                      @JsonProperty("size") final int size,
+                      @JsonProperty("next") final String next) {
+        this.content = content;
+        this.size = size;
+        this.next = next;
+    }
+
+    /**
+     * Returns request to load page with one extra entity to know if there is the next page.
+     */
+    public static Pageable request(final Pageable pageable) {
+        return PageRequest.of(0, pageable.getPageSize() + 1);
+    }
+
+    /**
+     * Creates page of entities loaded by request.
+     */
+    public static <T> KeysetPage<T> of(final List<T> content, final Pageable pageable, final Function<T, Long> id) {
+        if (content.size() <= pageable.getPageSize()) {
+            return new KeysetPage<>(content, pageable.getPageSize(), null);
+        }
+        final List<T> pageContent = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        return new KeysetPage<>(pageContent, pageable.getPageSize(),
+                encodeToken(id.apply(pageContent.get(pageContent.size() - 1))));
+    }
+
+    /**
+     * Encodes Id of the last entity of page to token.
+     */
+    public static String encodeToken(final Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes Id of the last entity of previous page from token.
+     * Empty token means the first page.
+     */
+    public static Long decodeToken(final String token) {
+        if (token == null || token.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token!", e);
+        }
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
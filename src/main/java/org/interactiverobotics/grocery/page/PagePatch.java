@@ -0,0 +1,127 @@
+/*
+ * PagePatch.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.page;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Page patch.
+ * Client sends versions of rows of page it shows ("id:version,..."), so only new and changed rows are rendered.
+ * Comma separated Ids of all rows keep order of page, client takes other rows from the page it shows.
+ * Without versions of known rows patch is the whole page (Ids are null).
+ * Version of row is token of shown values, so it changes with any of them and different values never collide.
+ */
+public class PagePatch<T> {
+
+    private final List<T> content;
+
+    private final Map<Long, String> versions;
+
+    private final String ids;
+
+    /**
+     * Parametrized constructor.
+     */
+    public PagePatch(final List<T> content, final Map<Long, String> versions, final String ids) {
+        this.content = content;
+        this.versions = versions;
+        this.ids = ids;
+    }
+
+    /**
+     * Creates patch of page for client that shows rows with known versions.
+     */
+    public static <T> PagePatch<T> of(final List<T> page, final Function<T, Long> id, final Function<T, ?> version,
+                                      final String known) {
+        final Map<Long, String> versions = new LinkedHashMap<>();
+        page.forEach(row -> versions.put(id.apply(row), version(version.apply(row))));
+        if (known == null) {
+            return new PagePatch<>(page, versions, null);
+        }
+        final Map<Long, String> knownVersions = parseVersions(known);
+        final List<T> content = page.stream()
+                .filter(row -> !Objects.equals(versions.get(id.apply(row)), knownVersions.get(id.apply(row))))
+                .collect(Collectors.toList());
+        return new PagePatch<>(content, versions, versions.keySet().stream().map(String::valueOf)
+                .collect(Collectors.joining(",")));
+    }
+
+    /**
+     * Returns version token of row from shown values: "value-value-...". Date is written as milliseconds, null
+     * as empty value, so token contains neither ',' nor ':'.
+     */
+    public static String version(final Object... values) {
+        return Arrays.stream(values).map(value -> {
+            if (value == null) {
+                return "";
+            } else if (value instanceof Date) {
+                return String.valueOf(((Date) value).getTime());
+            } else if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).toPlainString();
+            }
+            return String.valueOf(value);
+        }).collect(Collectors.joining("-"));
+    }
+
+    /**
+     * Parses versions of rows: "id:version,...".
+     */
+    public static Map<Long, String> parseVersions(final String versions) {
+        if (versions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<Long, String> parsedVersions = new HashMap<>();
+        for (final String row : versions.split(",")) {
+            final String[] idAndVersion = row.split(":");
+            if (idAndVersion.length != 2 || idAndVersion[1].isEmpty()) {
+                throw new IllegalArgumentException("Invalid row version!");
+            }
+            try {
+                parsedVersions.put(Long.valueOf(idAndVersion[0]), idAndVersion[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid row version!", e);
+            }
+        }
+        return parsedVersions;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public Map<Long, String> getVersions() {
+        return versions;
+    }
+
+    public String getIds() {
+        return ids;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * PriceStatistics.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.report;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Statistics of observed Price(s) of Item in Shop or in all Shop(s) in period.
+ * Prices are unknown (null) if no Price is observed.
+ */
+public class PriceStatistics {
+
+    private final Long itemId;
+
+    private final Long shopId;
+
+    private final Long count;
+
+    private final BigDecimal minPrice;
+
+    private final BigDecimal maxPrice;
+
+    private final BigDecimal averagePrice;
+
+    private final BigDecimal lastPrice;
+
+    private final Date lastObserved;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param itemId Id of Item
+     * @param shopId Id of Shop or null for all Shop(s)
+     * @param count number of observed Price(s)
+     * @param minPrice minimal Price
+     * @param maxPrice maximal Price
+     * @param averagePrice average of observed Price(s)
+     * @param lastPrice the last observed Price
+     * @param lastObserved time when the last Price is observed
+     */
+    public PriceStatistics(final Long itemId, final Long shopId, final Long count, final BigDecimal minPrice,
+                           final BigDecimal maxPrice, final BigDecimal averagePrice, final BigDecimal lastPrice,
+                           final Date lastObserved) {
+        this.itemId = itemId;
+        this.shopId = shopId;
+        this.count = count;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.averagePrice = averagePrice;
+        this.lastPrice = lastPrice;
+        this.lastObserved = copyDate(lastObserved);
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public Long getShopId() {
+        return shopId;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public BigDecimal getAveragePrice() {
+        return averagePrice;
+    }
+
+    public BigDecimal getLastPrice() {
+        return lastPrice;
+    }
+
+    public Date getLastObserved() {
+        return copyDate(lastObserved);
+    }
+
+    /**
+     * Returns copy of given date or null if source is null.
+     */
+    private static Date copyDate(final Date source) {
+        if (source == null) {
+            return null;
+        }
+        return new Date(source.getTime());
+    }
+}
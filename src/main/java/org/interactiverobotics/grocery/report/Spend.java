@@ -0,0 +1,78 @@
+/*
+ * Spend.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Spend in Shop or on Item in period.
+ * Spend is sum of Quantity * Price of Purchase(s), Purchase(s) with unknown Price are counted in Quantity only.
+ */
+public class Spend {
+
+    private final LocalDate period;
+
+    private final Long id;
+
+    private final String name;
+
+    private final Long quantity;
+
+    private final BigDecimal spend;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param period the first day of period
+     * @param id Id of Shop or Item
+     * @param name Name of Shop or Item
+     * @param quantity number of bought Item(s)
+     * @param spend sum of Quantity * Price
+     */
+    public Spend(final LocalDate period, final Long id, final String name, final Long quantity, final BigDecimal spend) {
+        this.period = period;
+        this.id = id;
+        this.name = name;
+        this.quantity = quantity;
+        this.spend = spend;
+    }
+
+    public LocalDate getPeriod() {
+        return period;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getSpend() {
+        return spend;
+    }
+}
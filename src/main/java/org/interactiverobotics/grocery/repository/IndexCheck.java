@@ -0,0 +1,132 @@
+/*
+ * IndexCheck.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks on startup that indexes of the hottest lookups exist.
+ * Missing index is logged, startup fails if <code>grocery.index-check.fail-on-missing</code> is set.
+ */
+@Component
+@ConditionalOnProperty(name = "grocery.index-check.enabled", matchIfMissing = true)
+public class IndexCheck {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexCheck.class);
+
+    /**
+     * Expected indexes by table.
+     */
+    private static final Map<String, List<String>> EXPECTED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        EXPECTED_INDEXES.put("items", Arrays.asList("item_name_uk"));
+        EXPECTED_INDEXES.put("shops", Arrays.asList("shop_name_uk"));
+        EXPECTED_INDEXES.put("shopping_lists", Arrays.asList("shopping_list_name_uk"));
+        EXPECTED_INDEXES.put("shopping_list_items", Arrays.asList("shopping_list_item_shopping_list_item_uk",
+                "shopping_list_item_shopping_list_id_idx"));
+        EXPECTED_INDEXES.put("purchases", Arrays.asList("purchase_visit_item_uk", "purchase_visit_id_idx"));
+        EXPECTED_INDEXES.put("price_statistics", Arrays.asList("price_statistics_pk"));
+    }
+
+    private final DataSource dataSource;
+
+    private final boolean failOnMissing;
+
+    @Autowired
+    public IndexCheck(final DataSource dataSource,
+                      @Value("${grocery.index-check.fail-on-missing:false}") final boolean failOnMissing) {
+        this.dataSource = dataSource;
+        this.failOnMissing = failOnMissing;
+    }
+
+    /**
+     * Checks indexes when application is started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        final List<String> missingIndexes = getMissingIndexes();
+        if (missingIndexes.isEmpty()) {
+            LOG.info("All expected indexes exist");
+            return;
+        }
+        if (failOnMissing) {
+            throw new IllegalStateException("Missing index(es): " + missingIndexes);
+        }
+        LOG.warn("Missing index(es): {}", missingIndexes);
+    }
+
+    /**
+     * Returns missing indexes as table.index.
+     */
+    public List<String> getMissingIndexes() {
+        final List<String> missingIndexes = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            final DatabaseMetaData metaData = connection.getMetaData();
+            for (final Map.Entry<String, List<String>> entry : EXPECTED_INDEXES.entrySet()) {
+                final Set<String> indexes = getIndexes(metaData, connection.getCatalog(), entry.getKey());
+                entry.getValue().stream()
+                        .filter(index -> !indexes.contains(index))
+                        .forEach(index -> missingIndexes.add(entry.getKey() + "." + index));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Can't check indexes!", e);
+        }
+        return missingIndexes;
+    }
+
+    /**
+     * Returns names of indexes of table.
+     */
+    private static Set<String> getIndexes(final DatabaseMetaData metaData, final String catalog, final String table)
+            throws SQLException {
+        final Set<String> indexes = new HashSet<>();
+        try (ResultSet resultSet = metaData.getIndexInfo(catalog, null, table, false, true)) {
+            while (resultSet.next()) {
+                final String index = resultSet.getString("INDEX_NAME");
+                if (index != null) {
+                    indexes.add(index.toLowerCase());
+                }
+            }
+        }
+        return indexes;
+    }
+}
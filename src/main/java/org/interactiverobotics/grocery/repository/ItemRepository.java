@@ -20,13 +20,70 @@
 
 package org.interactiverobotics.grocery.repository;
 
+import org.interactiverobotics.grocery.configuration.CacheConfiguration;
 import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.page.CollectionVersion;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Item repository.
+ * Item(s) found by Id or Name are cached. Every write evicts all cached Item(s): Item(s) change rarely and
+ * entry by Name can't be found by Id. Version of Item(s) is cached until the next write too, so ETag of Item(s)
+ * doesn't aggregate the whole table on every request.
  */
 public interface ItemRepository extends PagingAndSortingRepository<Item, Long> {
 
+    @Override
+    @Cacheable(cacheNames = CacheConfiguration.ITEMS, unless = "#result == null")
+    Optional<Item> findById(Long id);
+
+    @Cacheable(cacheNames = CacheConfiguration.ITEMS_BY_NAME, unless = "#result == null")
     Item findOneByName(String name);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.ITEMS, CacheConfiguration.ITEMS_BY_NAME,
+            CacheConfiguration.ITEMS_VERSION}, allEntries = true)
+    <S extends Item> S save(S item);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.ITEMS, CacheConfiguration.ITEMS_BY_NAME,
+            CacheConfiguration.ITEMS_VERSION}, allEntries = true)
+    <S extends Item> Iterable<S> saveAll(Iterable<S> items);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.ITEMS, CacheConfiguration.ITEMS_BY_NAME,
+            CacheConfiguration.ITEMS_VERSION}, allEntries = true)
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.ITEMS, CacheConfiguration.ITEMS_BY_NAME,
+            CacheConfiguration.ITEMS_VERSION}, allEntries = true)
+    void delete(Item item);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.ITEMS, CacheConfiguration.ITEMS_BY_NAME,
+            CacheConfiguration.ITEMS_VERSION}, allEntries = true)
+    void deleteAll(Iterable<? extends Item> items);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.ITEMS, CacheConfiguration.ITEMS_BY_NAME,
+            CacheConfiguration.ITEMS_VERSION}, allEntries = true)
+    void deleteAll();
+
+    @Cacheable(cacheNames = CacheConfiguration.ITEMS_VERSION)
+    @Query("SELECT new org.interactiverobotics.grocery.page.CollectionVersion(COUNT(i), SUM(i.version), MAX(i.updated))"
+            + " FROM Item i")
+    CollectionVersion findVersion();
+
+    Slice<Item> findSliceBy(Pageable pageable);
+
+    List<Item> findAllByIdGreaterThanOrderById(Pageable pageable, Long after);
 }
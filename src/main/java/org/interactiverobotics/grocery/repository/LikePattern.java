@@ -0,0 +1,46 @@
+/*
+ * LikePattern.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.repository;
+
+import java.util.Locale;
+
+/**
+ * LIKE pattern of queries.
+ * Wildcards of user input are escaped by backslash, so they are matched literally.
+ */
+public final class LikePattern {
+
+    private LikePattern() {
+    }
+
+    /**
+     * Returns lower case pattern that matches strings starting with given prefix. Null prefix matches all.
+     */
+    public static String prefix(final String prefix) {
+        if (prefix == null) {
+            return "%";
+        }
+        return prefix.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
@@ -23,20 +23,67 @@ package org.interactiverobotics.grocery.repository;
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.Purchase;
 import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.export.PurchaseExport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Temporal;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import javax.persistence.TemporalType;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Purchase repository.
  */
-public interface PurchaseRepository extends PagingAndSortingRepository<Purchase, Long> {
+public interface PurchaseRepository extends PagingAndSortingRepository<Purchase, Long>, PurchaseRepositoryCustom {
 
+    @EntityGraph(attributePaths = "item")
     List<Purchase> findAllByVisit(Visit visit);
 
+    @EntityGraph(attributePaths = "item")
     Page<Purchase> findAllByVisit(Pageable pageable, Visit visit);
 
+    @EntityGraph(attributePaths = "item")
+    Slice<Purchase> findSliceByVisit(Pageable pageable, Visit visit);
+
+    long countByVisit(Visit visit);
+
+    @EntityGraph(attributePaths = "item")
+    List<Purchase> findAllByVisitAndIdGreaterThanOrderById(Pageable pageable, Visit visit, Long after);
+
     Purchase findOneByVisitAndItem(Visit visit, Item item);
+
+    @Query("SELECT i FROM Item i WHERE NOT EXISTS "
+            + "(SELECT p FROM Purchase p WHERE p.visit = :visit AND p.item = i)")
+    List<Item> findNotPurchasedItems(@Param("visit") Visit visit);
+
+    // Pattern is lower case and escaped by LikePattern
+    @Query(value = "SELECT i FROM Item i WHERE LOWER(i.name) LIKE :pattern ESCAPE '\\' "
+            + "AND NOT EXISTS (SELECT p FROM Purchase p WHERE p.visit = :visit AND p.item = i) "
+            + "ORDER BY i.name, i.id",
+            countQuery = "SELECT COUNT(i) FROM Item i WHERE LOWER(i.name) LIKE :pattern ESCAPE '\\' "
+            + "AND NOT EXISTS (SELECT p FROM Purchase p WHERE p.visit = :visit AND p.item = i)")
+    Page<Item> findNotPurchasedItems(Pageable pageable, @Param("visit") Visit visit,
+                                     @Param("pattern") String pattern);
+
+    // Rows are read by server-side cursor, null parameter means no filter
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new org.interactiverobotics.grocery.export.PurchaseExport(p.id, v.id, v.started, v.completed, "
+            + "s.id, s.name, i.id, i.name, p.quantity, p.price) "
+            + "FROM Purchase p JOIN p.visit v JOIN v.shop s JOIN p.item i "
+            + "WHERE (:shopId IS NULL OR s.id = :shopId) "
+            + "AND (CAST(:from AS timestamp) IS NULL OR v.started >= :from) "
+            + "AND (CAST(:to AS timestamp) IS NULL OR v.started < :to) "
+            + "ORDER BY p.id")
+    Stream<PurchaseExport> streamForExport(@Param("shopId") Long shopId,
+                                           @Param("from") @Temporal(TemporalType.TIMESTAMP) Date from,
+                                           @Param("to") @Temporal(TemporalType.TIMESTAMP) Date to);
 }
@@ -0,0 +1,58 @@
+/*
+ * PurchaseRepositoryCustom.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.repository;
+
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.domain.Visit;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Purchase repository of atomic changes of Quantity.
+ */
+public interface PurchaseRepositoryCustom {
+
+    /**
+     * Adds Quantity to Purchase of Item in Visit, Purchase is created if it doesn't exist.
+     * Price is averaged by Quantity with existing Price, unknown (null) Price keeps existing one.
+     */
+    Purchase addQuantity(Visit visit, Item item, Long quantity, BigDecimal price);
+
+    /**
+     * Adds Quantity and Price of every given Purchase (one per Item) to Purchase of its Item in Visit by one
+     * statement, like {@link #addQuantity(Visit, Item, Long, BigDecimal)}.
+     * Returns changed Purchase(s) in order of given ones.
+     */
+    List<Purchase> addQuantities(Visit visit, List<Purchase> purchases);
+
+    /**
+     * Subtracts Quantity from Purchase of Item in Visit.
+     * Returns null if Purchase doesn't exist or its Quantity is less than given.
+     */
+    Purchase subtractQuantity(Visit visit, Item item, Long quantity);
+
+    /**
+     * Deletes Purchase if its Quantity is 0.
+     */
+    void deleteEmpty(Purchase purchase);
+}
@@ -0,0 +1,175 @@
+/*
+ * PurchaseRepositoryImpl.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.repository;
+
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Purchase repository of atomic changes of Quantity.
+ * Purchase is changed by one statement, so concurrent changes don't lose updates. Statements are executed by JDBC
+ * and changed row is returned as new Purchase; managed copy of Purchase is detached from persistence context,
+ * so it is neither returned stale by later queries nor flushed over new values.
+ */
+public class PurchaseRepositoryImpl implements PurchaseRepositoryCustom {
+
+    private static final String ADD_QUANTITY_CONFLICT_SQL = "ON CONFLICT (visit_id, item_id) DO UPDATE SET "
+            + "quantity = purchases.quantity + EXCLUDED.quantity, "
+            + "price = CASE WHEN EXCLUDED.price IS NULL THEN purchases.price "
+            + "WHEN purchases.price IS NULL THEN EXCLUDED.price "
+            + "ELSE (purchases.price * purchases.quantity + EXCLUDED.price * EXCLUDED.quantity) "
+            + "/ (purchases.quantity + EXCLUDED.quantity) END ";
+
+    private static final String ADD_QUANTITY_SQL = "INSERT INTO purchases (visit_id, item_id, quantity, price) "
+            + "VALUES (:visitId, :itemId, :quantity, :price) "
+            + ADD_QUANTITY_CONFLICT_SQL
+            + "RETURNING id, quantity, price";
+
+    // Rows are inserted (and locked) in order of Item, so concurrent baskets don't deadlock
+    private static final String ADD_QUANTITIES_SQL = "INSERT INTO purchases (visit_id, item_id, quantity, price) "
+            + "SELECT :visitId, line.item_id, line.quantity, line.price "
+            + "FROM unnest(:itemIds, :quantities, :prices) AS line (item_id, quantity, price) "
+            + "ORDER BY line.item_id "
+            + ADD_QUANTITY_CONFLICT_SQL
+            + "RETURNING id, item_id, quantity, price";
+
+    private static final String SUBTRACT_QUANTITY_SQL = "UPDATE purchases SET quantity = quantity - :quantity "
+            + "WHERE visit_id = :visitId AND item_id = :itemId AND quantity >= :quantity "
+            + "RETURNING id, quantity, price";
+
+    private static final String DELETE_EMPTY_SQL = "DELETE FROM purchases WHERE id = :id AND quantity = 0";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public PurchaseRepositoryImpl(final NamedParameterJdbcTemplate jdbcTemplate,
+                                  final EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional
+    @Override
+    public Purchase addQuantity(final Visit visit, final Item item, final Long quantity, final BigDecimal price) {
+        return update(ADD_QUANTITY_SQL, visit, item, getParameters(visit, item, quantity).addValue("price", price));
+    }
+
+    @Transactional
+    @Override
+    public List<Purchase> addQuantities(final Visit visit, final List<Purchase> purchases) {
+        final Map<Long, Item> items = new HashMap<>();
+        purchases.forEach(purchase -> items.put(purchase.getItem().getId(), purchase.getItem()));
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("visitId", visit.getId())
+                .addValue("itemIds", array("int8", purchases.stream()
+                        .map(purchase -> purchase.getItem().getId()).toArray()), Types.ARRAY)
+                .addValue("quantities", array("int8", purchases.stream()
+                        .map(Purchase::getQuantity).toArray()), Types.ARRAY)
+                .addValue("prices", array("numeric", purchases.stream()
+                        .map(Purchase::getPrice).toArray()), Types.ARRAY);
+        entityManager.flush();
+        final Map<Long, Purchase> changedPurchases = new HashMap<>();
+        jdbcTemplate.query(ADD_QUANTITIES_SQL, parameters, resultSet -> {
+            final Item item = items.get(resultSet.getLong("item_id"));
+            changedPurchases.put(item.getId(), new Purchase(resultSet.getLong("id"), visit, item,
+                    resultSet.getLong("quantity"), resultSet.getBigDecimal("price")));
+        });
+        changedPurchases.values().forEach(purchase -> detach(purchase.getId()));
+        return purchases.stream().map(purchase -> changedPurchases.get(purchase.getItem().getId()))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    @Override
+    public Purchase subtractQuantity(final Visit visit, final Item item, final Long quantity) {
+        return update(SUBTRACT_QUANTITY_SQL, visit, item, getParameters(visit, item, quantity));
+    }
+
+    @Transactional
+    @Override
+    public void deleteEmpty(final Purchase purchase) {
+        entityManager.flush();
+        jdbcTemplate.update(DELETE_EMPTY_SQL, new MapSqlParameterSource("id", purchase.getId()));
+        detach(purchase.getId());
+    }
+
+    private static MapSqlParameterSource getParameters(final Visit visit, final Item item, final Long quantity) {
+        return new MapSqlParameterSource()
+                .addValue("visitId", visit.getId())
+                .addValue("itemId", item.getId())
+                .addValue("quantity", quantity);
+    }
+
+    /**
+     * Executes statement that returns changed row and maps it to Purchase of Visit and Item.
+     * Pending changes of persistence context are flushed before statement, like before native query.
+     */
+    private Purchase update(final String sql, final Visit visit, final Item item,
+                            final MapSqlParameterSource parameters) {
+        entityManager.flush();
+        final List<Purchase> purchases = jdbcTemplate.query(sql, parameters, (resultSet, rowNumber) ->
+                new Purchase(resultSet.getLong("id"), visit, item, resultSet.getLong("quantity"),
+                        resultSet.getBigDecimal("price")));
+        if (purchases.isEmpty()) {
+            return null;
+        }
+        detach(purchases.get(0).getId());
+        return purchases.get(0);
+    }
+
+    /**
+     * Creates SQL array parameter of given type.
+     */
+    private static AbstractSqlTypeValue array(final String type, final Object[] values) {
+        return new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(final Connection connection, final int sqlType, final String typeName)
+                    throws SQLException {
+                return connection.createArrayOf(type, values);
+            }
+        };
+    }
+
+    /**
+     * Detaches managed copy of Purchase if persistence context has it, reference doesn't load Purchase.
+     */
+    private void detach(final Long purchaseId) {
+        entityManager.detach(entityManager.getReference(Purchase.class, purchaseId));
+    }
+}
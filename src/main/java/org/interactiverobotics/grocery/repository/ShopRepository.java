@@ -20,13 +20,69 @@
 
 package org.interactiverobotics.grocery.repository;
 
+import org.interactiverobotics.grocery.configuration.CacheConfiguration;
 import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.page.CollectionVersion;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Shop repository.
+ * Shop(s) found by Id or Name and version of Shop(s) are cached, every write evicts all cached Shop(s)
+ * and version.
  */
 public interface ShopRepository extends PagingAndSortingRepository<Shop, Long> {
 
+    @Override
+    @Cacheable(cacheNames = CacheConfiguration.SHOPS, unless = "#result == null")
+    Optional<Shop> findById(Long id);
+
+    @Cacheable(cacheNames = CacheConfiguration.SHOPS_BY_NAME, unless = "#result == null")
     Shop findOneByName(String name);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.SHOPS, CacheConfiguration.SHOPS_BY_NAME,
+            CacheConfiguration.SHOPS_VERSION}, allEntries = true)
+    <S extends Shop> S save(S shop);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.SHOPS, CacheConfiguration.SHOPS_BY_NAME,
+            CacheConfiguration.SHOPS_VERSION}, allEntries = true)
+    <S extends Shop> Iterable<S> saveAll(Iterable<S> shops);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.SHOPS, CacheConfiguration.SHOPS_BY_NAME,
+            CacheConfiguration.SHOPS_VERSION}, allEntries = true)
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.SHOPS, CacheConfiguration.SHOPS_BY_NAME,
+            CacheConfiguration.SHOPS_VERSION}, allEntries = true)
+    void delete(Shop shop);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.SHOPS, CacheConfiguration.SHOPS_BY_NAME,
+            CacheConfiguration.SHOPS_VERSION}, allEntries = true)
+    void deleteAll(Iterable<? extends Shop> shops);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.SHOPS, CacheConfiguration.SHOPS_BY_NAME,
+            CacheConfiguration.SHOPS_VERSION}, allEntries = true)
+    void deleteAll();
+
+    @Cacheable(cacheNames = CacheConfiguration.SHOPS_VERSION)
+    @Query("SELECT new org.interactiverobotics.grocery.page.CollectionVersion(COUNT(s), SUM(s.version), MAX(s.updated))"
+            + " FROM Shop s")
+    CollectionVersion findVersion();
+
+    Slice<Shop> findSliceBy(Pageable pageable);
+
+    List<Shop> findAllByIdGreaterThanOrderById(Pageable pageable, Long after);
 }
@@ -23,9 +23,14 @@ package org.interactiverobotics.grocery.repository;
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.ShoppingList;
 import org.interactiverobotics.grocery.domain.ShoppingListItem;
+import org.interactiverobotics.grocery.page.CollectionVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -34,9 +39,38 @@ import java.util.List;
  */
 public interface ShoppingListItemRepository extends PagingAndSortingRepository<ShoppingListItem, Long> {
 
+    @EntityGraph(attributePaths = "item")
     List<ShoppingListItem> findAllByShoppingList(ShoppingList shoppingList);
 
+    @EntityGraph(attributePaths = "item")
     Page<ShoppingListItem> findAllByShoppingList(Pageable pageable, ShoppingList shoppingList);
 
+    @EntityGraph(attributePaths = "item")
+    Slice<ShoppingListItem> findSliceByShoppingList(Pageable pageable, ShoppingList shoppingList);
+
+    long countByShoppingList(ShoppingList shoppingList);
+
+    @EntityGraph(attributePaths = "item")
+    List<ShoppingListItem> findAllByShoppingListAndIdGreaterThanOrderById(Pageable pageable,
+                                                                        ShoppingList shoppingList, Long after);
+
     ShoppingListItem findOneByShoppingListAndItem(ShoppingList shoppingList, Item item);
+
+    @Query("SELECT new org.interactiverobotics.grocery.page.CollectionVersion(COUNT(s), "
+            + "SUM(s.version + i.version + l.version), MAX(CASE "
+            + "WHEN s.updated >= i.updated AND s.updated >= l.updated THEN s.updated "
+            + "WHEN i.updated >= l.updated THEN i.updated ELSE l.updated END)) "
+            + "FROM ShoppingListItem s JOIN s.item i JOIN s.shoppingList l WHERE s.shoppingList = :shoppingList")
+    CollectionVersion findVersionByShoppingList(@Param("shoppingList") ShoppingList shoppingList);
+
+    @Query("SELECT i FROM Item i WHERE NOT EXISTS "
+            + "(SELECT s FROM ShoppingListItem s WHERE s.shoppingList = :shoppingList AND s.item = i)")
+    List<Item> findNotAddedItems(@Param("shoppingList") ShoppingList shoppingList);
+
+    // Pattern is lower case and escaped by LikePattern
+    @Query("SELECT i FROM Item i WHERE i.id > :after AND LOWER(i.name) LIKE :pattern ESCAPE '\\' "
+            + "AND NOT EXISTS (SELECT s FROM ShoppingListItem s WHERE s.shoppingList = :shoppingList AND s.item = i) "
+            + "ORDER BY i.id")
+    List<Item> findNotAddedItems(Pageable pageable, @Param("shoppingList") ShoppingList shoppingList,
+                                 @Param("pattern") String pattern, @Param("after") Long after);
 }
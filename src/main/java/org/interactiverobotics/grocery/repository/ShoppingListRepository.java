@@ -21,12 +21,20 @@
 package org.interactiverobotics.grocery.repository;
 
 import org.interactiverobotics.grocery.domain.ShoppingList;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.List;
+
 /**
  * ShoppingList repository.
  */
 public interface ShoppingListRepository extends PagingAndSortingRepository<ShoppingList, Long> {
 
     ShoppingList findOneByName(String name);
+
+    Slice<ShoppingList> findSliceBy(Pageable pageable);
+
+    List<ShoppingList> findAllByIdGreaterThanOrderById(Pageable pageable, Long after);
 }
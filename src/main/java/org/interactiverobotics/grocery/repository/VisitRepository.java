@@ -22,6 +22,9 @@ package org.interactiverobotics.grocery.repository;
 
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.domain.Visit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.List;
@@ -31,5 +34,15 @@ import java.util.List;
  */
 public interface VisitRepository extends PagingAndSortingRepository<Visit, Long> {
 
-    List<Visit> findAllByShop(Shop shop);
+    List<Visit> findAllByShopOrderById(Shop shop);
+
+    Slice<Visit> findSliceBy(Pageable pageable);
+
+    List<Visit> findAllByIdGreaterThanOrderById(Pageable pageable, Long after);
+
+    @EntityGraph(attributePaths = {"shop", "shoppingList"})
+    List<Visit> findAllWithShopByIdGreaterThanOrderById(Pageable pageable, Long after);
+
+    @EntityGraph(attributePaths = {"shop", "shoppingList"})
+    List<Visit> findAllWithShopByShopAndIdGreaterThanOrderById(Pageable pageable, Shop shop, Long after);
 }
@@ -24,10 +24,15 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.form.ItemForm;
+import org.interactiverobotics.grocery.page.CollectionVersion;
+import org.interactiverobotics.grocery.page.KeysetPage;
+import org.interactiverobotics.grocery.service.ItemImportReport;
+import org.interactiverobotics.grocery.service.ItemImportService;
 import org.interactiverobotics.grocery.service.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -35,7 +40,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -46,16 +57,25 @@ import java.util.List;
 @RequestMapping(value = "/api/v1/item")
 public class ItemRestController {
 
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private final ItemService itemService;
 
+    private final ItemImportService itemImportService;
+
     @Autowired
-    public ItemRestController(final ItemService itemService) {
+    public ItemRestController(final ItemService itemService, final ItemImportService itemImportService) {
         this.itemService = itemService;
+        this.itemImportService = itemImportService;
     }
 
     @ApiOperation(value = "Get all Item(s)", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = {"", "/"}, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public List<Item> getItems() {
+    public List<Item> getItems(@ApiIgnore WebRequest request) {
+        final CollectionVersion version = this.itemService.getItemsVersion();
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+            return null;
+        }
         return this.itemService.getItems();
     }
 
@@ -66,6 +86,22 @@ public class ItemRestController {
         return this.itemService.getItems(PageRequest.of(pageNumber - 1, pageSize));
     }
 
+    @ApiOperation(value = "Get keyset page of Items after token", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/list", params = "after", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public KeysetPage<Item> getItemsKeysetPage(@RequestParam(value = "after") String after,
+                                               @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.itemService.getItems(PageRequest.of(0, pageSize), after);
+    }
+
+    @ApiOperation(value = "Get page of Items without total count", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/list", params = {"count=false", "!after"}, method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public Slice<Item> getItemsSlice(@RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
+                                     @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.itemService.getItemsSlice(PageRequest.of(pageNumber - 1, pageSize));
+    }
+
     @ApiOperation(value = "Get Item by Id", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/{id}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public Item getItemById(@PathVariable Long id) {
@@ -84,6 +120,22 @@ public class ItemRestController {
         return this.itemService.createItem(form);
     }
 
+    @ApiOperation(value = "Import Items from UTF-8 CSV with 'name' column",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/import", method = RequestMethod.POST, consumes = TEXT_CSV_VALUE,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ItemImportReport importItemsCsv(@ApiIgnore InputStream body) throws IOException {
+        return this.itemImportService.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    @ApiOperation(value = "Import Items from NDJSON", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/import", method = RequestMethod.POST,
+            consumes = PurchaseRestController.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ItemImportReport importItemsNdjson(@ApiIgnore InputStream body) throws IOException {
+        return this.itemImportService.importNdjson(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
     @ApiOperation(value = "Update Item", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/{id}", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public Item updateItem(@PathVariable Long id, @RequestBody ItemForm form) {
@@ -0,0 +1,65 @@
+/*
+ * PriceRestController.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.interactiverobotics.grocery.report.PriceStatistics;
+import org.interactiverobotics.grocery.service.PriceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+
+/**
+ * Price REST controller.
+ */
+@Api(value = "Price", description = "Price statistics endpoint")
+@RestController
+@RequestMapping(value = "/api/v1/price")
+public class PriceRestController {
+
+    private final PriceService priceService;
+
+    @Autowired
+    public PriceRestController(final PriceService priceService) {
+        this.priceService = priceService;
+    }
+
+    @ApiOperation(value = "Get min, max, average and last Price of Item observed in Shop (all Shops by default) "
+            + "on days in range [from, to)", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/{itemId}/statistics", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public PriceStatistics getPriceStatistics(@PathVariable Long itemId,
+                                              @RequestParam(value = "shop", required = false) Long shopId,
+                                              @RequestParam(value = "from", required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+                                              @RequestParam(value = "to", required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to) {
+        return this.priceService.getPriceStatistics(itemId, shopId, from, to);
+    }
+}
@@ -20,22 +20,39 @@
 
 package org.interactiverobotics.grocery.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.export.PurchaseExport;
+import org.interactiverobotics.grocery.form.PurchaseBuyForm;
+import org.interactiverobotics.grocery.page.KeysetPage;
+import org.interactiverobotics.grocery.service.PurchaseEventService;
 import org.interactiverobotics.grocery.service.PurchaseService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import springfox.documentation.annotations.ApiIgnore;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -46,11 +63,21 @@ import java.util.List;
 @RequestMapping(value = "/api/v1/purchase")
 public class PurchaseRestController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final PurchaseService purchaseService;
 
+    private final PurchaseEventService purchaseEventService;
+
+    private final ObjectWriter exportWriter;
+
     @Autowired
-    public PurchaseRestController(final PurchaseService purchaseService) {
+    public PurchaseRestController(final PurchaseService purchaseService,
+                                  final PurchaseEventService purchaseEventService,
+                                  final ObjectMapper objectMapper) {
         this.purchaseService = purchaseService;
+        this.purchaseEventService = purchaseEventService;
+        this.exportWriter = objectMapper.writerFor(PurchaseExport.class);
     }
 
     @ApiOperation(value = "Get Items that not existing in Purchases", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
@@ -60,6 +87,17 @@ public class PurchaseRestController {
         return this.purchaseService.getNotPurchasedItems(visitId);
     }
 
+    @ApiOperation(value = "Get page of Items that not existing in Purchases",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/{visitId}/not_purchased_items/list", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public Page<Item> getNotPurchasedItemsPage(@PathVariable Long visitId,
+                                               @RequestParam(value = "name", defaultValue = "") String name,
+                                               @RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
+                                               @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.purchaseService.getNotPurchasedItems(PageRequest.of(pageNumber - 1, pageSize), visitId, name);
+    }
+
     @ApiOperation(value = "Get page of Purchases", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/{visitId}/list", method = RequestMethod.GET,
             produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
@@ -69,6 +107,56 @@ public class PurchaseRestController {
         return this.purchaseService.getPurchases(PageRequest.of(pageNumber - 1, pageSize), visitId);
     }
 
+    @ApiOperation(value = "Get keyset page of Purchases after token", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/{visitId}/list", params = "after", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public KeysetPage<Purchase> getPurchasesKeysetPage(
+            @PathVariable Long visitId,
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.purchaseService.getPurchases(PageRequest.of(0, pageSize), visitId, after);
+    }
+
+    @ApiOperation(value = "Get page of Purchases without total count", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/{visitId}/list", params = {"count=false", "!after"}, method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public Slice<Purchase> getPurchasesSlice(
+            @PathVariable Long visitId,
+            @RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
+            @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.purchaseService.getPurchasesSlice(PageRequest.of(pageNumber - 1, pageSize), visitId);
+    }
+
+    @ApiOperation(value = "Export Purchases of Visits started in range [from, to) as newline-delimited JSON",
+            produces = APPLICATION_NDJSON_VALUE)
+    @RequestMapping(value = "/export", method = RequestMethod.GET, produces = APPLICATION_NDJSON_VALUE)
+    public void exportPurchases(@RequestParam(value = "shop", required = false) Long shopId,
+                                @RequestParam(value = "from", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+                                @RequestParam(value = "to", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to,
+                                @ApiIgnore HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        final OutputStream outputStream = response.getOutputStream();
+        this.purchaseService.exportPurchases(shopId, from, to, purchase -> {
+            try {
+                outputStream.write(exportWriter.writeValueAsBytes(purchase));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @ApiOperation(value = "Subscribe to changes of Purchases of Visit as Server-Sent Events",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RequestMapping(value = "/{visitId}/events", method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable Long visitId) {
+        return this.purchaseEventService.subscribe(visitId);
+    }
+
     @ApiOperation(value = "Buy Item in Visit", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/{visitId}/buy/{itemId}", method = RequestMethod.POST,
             produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
@@ -78,6 +166,13 @@ public class PurchaseRestController {
         return this.purchaseService.buyItem(visitId, itemId, quantity, price);
     }
 
+    @ApiOperation(value = "Buy basket of Items in Visit", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/{visitId}/buy", method = RequestMethod.POST,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public List<Purchase> buyItems(@PathVariable Long visitId, @RequestBody List<PurchaseBuyForm> basket) {
+        return this.purchaseService.buyItems(visitId, basket);
+    }
+
     @ApiOperation(value = "Return Item in Visit", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/{visitId}/return/{itemId}", method = RequestMethod.POST,
             produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
@@ -0,0 +1,78 @@
+/*
+ * ReportRestController.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.interactiverobotics.grocery.report.ReportPeriod;
+import org.interactiverobotics.grocery.report.Spend;
+import org.interactiverobotics.grocery.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Report REST controller.
+ */
+@Api(value = "Report", description = "Spend analytics endpoint")
+@RestController
+@RequestMapping(value = "/api/v1/report")
+public class ReportRestController {
+
+    private final ReportService reportService;
+
+    @Autowired
+    public ReportRestController(final ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @ApiOperation(value = "Get spend by Shop and period (DAY, WEEK or MONTH) for days in range [from, to)",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/spend/shop", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public List<Spend> getSpendByShop(@RequestParam(value = "period", defaultValue = "DAY") ReportPeriod period,
+                                      @RequestParam(value = "from", required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+                                      @RequestParam(value = "to", required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to) {
+        return this.reportService.getSpendByShop(period, from, to);
+    }
+
+    @ApiOperation(value = "Get spend by Item and period (DAY, WEEK or MONTH) for days in range [from, to)",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/spend/item", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public List<Spend> getSpendByItem(@RequestParam(value = "period", defaultValue = "DAY") ReportPeriod period,
+                                      @RequestParam(value = "from", required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+                                      @RequestParam(value = "to", required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to,
+                                      @RequestParam(value = "shop", required = false) Long shopId) {
+        return this.reportService.getSpendByItem(period, from, to, shopId);
+    }
+}
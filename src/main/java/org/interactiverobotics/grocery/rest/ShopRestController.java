@@ -24,10 +24,13 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.form.ShopForm;
+import org.interactiverobotics.grocery.page.CollectionVersion;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.service.ShopService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -35,6 +38,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 
 import java.util.List;
 
@@ -55,7 +60,11 @@ public class ShopRestController {
 
     @ApiOperation(value = "Get all Shop(s)", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = {"", "/"}, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public List<Shop> getShops() {
+    public List<Shop> getShops(@ApiIgnore WebRequest request) {
+        final CollectionVersion version = this.shopService.getShopsVersion();
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+            return null;
+        }
         return this.shopService.getShops();
     }
 
@@ -66,6 +75,22 @@ public class ShopRestController {
         return this.shopService.getShops(PageRequest.of(pageNumber - 1, pageSize));
     }
 
+    @ApiOperation(value = "Get keyset page of Shops after token", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/list", params = "after", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public KeysetPage<Shop> getShopsKeysetPage(@RequestParam(value = "after") String after,
+                                               @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.shopService.getShops(PageRequest.of(0, pageSize), after);
+    }
+
+    @ApiOperation(value = "Get page of Shops without total count", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/list", params = {"count=false", "!after"}, method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public Slice<Shop> getShopsSlice(@RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
+                                     @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.shopService.getShopsSlice(PageRequest.of(pageNumber - 1, pageSize));
+    }
+
     @ApiOperation(value = "Get Shop by Id", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/{id}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public Shop getShopById(@PathVariable Long id) {
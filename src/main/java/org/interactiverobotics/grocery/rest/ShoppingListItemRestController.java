@@ -22,13 +22,17 @@ package org.interactiverobotics.grocery.rest;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.ShoppingListItem;
 import org.interactiverobotics.grocery.form.ShoppingListItemCreateForm;
 import org.interactiverobotics.grocery.form.ShoppingListItemUpdateForm;
+import org.interactiverobotics.grocery.page.CollectionVersion;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.service.ShoppingListItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -36,6 +40,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import springfox.documentation.annotations.ApiIgnore;
 
 import java.util.List;
 
@@ -57,7 +63,12 @@ public class ShoppingListItemRestController {
     @ApiOperation(value = "Get all ShoppingListItem(s)", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/{shoppingListId}", method = RequestMethod.GET,
             produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public List<ShoppingListItem> getShoppingListItems(@PathVariable Long shoppingListId) {
+    public List<ShoppingListItem> getShoppingListItems(@PathVariable Long shoppingListId,
+                                                       @ApiIgnore WebRequest request) {
+        final CollectionVersion version = this.shoppingListItemService.getShoppingListItemsVersion(shoppingListId);
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+            return null;
+        }
         return this.shoppingListItemService.getShoppingListItems(shoppingListId);
     }
 
@@ -72,6 +83,41 @@ public class ShoppingListItemRestController {
                 .getShoppingListItems(PageRequest.of(pageNumber - 1, pageSize), shoppingListId);
     }
 
+    @ApiOperation(value = "Get keyset page of ShoppingListItems after token",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/{shoppingListId}/list", params = "after", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public KeysetPage<ShoppingListItem> getShoppingListItemsKeysetPage(
+            @PathVariable Long shoppingListId,
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.shoppingListItemService.getShoppingListItems(PageRequest.of(0, pageSize), shoppingListId, after);
+    }
+
+    @ApiOperation(value = "Get page of ShoppingListItems without total count",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/{shoppingListId}/list", params = {"count=false", "!after"}, method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public Slice<ShoppingListItem> getShoppingListItemsSlice(
+            @PathVariable Long shoppingListId,
+            @RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
+            @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.shoppingListItemService
+                .getShoppingListItemsSlice(PageRequest.of(pageNumber - 1, pageSize), shoppingListId);
+    }
+
+    @ApiOperation(value = "Get Items that not included to ShoppingList",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/{shoppingListId}/not_added_items", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public List<Item> getNotAddedItems(@PathVariable Long shoppingListId,
+                                       @RequestParam(value = "name", defaultValue = "") String name,
+                                       @RequestParam(value = "after", defaultValue = "0") Long after,
+                                       @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.shoppingListItemService
+                .getNotAddedItems(PageRequest.of(0, pageSize), shoppingListId, name, after);
+    }
+
     @ApiOperation(value = "Create ShoppingListItem", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public ShoppingListItem createShoppingListItem(@RequestBody ShoppingListItemCreateForm form) {
@@ -24,10 +24,12 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.interactiverobotics.grocery.domain.ShoppingList;
 import org.interactiverobotics.grocery.form.ShoppingListForm;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.service.ShoppingListService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -67,6 +69,26 @@ public class ShoppingListRestController {
         return this.shoppingListService.getShoppingLists(PageRequest.of(pageNumber - 1, pageSize));
     }
 
+    @ApiOperation(value = "Get keyset page of ShoppingLists after token",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/list", params = "after", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public KeysetPage<ShoppingList> getShoppingListsKeysetPage(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.shoppingListService.getShoppingLists(PageRequest.of(0, pageSize), after);
+    }
+
+    @ApiOperation(value = "Get page of ShoppingLists without total count",
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/list", params = {"count=false", "!after"}, method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public Slice<ShoppingList> getShoppingListsSlice(
+            @RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
+            @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.shoppingListService.getShoppingListsSlice(PageRequest.of(pageNumber - 1, pageSize));
+    }
+
     @ApiOperation(value = "Get ShoppingList by Id", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/{id}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public ShoppingList getShoppingListById(@PathVariable Long id) {
@@ -0,0 +1,102 @@
+/*
+ * StreamRestController.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.interactiverobotics.grocery.service.StreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Stream REST controller.
+ * Streams are written asynchronously as JSON object per line with backpressure. Every page of stream is written
+ * as one chunk, so response is not flushed after every entity.
+ */
+@Api(value = "Stream", description = "Non-blocking read endpoint")
+@RestController
+@RequestMapping(value = "/api/v1/stream")
+public class StreamRestController {
+
+    private final StreamService streamService;
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public StreamRestController(final StreamService streamService, final ObjectMapper objectMapper) {
+        this.streamService = streamService;
+        this.objectMapper = objectMapper;
+    }
+
+    @ApiOperation(value = "Stream Items", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    @RequestMapping(value = "/item", method = RequestMethod.GET, produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<byte[]> streamItems() {
+        return this.streamService.streamItems().map(this::writeLines);
+    }
+
+    @ApiOperation(value = "Stream Shops", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    @RequestMapping(value = "/shop", method = RequestMethod.GET, produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<byte[]> streamShops() {
+        return this.streamService.streamShops().map(this::writeLines);
+    }
+
+    @ApiOperation(value = "Stream Visits", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    @RequestMapping(value = "/visit", method = RequestMethod.GET, produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<byte[]> streamVisits() {
+        return this.streamService.streamVisits().map(this::writeLines);
+    }
+
+    @ApiOperation(value = "Stream Visits by Shop", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    @RequestMapping(value = "/visit/shop/{shopId}", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<byte[]> streamVisits(@PathVariable Long shopId) {
+        return this.streamService.streamVisits(shopId).map(this::writeLines);
+    }
+
+    /**
+     * Writes page as JSON object per line. Line separator after the last line is written by stream.
+     */
+    private byte[] writeLines(final List<?> page) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            for (final Object entity : page) {
+                if (outputStream.size() > 0) {
+                    outputStream.write('\n');
+                }
+                outputStream.write(objectMapper.writeValueAsBytes(entity));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+}
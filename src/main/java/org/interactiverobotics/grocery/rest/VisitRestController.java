@@ -23,10 +23,12 @@ package org.interactiverobotics.grocery.rest;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.service.VisitService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -64,6 +66,22 @@ public class VisitRestController {
         return this.visitService.getVisits(PageRequest.of(pageNumber - 1, pageSize));
     }
 
+    @ApiOperation(value = "Get keyset page of Visits after token", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/list", params = "after", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public KeysetPage<Visit> getVisitsKeysetPage(@RequestParam(value = "after") String after,
+                                                 @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.visitService.getVisits(PageRequest.of(0, pageSize), after);
+    }
+
+    @ApiOperation(value = "Get page of Visits without total count", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @RequestMapping(value = "/list", params = {"count=false", "!after"}, method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public Slice<Visit> getVisitsSlice(@RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
+                                       @RequestParam(value = "size", defaultValue = "10") Integer pageSize) {
+        return this.visitService.getVisitsSlice(PageRequest.of(pageNumber - 1, pageSize));
+    }
+
     @ApiOperation(value = "Get Visit by Id", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @RequestMapping(value = "/{id}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public Visit getVisitById(@PathVariable Long id) {
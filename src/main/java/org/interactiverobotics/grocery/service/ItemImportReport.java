@@ -0,0 +1,76 @@
+/*
+ * ItemImportReport.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+/**
+ * Report of Item catalog import.
+ * Read Item(s) that are not imported are duplicates of existing Item(s) or have blank or too long Name.
+ */
+public class ItemImportReport {
+
+    private final long read;
+
+    private final long imported;
+
+    private final long elapsed;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param read number of read Item(s)
+     * @param imported number of created Item(s)
+     * @param elapsed time of import in milliseconds
+     */
+    public ItemImportReport(final long read, final long imported, final long elapsed) {
+        this.read = read;
+        this.imported = imported;
+        this.elapsed = elapsed;
+    }
+
+    public long getRead() {
+        return read;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getSkipped() {
+        return read - imported;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns number of read Item(s) per second.
+     */
+    public long getThroughput() {
+        return read * 1000L / Math.max(elapsed, 1L);
+    }
+
+    @Override
+    public String toString() {
+        return read + " Item(s) read, " + imported + " imported, " + getSkipped() + " skipped in " + elapsed
+                + " ms (" + getThroughput() + " Item(s)/s)";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * ItemImportRunner.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Imports Item catalog from file given by <code>grocery.item-import.file</code> on startup.
+ * File with '.csv' extension is read as CSV, any other as NDJSON. Add
+ * <code>--spring.main.web-application-type=none</code> to exit when import is done.
+ */
+@Component
+@ConditionalOnProperty(name = "grocery.item-import.file")
+public class ItemImportRunner implements CommandLineRunner {
+
+    private final ItemImportService itemImportService;
+
+    private final Path file;
+
+    @Autowired
+    public ItemImportRunner(final ItemImportService itemImportService,
+                            @Value("${grocery.item-import.file}") final String file) {
+        this.itemImportService = itemImportService;
+        this.file = Paths.get(file);
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                itemImportService.importCsv(reader);
+            } else {
+                itemImportService.importNdjson(reader);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * ItemImportService.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.interactiverobotics.grocery.configuration.CacheConfiguration;
+import org.interactiverobotics.grocery.form.ItemForm;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Item catalog import service.
+ * Item(s) are read from CSV or NDJSON one by one and inserted by batches, every batch is one statement
+ * with arrays of Id(s) and Name(s). Item(s) with Name of existing Item are skipped by database.
+ * Memory used doesn't depend on size of catalog.
+ */
+@Service
+public class ItemImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ItemImportService.class);
+
+    static final int BATCH_SIZE = 1000;
+
+    // The same as allocation size of Item Id sequence generator
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private static final long PROGRESS_INTERVAL = 100000L;
+
+    private static final String NAME_COLUMN = "name";
+
+    private static final String ALLOCATE_IDS_SQL = "SELECT nextval('item_id_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERT_SQL = "INSERT INTO items (id, name, version, updated) "
+            + "SELECT id, name, 0, now() FROM unnest(?, ?) AS i (id, name) ON CONFLICT (name) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final CountCache countCache;
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Parametrized constructor.
+     */
+    @Autowired
+    public ItemImportService(final JdbcTemplate jdbcTemplate,
+                             final ObjectMapper objectMapper,
+                             final CountCache countCache,
+                             final CacheManager cacheManager) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.countCache = countCache;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Imports Item(s) from CSV. The first record is header that must contain 'name' column.
+     */
+    public ItemImportReport importCsv(final Reader reader) throws IOException {
+        final BufferedReader csv = new BufferedReader(reader);
+        final List<String> header = readCsvRecord(csv);
+        final int nameColumn = header == null ? -1 : indexOfName(header);
+        if (nameColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain '" + NAME_COLUMN + "' column!");
+        }
+        final Import itemImport = new Import();
+        List<String> record;
+        while ((record = readCsvRecord(csv)) != null) {
+            itemImport.add(nameColumn < record.size() ? record.get(nameColumn) : null);
+        }
+        return itemImport.finish();
+    }
+
+    /**
+     * Imports Item(s) from NDJSON, every line is JSON object with 'name' field. Other fields are ignored.
+     */
+    public ItemImportReport importNdjson(final Reader reader) throws IOException {
+        final Import itemImport = new Import();
+        try (MappingIterator<ItemForm> forms = objectMapper.readerFor(ItemForm.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).readValues(reader)) {
+            while (forms.hasNextValue()) {
+                itemImport.add(forms.nextValue().getName());
+            }
+        }
+        return itemImport.finish();
+    }
+
+    /**
+     * Returns index of 'name' column in CSV header or -1.
+     */
+    private static int indexOfName(final List<String> header) {
+        for (int i = 0; i < header.size(); i ++) {
+            if (NAME_COLUMN.equalsIgnoreCase(header.get(i).trim())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads CSV record (RFC 4180) or returns null at the end of input.
+     * Fields may be quoted, quoted field may contain commas, line breaks and doubled quotes.
+     */
+    static List<String> readCsvRecord(final BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Allocates Id(s) by blocks of sequence like pooled-lo optimizer of Item, so they don't collide with Id(s)
+     * generated by the application.
+     */
+    private List<Long> allocateIds(final int count) {
+        final List<Long> ids = new ArrayList<>(count);
+        final int blocks = (count + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE;
+        for (final Long first : jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, blocks)) {
+            for (long id = first; id < first + ID_ALLOCATION_SIZE && ids.size() < count; id ++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * State of one import: batch of Name(s) to insert and counters.
+     */
+    private final class Import {
+
+        private final long started = System.currentTimeMillis();
+
+        private final List<String> names = new ArrayList<>(BATCH_SIZE);
+
+        private long read;
+
+        private long imported;
+
+        void add(final String name) {
+            read ++;
+            final String trimmedName = StringUtils.trimToNull(name);
+            if (trimmedName != null && trimmedName.length() <= MAX_NAME_LENGTH) {
+                names.add(trimmedName);
+            }
+            if (names.size() == BATCH_SIZE) {
+                flush();
+            }
+            if (read % PROGRESS_INTERVAL == 0) {
+                LOG.info("Importing Item(s): {}", report());
+            }
+        }
+
+        ItemImportReport finish() {
+            flush();
+            if (imported > 0) {
+                countCache.invalidate(CountCache.ITEMS);
+                // Item(s) are inserted bypassing ItemRepository, so its cached version is evicted here
+                Optional.ofNullable(cacheManager.getCache(CacheConfiguration.ITEMS_VERSION)).ifPresent(Cache::clear);
+            }
+            final ItemImportReport report = report();
+            LOG.info("Item(s) imported: {}", report);
+            return report;
+        }
+
+        private void flush() {
+            if (names.isEmpty()) {
+                return;
+            }
+            final List<Long> ids = allocateIds(names.size());
+            imported += jdbcTemplate.update(connection -> {
+                final PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+                statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                statement.setArray(2, connection.createArrayOf("text", names.toArray()));
+                return statement;
+            });
+            names.clear();
+        }
+
+        private ItemImportReport report() {
+            return new ItemImportReport(read, imported, System.currentTimeMillis() - started);
+        }
+    }
+}
@@ -23,13 +23,19 @@ package org.interactiverobotics.grocery.service;
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.exception.ItemNotFoundException;
 import org.interactiverobotics.grocery.form.ItemForm;
+import org.interactiverobotics.grocery.page.CollectionVersion;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.repository.ItemRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -45,14 +51,18 @@ public class ItemService {
 
     private final ItemRepository itemRepository;
 
+    private final CountCache countCache;
+
     @Autowired
-    public ItemService(final ItemRepository itemRepository) {
+    public ItemService(final ItemRepository itemRepository, final CountCache countCache) {
         this.itemRepository = itemRepository;
+        this.countCache = countCache;
     }
 
     /**
      * Returns Item(s).
      */
+    @Transactional(readOnly = true)
     public List<Item> getItems() {
         final List<Item> items = new ArrayList<>();
         itemRepository.findAll().forEach(item -> items.add(item));
@@ -61,14 +71,44 @@ public class ItemService {
     }
 
     /**
-     * Returns page of Item(s).
+     * Returns page of Item(s). Total count is taken from cache.
      */
+    @Transactional(readOnly = true)
     public Page<Item> getItems(Pageable pageable) {
-        final Page<Item> items = itemRepository.findAll(pageable);
+        final Page<Item> items = new PageImpl<>(itemRepository.findSliceBy(pageable).getContent(), pageable,
+                countCache.get(CountCache.ITEMS, itemRepository::count));
+        LOG.debug("{} Item(s) found for {}", items.getNumberOfElements(), pageable);
+        return items;
+    }
+
+    /**
+     * Returns slice of Item(s) without total count.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Item> getItemsSlice(Pageable pageable) {
+        final Slice<Item> items = itemRepository.findSliceBy(pageable);
         LOG.debug("{} Item(s) found for {}", items.getNumberOfElements(), pageable);
         return items;
     }
 
+    /**
+     * Returns keyset page of Item(s) after Item identified by token.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Item> getItems(Pageable pageable, final String after) {
+        final KeysetPage<Item> items = KeysetPage.of(itemRepository.findAllByIdGreaterThanOrderById(
+                KeysetPage.request(pageable), KeysetPage.decodeToken(after)), pageable, Item::getId);
+        LOG.debug("{} Item(s) found after '{}' for {}", items.getContent().size(), after, pageable);
+        return items;
+    }
+
+    /**
+     * Returns version of Item(s).
+     */
+    public CollectionVersion getItemsVersion() {
+        return itemRepository.findVersion();
+    }
+
     /**
      * Returns Item by Id.
      */
@@ -94,6 +134,7 @@ public class ItemService {
      */
     public Item createItem(final ItemForm form) {
         final Item item = itemRepository.save(new Item(form.getName()));
+        countCache.invalidate(CountCache.ITEMS);
         LOG.info("Item created: {}", item);
         return item;
     }
@@ -104,8 +145,10 @@ public class ItemService {
     public Item updateItem(final Long itemId, final ItemForm form) {
         final Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException(itemId));
-        item.setName(form.getName());
-        final Item updatedItem = itemRepository.save(item);
+        // Cached Item is shared, so changes are saved as new instance
+        final Item changedItem = new Item(item.getId(), form.getName());
+        changedItem.setVersion(item.getVersion());
+        final Item updatedItem = itemRepository.save(changedItem);
         LOG.info("Item updated: {}", updatedItem);
         return updatedItem;
     }
@@ -117,6 +160,9 @@ public class ItemService {
         final Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException(itemId));
         itemRepository.delete(item);
+        countCache.invalidate(CountCache.ITEMS);
+        countCache.invalidate(CountCache.PURCHASES);
+        countCache.invalidate(CountCache.SHOPPING_LIST_ITEMS);
         LOG.info("Item deleted: {}", item);
     }
 }
@@ -0,0 +1,153 @@
+/*
+ * PriceService.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.exception.ItemNotFoundException;
+import org.interactiverobotics.grocery.exception.ShopNotFoundException;
+import org.interactiverobotics.grocery.report.PriceStatistics;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Price service.
+ * Every known Price of bought Item is appended to Price observations, which are never updated. Statistics of
+ * Price(s) are read from daily summaries of observations by Item and Shop, which are updated together with
+ * observations, so raw observations and Purchase(s) are not scanned.
+ */
+@Service
+public class PriceService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceService.class);
+
+    // Observation and summary are written by one statement; summary row is locked by upsert, so concurrent
+    // observations of the same Item in the same Shop don't lose updates
+    private static final String OBSERVE_PRICE_SQL = "WITH o AS ("
+            + "INSERT INTO price_observations (item_id, shop_id, visit_id, observed, price) "
+            + "VALUES (:itemId, :shopId, :visitId, :observed, :price) RETURNING item_id, shop_id, observed, price) "
+            + "INSERT INTO price_statistics AS s (item_id, shop_id, day, count, min_price, max_price, price_sum, "
+            + "last_price, last_observed) "
+            + "SELECT item_id, shop_id, CAST(observed AS date), 1, price, price, price, price, observed FROM o "
+            + "ON CONFLICT (item_id, shop_id, day) DO UPDATE SET count = s.count + 1, "
+            + "min_price = LEAST(s.min_price, EXCLUDED.min_price), "
+            + "max_price = GREATEST(s.max_price, EXCLUDED.max_price), "
+            + "price_sum = s.price_sum + EXCLUDED.price_sum, "
+            + "last_price = CASE WHEN EXCLUDED.last_observed >= s.last_observed "
+            + "THEN EXCLUDED.last_price ELSE s.last_price END, "
+            + "last_observed = GREATEST(s.last_observed, EXCLUDED.last_observed)";
+
+    private static final String STATISTICS_FILTER_SQL = "item_id = :itemId "
+            + "AND (CAST(:shopId AS bigint) IS NULL OR shop_id = :shopId) "
+            + "AND (CAST(:from AS date) IS NULL OR day >= :from) AND (CAST(:to AS date) IS NULL OR day < :to)";
+
+    private static final String STATISTICS_SQL = "SELECT COALESCE(SUM(count), 0) AS count, "
+            + "MIN(min_price) AS min_price, MAX(max_price) AS max_price, "
+            + "ROUND(SUM(price_sum) / SUM(count), 2) AS average_price, MAX(last_observed) AS last_observed, "
+            + "(SELECT last_price FROM price_statistics WHERE " + STATISTICS_FILTER_SQL
+            + " ORDER BY last_observed DESC LIMIT 1) AS last_price "
+            + "FROM price_statistics WHERE " + STATISTICS_FILTER_SQL;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final ItemRepository itemRepository;
+
+    private final ShopRepository shopRepository;
+
+    /**
+     * Parametrized constructor.
+     */
+    @Autowired
+    public PriceService(final NamedParameterJdbcTemplate jdbcTemplate,
+                        final ItemRepository itemRepository,
+                        final ShopRepository shopRepository) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemRepository = itemRepository;
+        this.shopRepository = shopRepository;
+    }
+
+    /**
+     * Returns statistics of Price(s) of Item observed in Shop on days in range [from, to).
+     * Shop and range are optional.
+     */
+    @Transactional(readOnly = true)
+    public PriceStatistics getPriceStatistics(final Long itemId, final Long shopId, final Date from, final Date to) {
+
+        if (!itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException(itemId);
+        }
+        if (shopId != null && !shopRepository.existsById(shopId)) {
+            throw new ShopNotFoundException(shopId);
+        }
+
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("itemId", itemId)
+                .addValue("shopId", shopId)
+                .addValue("from", from == null ? null : new java.sql.Date(from.getTime()))
+                .addValue("to", to == null ? null : new java.sql.Date(to.getTime()));
+        final PriceStatistics statistics = jdbcTemplate.queryForObject(STATISTICS_SQL, parameters,
+                (resultSet, rowNumber) -> new PriceStatistics(itemId, shopId, resultSet.getLong("count"),
+                        resultSet.getBigDecimal("min_price"), resultSet.getBigDecimal("max_price"),
+                        resultSet.getBigDecimal("average_price"), resultSet.getBigDecimal("last_price"),
+                        resultSet.getTimestamp("last_observed")));
+        LOG.debug("{} Price(s) of Item #{} found in Shop #{} from {} to {}", statistics.getCount(), itemId, shopId,
+                from, to);
+        return statistics;
+    }
+
+    /**
+     * Appends Price(s) of Item(s) bought in Visit to observations. Unknown (null) Price(s) are skipped.
+     * Statistics are updated in order of Item, so concurrent baskets lock the same rows in the same order.
+     */
+    @Transactional
+    public void observePrices(final Visit visit, final Map<Long, BigDecimal> prices) {
+
+        final Timestamp observed = new Timestamp(System.currentTimeMillis());
+        final MapSqlParameterSource[] batch = prices.entrySet().stream()
+                .filter(price -> price.getValue() != null)
+                .sorted(Map.Entry.comparingByKey())
+                .map(price -> new MapSqlParameterSource()
+                        .addValue("itemId", price.getKey())
+                        .addValue("shopId", visit.getShop().getId())
+                        .addValue("visitId", visit.getId())
+                        .addValue("observed", observed)
+                        .addValue("price", price.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+        if (batch.length == 0) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(OBSERVE_PRICE_SQL, batch);
+        LOG.debug("{} Price(s) observed in Visit {}", batch.length, visit);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * PurchaseEventService.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.configuration.PurchaseEventConfiguration;
+import org.interactiverobotics.grocery.configuration.PurchaseEventProperties;
+import org.interactiverobotics.grocery.event.PurchaseEvent;
+import org.interactiverobotics.grocery.exception.VisitNotFoundException;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Purchase event service.
+ * Pushes Purchase event(s) published by Purchase service to subscribers of Visit as Server-Sent Events.
+ * Event is pushed after transaction that changed Purchase is committed.
+ * Events are queued per subscriber and sent in order by bounded executor, so publishing thread never waits
+ * for client. Subscriber which queue is full, which send takes longer than timeout or fails is dropped: it is
+ * removed at once and its emitter is completed by sender when it's free.
+ */
+@Service
+public class PurchaseEventService {
+
+    public static final String PURCHASE_EVENT_NAME = "purchase";
+
+    private static final Logger LOG = LoggerFactory.getLogger(PurchaseEventService.class);
+
+    private final VisitRepository visitRepository;
+
+    private final PurchaseEventProperties properties;
+
+    private final Executor executor;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PurchaseEventService(final VisitRepository visitRepository,
+                                final PurchaseEventProperties properties,
+                                @Qualifier(PurchaseEventConfiguration.PURCHASE_EVENT_EXECUTOR)
+                                final Executor executor) {
+        this.visitRepository = visitRepository;
+        this.properties = properties;
+        this.executor = executor;
+    }
+
+    /**
+     * Subscribes to Purchase event(s) of Visit by VisitId.
+     * Subscription is removed when emitter is completed, timed out or failed.
+     */
+    public SseEmitter subscribe(final Long visitId) {
+
+        if (!visitRepository.existsById(visitId)) {
+            throw new VisitNotFoundException(visitId);
+        }
+
+        final SseEmitter emitter = createEmitter();
+        final Subscriber subscriber = new Subscriber(visitId, emitter, properties.getSubscriberQueueCapacity());
+        subscribers.compute(visitId, (id, visitSubscribers) -> {
+            final Set<Subscriber> updatedSubscribers = visitSubscribers == null ? new CopyOnWriteArraySet<>()
+                    : visitSubscribers;
+            updatedSubscribers.add(subscriber);
+            return updatedSubscribers;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        LOG.debug("Subscribed to Purchase event(s) of Visit #{}", visitId);
+        return emitter;
+    }
+
+    /**
+     * Returns number of subscribers of Visit by VisitId.
+     */
+    public int getSubscriberCount(final Long visitId) {
+        final Set<Subscriber> visitSubscribers = subscribers.get(visitId);
+        return visitSubscribers == null ? 0 : visitSubscribers.size();
+    }
+
+    /**
+     * Queues Purchase event to subscribers of its Visit and schedules sending.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseEvent(final PurchaseEvent event) {
+        final Set<Subscriber> visitSubscribers = subscribers.get(event.getVisitId());
+        if (visitSubscribers == null) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        for (final Subscriber subscriber : visitSubscribers) {
+            final long sendingSince = subscriber.sendingSince;
+            if (sendingSince > 0L && now - sendingSince > properties.getSendTimeout()) {
+                drop(subscriber, "send timed out");
+            } else if (!subscriber.events.offer(event)) {
+                drop(subscriber, "queue is full");
+            } else {
+                schedule(subscriber);
+            }
+        }
+        LOG.debug("{} queued to {} subscriber(s)", event, visitSubscribers.size());
+    }
+
+    /**
+     * Creates emitter with default (async request) timeout.
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter();
+    }
+
+    /**
+     * Schedules sending of queued events to subscriber unless it's already scheduled.
+     */
+    private void schedule(final Subscriber subscriber) {
+        if (!subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> send(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.scheduled.set(false);
+            drop(subscriber, "executor is busy");
+            // Nothing is being sent, so emitter is free
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * Sends queued events to subscriber. Emitter of dropped subscriber is completed.
+     */
+    private void send(final Subscriber subscriber) {
+        try {
+            PurchaseEvent event;
+            while (!subscriber.dropped && (event = subscriber.events.poll()) != null) {
+                subscriber.sendingSince = System.currentTimeMillis();
+                subscriber.emitter.send(SseEmitter.event().name(PURCHASE_EVENT_NAME)
+                        .data(event, MediaType.APPLICATION_JSON));
+                subscriber.sendingSince = 0L;
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOG.debug("Purchase event not pushed to subscriber of Visit #{}: {}", subscriber.visitId,
+                    e.getMessage());
+            drop(subscriber, e.getMessage());
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.dropped) {
+            subscriber.emitter.complete();
+        } else if (!subscriber.events.isEmpty()) {
+            // Event was queued after the last poll
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Removes subscriber and discards its queued events.
+     */
+    private void drop(final Subscriber subscriber, final String reason) {
+        if (!subscriber.dropped) {
+            LOG.debug("Subscriber of Visit #{} dropped: {}", subscriber.visitId, reason);
+        }
+        subscriber.dropped = true;
+        unsubscribe(subscriber);
+        subscriber.events.clear();
+    }
+
+    /**
+     * Removes subscriber of Visit.
+     */
+    private void unsubscribe(final Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.visitId, (id, visitSubscribers) -> {
+            visitSubscribers.remove(subscriber);
+            return visitSubscribers.isEmpty() ? null : visitSubscribers;
+        });
+    }
+
+    /**
+     * Subscriber of Visit with queue of events to send.
+     */
+    private static class Subscriber {
+
+        private final Long visitId;
+
+        private final SseEmitter emitter;
+
+        private final Queue<PurchaseEvent> events;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        // Time when current send started or 0 if nothing is being sent
+        private volatile long sendingSince;
+
+        private volatile boolean dropped;
+
+        Subscriber(final Long visitId, final SseEmitter emitter, final int queueCapacity) {
+            this.visitId = visitId;
+            this.emitter = emitter;
+            this.events = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -23,27 +23,47 @@ package org.interactiverobotics.grocery.service;
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.Purchase;
 import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.event.PurchaseEvent;
 import org.interactiverobotics.grocery.exception.ItemNotFoundException;
 import org.interactiverobotics.grocery.exception.PurchaseNotFoundException;
 import org.interactiverobotics.grocery.exception.VisitNotFoundException;
+import org.interactiverobotics.grocery.export.PurchaseExport;
+import org.interactiverobotics.grocery.form.PurchaseBuyForm;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.LikePattern;
 import org.interactiverobotics.grocery.repository.PurchaseRepository;
 import org.interactiverobotics.grocery.repository.VisitRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 /**
  * Purchase service.
+ * Every change of Purchase is published as PurchaseEvent.
  */
 @Service
 public class PurchaseService {
@@ -56,22 +76,39 @@ public class PurchaseService {
 
     private final PurchaseRepository purchaseRepository;
 
+    private final CountCache countCache;
+
+    private final ReportService reportService;
+
+    private final PriceService priceService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Parametrized constructor.
      */
     @Autowired
     public PurchaseService(final VisitRepository visitRepository,
                            final ItemRepository itemRepository,
-                           final PurchaseRepository purchaseRepository) {
+                           final PurchaseRepository purchaseRepository,
+                           final CountCache countCache,
+                           final ReportService reportService,
+                           final PriceService priceService,
+                           final ApplicationEventPublisher eventPublisher) {
 
         this.visitRepository = visitRepository;
         this.itemRepository = itemRepository;
         this.purchaseRepository = purchaseRepository;
+        this.countCache = countCache;
+        this.reportService = reportService;
+        this.priceService = priceService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Returns Purchase(s).
      */
+    @Transactional(readOnly = true)
     public List<Purchase> getPurchases(final Long visitId) {
         final Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException(visitId));
@@ -81,6 +118,7 @@ public class PurchaseService {
     /**
      * Returns Purchase(s).
      */
+    @Transactional(readOnly = true)
     public List<Purchase> getPurchases(final Visit visit) {
         final List<Purchase> purchases = purchaseRepository.findAllByVisit(visit);
         LOG.debug("{} Purchase(s) found for Visit {}", purchases.size(), visit);
@@ -90,6 +128,7 @@ public class PurchaseService {
     /**
      * Returns page of Purchase(s).
      */
+    @Transactional(readOnly = true)
     public Page<Purchase> getPurchases(Pageable pageable, final Long visitId) {
         final Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException(visitId));
@@ -97,17 +136,81 @@ public class PurchaseService {
     }
 
     /**
-     * Returns page of Purchase(s).
+     * Returns page of Purchase(s). Total count is taken from cache.
      */
+    @Transactional(readOnly = true)
     public Page<Purchase> getPurchases(Pageable pageable, final Visit visit) {
-        final Page<Purchase> purchases = purchaseRepository.findAllByVisit(pageable, visit);
+        final Page<Purchase> purchases = new PageImpl<>(purchaseRepository.findSliceByVisit(pageable, visit)
+                .getContent(), pageable, countCache.get(CountCache.key(CountCache.PURCHASES, visit.getId()),
+                () -> purchaseRepository.countByVisit(visit)));
         LOG.debug("{} Purchase(s) found for Visit {} and {}", purchases.getNumberOfElements(), visit, pageable);
         return purchases;
     }
 
+    /**
+     * Returns slice of Purchase(s) without total count.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Purchase> getPurchasesSlice(Pageable pageable, final Long visitId) {
+        final Visit visit = visitRepository.findById(visitId)
+                .orElseThrow(() -> new VisitNotFoundException(visitId));
+        final Slice<Purchase> purchases = purchaseRepository.findSliceByVisit(pageable, visit);
+        LOG.debug("{} Purchase(s) found for Visit {} and {}", purchases.getNumberOfElements(), visit, pageable);
+        return purchases;
+    }
+
+    /**
+     * Returns keyset page of Purchase(s) after Purchase identified by token.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Purchase> getPurchases(Pageable pageable, final Long visitId, final String after) {
+        final Visit visit = visitRepository.findById(visitId)
+                .orElseThrow(() -> new VisitNotFoundException(visitId));
+        return getPurchases(pageable, visit, after);
+    }
+
+    /**
+     * Returns keyset page of Purchase(s) after Purchase identified by token.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Purchase> getPurchases(Pageable pageable, final Visit visit, final String after) {
+        final KeysetPage<Purchase> purchases = KeysetPage.of(purchaseRepository.findAllByVisitAndIdGreaterThanOrderById(
+                KeysetPage.request(pageable), visit, KeysetPage.decodeToken(after)), pageable, Purchase::getId);
+        LOG.debug("{} Purchase(s) found for Visit {} after '{}' and {}", purchases.getContent().size(), visit, after,
+                pageable);
+        return purchases;
+    }
+
+    /**
+     * Exports Purchase(s) of Visit(s) started in range [from, to) in Shop to consumer ordered by Id.
+     * All filters are optional. Purchase(s) are read by server-side cursor and passed to consumer one by one,
+     * so memory used doesn't depend on number of Purchase(s). Returns number of exported Purchase(s).
+     */
+    @Transactional(readOnly = true)
+    public long exportPurchases(final Long shopId, final Date from, final Date to,
+                                final Consumer<PurchaseExport> consumer) {
+
+        // From must be before To if both are set
+        if (from != null && to != null && !from.before(to)) {
+            throw new IllegalArgumentException("From must be before To!");
+        }
+
+        long count = 0;
+        try (Stream<PurchaseExport> purchases = purchaseRepository.streamForExport(shopId, from, to)) {
+            final Iterator<PurchaseExport> iterator = purchases.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count ++;
+            }
+        }
+        LOG.info("{} Purchase(s) exported for Shop #{} from {} to {}", count, shopId, from, to);
+        return count;
+    }
+
     /**
      * Returns Item(s) not existing in Visit's Purchase(s).
      */
+    @Transactional(readOnly = true)
     public List<Item> getNotPurchasedItems(final Long visitId) {
         final Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException(visitId));
@@ -117,17 +220,38 @@ public class PurchaseService {
     /**
      * Returns Item(s) not existing in Visit's Purchase(s).
      */
+    @Transactional(readOnly = true)
     public List<Item> getNotPurchasedItems(final Visit visit) {
-        final List<Item> items = StreamSupport.stream(itemRepository.findAll().spliterator(), false)
-                .filter(item -> purchaseRepository.findOneByVisitAndItem(visit, item) == null)
-                .collect(Collectors.toList());
+        final List<Item> items = purchaseRepository.findNotPurchasedItems(visit);
         LOG.debug("{} not purchased Item(s) found for Visit {}", items.size(), visit);
         return items;
     }
 
+    /**
+     * Returns page of Item(s) not existing in Visit's Purchase(s) and which Name starts with given prefix.
+     */
+    @Transactional(readOnly = true)
+    public Page<Item> getNotPurchasedItems(Pageable pageable, final Long visitId, final String name) {
+        final Visit visit = visitRepository.findById(visitId)
+                .orElseThrow(() -> new VisitNotFoundException(visitId));
+        return getNotPurchasedItems(pageable, visit, name);
+    }
+
+    /**
+     * Returns page of Item(s) not existing in Visit's Purchase(s) and which Name starts with given prefix.
+     */
+    @Transactional(readOnly = true)
+    public Page<Item> getNotPurchasedItems(Pageable pageable, final Visit visit, final String name) {
+        final Page<Item> items = purchaseRepository.findNotPurchasedItems(pageable, visit, LikePattern.prefix(name));
+        LOG.debug("{} not purchased Item(s) found for Visit {}, Name '{}' and {}",
+                items.getNumberOfElements(), visit, name, pageable);
+        return items;
+    }
+
     /**
      * Buy item by VisitId, ItemId.
      */
+    @Transactional
     public Purchase buyItem(final Long visitId, final Long itemId, final Long quantity, final BigDecimal price) {
         final Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException(visitId));
@@ -138,17 +262,75 @@ public class PurchaseService {
 
     /**
      * Buy item by Visit, Item.
+     * Purchase is created or updated by one atomic statement, so concurrent buys of the same Item don't lose
+     * updates.
      */
+    @Transactional
     public Purchase buyItem(final Visit visit, final Item item, final Long quantity, final BigDecimal price) {
-        return buyItem(Optional.ofNullable(purchaseRepository.findOneByVisitAndItem(visit, item))
-                .orElseGet(() -> new Purchase(visit, item)), quantity, price);
+        checkBuyParameters(quantity, price);
+        final Purchase updatedPurchase = purchaseRepository.addQuantity(visit, item, quantity, price);
+        countCache.invalidate(CountCache.key(CountCache.PURCHASES, visit.getId()));
+        reportService.updateRollups(visit, Collections.singleton(item.getId()));
+        priceService.observePrices(visit, Collections.singletonMap(item.getId(), price));
+        eventPublisher.publishEvent(PurchaseEvent.updated(visit.getId(), updatedPurchase, item));
+        LOG.info("Purchase updated: {}", updatedPurchase);
+        return updatedPurchase;
+    }
+
+    /**
+     * Buy Item(s) of basket by VisitId in one transaction.
+     * Returns Purchase for each line of basket in the same order.
+     */
+    @Transactional
+    public List<Purchase> buyItems(final Long visitId, final List<PurchaseBuyForm> basket) {
+        final Visit visit = visitRepository.findById(visitId)
+                .orElseThrow(() -> new VisitNotFoundException(visitId));
+        return buyItems(visit, basket);
     }
 
     /**
-     * Buy item.
+     * Buy Item(s) of basket by Visit in one transaction.
+     * Lines of the same Item are merged (quantities are summed up, prices are averaged), Item(s) are checked
+     * by one query and all Item(s) are bought by one atomic statement.
      */
-    public Purchase buyItem(final Purchase purchase, final Long quantity, final BigDecimal price) {
+    @Transactional
+    public List<Purchase> buyItems(final Visit visit, final List<PurchaseBuyForm> basket) {
+
+        final Map<Long, PurchaseBuyForm> lines = mergeBasket(basket);
+        if (lines.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final Map<Long, Item> existingItems = new HashMap<>();
+        itemRepository.findAllById(lines.keySet()).forEach(item -> existingItems.put(item.getId(), item));
+        for (final Long itemId : lines.keySet()) {
+            if (!existingItems.containsKey(itemId)) {
+                throw new ItemNotFoundException(itemId);
+            }
+        }
+
+        final Map<Long, Purchase> purchases = new HashMap<>();
+        purchaseRepository.addQuantities(visit, lines.values().stream()
+                .map(line -> new Purchase(visit, existingItems.get(line.getItem()), line.getQuantity(),
+                        line.getPrice()))
+                .collect(Collectors.toList()))
+                .forEach(purchase -> purchases.put(purchase.getItem().getId(), purchase));
+        countCache.invalidate(CountCache.key(CountCache.PURCHASES, visit.getId()));
+        reportService.updateRollups(visit, lines.keySet());
+        final Map<Long, BigDecimal> prices = new HashMap<>();
+        lines.values().forEach(line -> prices.put(line.getItem(), line.getPrice()));
+        priceService.observePrices(visit, prices);
+        purchases.forEach((itemId, purchase) -> eventPublisher.publishEvent(PurchaseEvent.updated(visit.getId(),
+                purchase, existingItems.get(itemId))));
+        LOG.info("{} Purchase(s) updated for Visit {}", purchases.size(), visit);
+
+        return basket.stream().map(line -> purchases.get(line.getItem())).collect(Collectors.toList());
+    }
 
+    /**
+     * Checks Quantity and Price of Item to buy.
+     */
+    private static void checkBuyParameters(final Long quantity, final BigDecimal price) {
         // Quantity must be > 0
         if (quantity == null || quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be > 0!");
@@ -157,33 +339,43 @@ public class PurchaseService {
         if (price != null && price.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Price must be > 0!");
         }
+    }
 
-        // Update Quantity
-        final Long prevQuantity = purchase.getQuantity();
-        purchase.setQuantity(prevQuantity + quantity);
-
-        // Update Price as average
-        if (price != null) {
-            if (purchase.getPrice() == null) {
-                purchase.setPrice(price);
-            } else {
-                // Price = average = (prevPrice * prevQuantity + price * quantity) / (prevQuantity + quantity)
-                final BigDecimal prevPrice = purchase.getPrice();
-                purchase.setPrice(
-                        prevPrice.multiply(BigDecimal.valueOf(prevQuantity))
-                                .add(price.multiply(BigDecimal.valueOf(quantity)))
-                                .divide(BigDecimal.valueOf(prevQuantity + quantity)));
-            }
+    /**
+     * Checks lines of basket and merges lines with the same Item.
+     * Returns line per Item in order of first appearance in basket.
+     */
+    static Map<Long, PurchaseBuyForm> mergeBasket(final List<PurchaseBuyForm> basket) {
+        final Map<Long, PurchaseBuyForm> lines = new LinkedHashMap<>();
+        for (final PurchaseBuyForm line : basket) {
+            checkBuyParameters(line.getQuantity(), line.getPrice());
+            lines.merge(line.getItem(), line, PurchaseService::mergeLines);
         }
+        return lines;
+    }
 
-        final Purchase updatedPurchase = purchaseRepository.save(purchase);
-        LOG.info("Purchase updated: {}", updatedPurchase);
-        return updatedPurchase;
+    /**
+     * Merges two lines of basket with the same Item.
+     */
+    private static PurchaseBuyForm mergeLines(final PurchaseBuyForm line1, final PurchaseBuyForm line2) {
+        final Long quantity = line1.getQuantity() + line2.getQuantity();
+        if (line1.getPrice() == null) {
+            return new PurchaseBuyForm(line1.getItem(), quantity, line2.getPrice());
+        }
+        if (line2.getPrice() == null) {
+            return new PurchaseBuyForm(line1.getItem(), quantity, line1.getPrice());
+        }
+        // Price = average = (price1 * quantity1 + price2 * quantity2) / (quantity1 + quantity2)
+        return new PurchaseBuyForm(line1.getItem(), quantity,
+                line1.getPrice().multiply(BigDecimal.valueOf(line1.getQuantity()))
+                        .add(line2.getPrice().multiply(BigDecimal.valueOf(line2.getQuantity())))
+                        .divide(BigDecimal.valueOf(quantity), MathContext.DECIMAL64));
     }
 
     /**
      * Return item by VisitId, ItemId.
      */
+    @Transactional
     public Purchase returnItem(final Long visitId, final Long itemId, final Long quantity) {
         final Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException(visitId));
@@ -194,32 +386,35 @@ public class PurchaseService {
 
     /**
      * Return item by Visit, Item.
+     * Quantity is decreased by one atomic statement; empty Purchase is deleted.
      */
+    @Transactional
     public Purchase returnItem(final Visit visit, final Item item, final Long quantity) {
-        return returnItem(Optional.ofNullable(purchaseRepository.findOneByVisitAndItem(visit, item))
-                .orElseThrow(() -> new PurchaseNotFoundException("Purchase not found!")), quantity);
-    }
 
-    /**
-     * Return item.
-     */
-    public Purchase returnItem(final Purchase purchase, final Long quantity) {
+        // Quantity must be > 0
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be > 0 and < available!");
+        }
 
-        // Quantity must be > 0 and < Purchase.Quantity
-        if (quantity == null || quantity <= 0 || quantity > purchase.getQuantity()) {
+        final Purchase purchase = purchaseRepository.subtractQuantity(visit, item, quantity);
+        if (purchase == null) {
+            // Quantity must be < Purchase.Quantity
+            Optional.ofNullable(purchaseRepository.findOneByVisitAndItem(visit, item))
+                    .orElseThrow(() -> new PurchaseNotFoundException("Purchase not found!"));
             throw new IllegalArgumentException("Quantity must be > 0 and < available!");
         }
 
-        final Long newQuantity = purchase.getQuantity() - quantity;
-        purchase.setQuantity(newQuantity);
+        reportService.updateRollups(visit, Collections.singleton(item.getId()));
 
-        if (newQuantity > 0) {
-            final Purchase updatedPurchase = purchaseRepository.save(purchase);
-            LOG.info("Purchase updated: {}", updatedPurchase);
-            return updatedPurchase;
+        if (purchase.getQuantity() > 0) {
+            eventPublisher.publishEvent(PurchaseEvent.updated(visit.getId(), purchase, item));
+            LOG.info("Purchase updated: {}", purchase);
+            return purchase;
         } else {
             // Delete empty purchase
-            purchaseRepository.delete(purchase);
+            purchaseRepository.deleteEmpty(purchase);
+            countCache.invalidate(CountCache.key(CountCache.PURCHASES, visit.getId()));
+            eventPublisher.publishEvent(PurchaseEvent.deleted(visit.getId(), purchase, item));
             LOG.info("Purchase deleted: {}", purchase);
             return null;
         }
@@ -228,6 +423,7 @@ public class PurchaseService {
     /**
      * Updates Price by VisitId, ItemId.
      */
+    @Transactional
     public Purchase updatePrice(final Long visitId, final Long itemId, final BigDecimal price) {
         final Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException(visitId));
@@ -238,15 +434,23 @@ public class PurchaseService {
 
     /**
      * Updates Price by Visit, Item.
+     * Rollups and Price observation are updated in the same transaction.
      */
+    @Transactional
     public Purchase updatePrice(final Visit visit, final Item item, final BigDecimal price) {
-        return updatePrice(Optional.ofNullable(purchaseRepository.findOneByVisitAndItem(visit, item))
+        final Purchase updatedPurchase = updatePrice(Optional.ofNullable(purchaseRepository
+                .findOneByVisitAndItem(visit, item))
                 .orElseThrow(() -> new PurchaseNotFoundException("Purchase not found!")), price);
+        reportService.updateRollups(visit, Collections.singleton(item.getId()));
+        priceService.observePrices(visit, Collections.singletonMap(item.getId(), price));
+        eventPublisher.publishEvent(PurchaseEvent.updated(visit.getId(), updatedPurchase, item));
+        return updatedPurchase;
     }
 
     /**
      * Updates price.
      */
+    @Transactional
     public Purchase updatePrice(final Purchase purchase, final BigDecimal price) {
 
         // Price must be > 0 if not null
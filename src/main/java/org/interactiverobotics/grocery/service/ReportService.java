@@ -0,0 +1,182 @@
+/*
+ * ReportService.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.report.ReportPeriod;
+import org.interactiverobotics.grocery.report.Spend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report service.
+ * Reports are read from daily rollups of Purchase(s) of completed Visit(s) by Shop and Item. Rollups are updated
+ * by Purchase and Visit services after every change of Purchase(s) of completed Visit. Day of Purchase is day
+ * when Visit is started.
+ */
+@Service
+public class ReportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportService.class);
+
+    private static final String ITEM_IDS_SQL = "SELECT item_id FROM purchases WHERE visit_id = :visitId";
+
+    private static final String CREATE_ROLLUPS_SQL = "INSERT INTO purchase_rollups (day, shop_id, item_id) "
+            + "SELECT :day, :shopId, id FROM items WHERE id IN (:itemIds) ORDER BY id ON CONFLICT DO NOTHING";
+
+    private static final String LOCK_ROLLUPS_SQL = "SELECT item_id FROM purchase_rollups "
+            + "WHERE day = :day AND shop_id = :shopId AND item_id IN (:itemIds) ORDER BY item_id FOR UPDATE";
+
+    // Statement is executed after rollups are locked, so it sees Purchase(s) committed by concurrent updates
+    private static final String UPDATE_ROLLUPS_SQL = "UPDATE purchase_rollups r SET (quantity, spend) = ("
+            + "SELECT COALESCE(SUM(p.quantity), 0), COALESCE(SUM(p.quantity * p.price), 0) "
+            + "FROM purchases p JOIN visits v ON v.id = p.visit_id "
+            + "WHERE p.item_id = r.item_id AND v.shop_id = r.shop_id AND v.completed IS NOT NULL "
+            + "AND v.started >= r.day AND v.started < r.day + 1) "
+            + "WHERE r.day = :day AND r.shop_id = :shopId AND r.item_id IN (:itemIds)";
+
+    private static final String SPEND_BY_SHOP_SQL = "SELECT CAST(date_trunc('%s', r.day) AS date) AS period, "
+            + "s.id, s.name, SUM(r.quantity) AS quantity, SUM(r.spend) AS spend "
+            + "FROM purchase_rollups r JOIN shops s ON s.id = r.shop_id "
+            + "WHERE r.quantity > 0 "
+            + "AND (CAST(:from AS date) IS NULL OR r.day >= :from) AND (CAST(:to AS date) IS NULL OR r.day < :to) "
+            + "GROUP BY 1, s.id ORDER BY 1, s.id";
+
+    private static final String SPEND_BY_ITEM_SQL = "SELECT CAST(date_trunc('%s', r.day) AS date) AS period, "
+            + "i.id, i.name, SUM(r.quantity) AS quantity, SUM(r.spend) AS spend "
+            + "FROM purchase_rollups r JOIN items i ON i.id = r.item_id "
+            + "WHERE r.quantity > 0 AND (CAST(:shopId AS bigint) IS NULL OR r.shop_id = :shopId) "
+            + "AND (CAST(:from AS date) IS NULL OR r.day >= :from) AND (CAST(:to AS date) IS NULL OR r.day < :to) "
+            + "GROUP BY 1, i.id ORDER BY 1, i.id";
+
+    private static final RowMapper<Spend> SPEND_MAPPER = (resultSet, rowNumber) -> new Spend(
+            resultSet.getDate("period").toLocalDate(), resultSet.getLong("id"), resultSet.getString("name"),
+            resultSet.getLong("quantity"), resultSet.getBigDecimal("spend"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ReportService(final NamedParameterJdbcTemplate jdbcTemplate, final EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Returns spend by Shop and period for days in range [from, to). Range is optional.
+     */
+    @Transactional(readOnly = true)
+    public List<Spend> getSpendByShop(final ReportPeriod period, final Date from, final Date to) {
+        final List<Spend> spends = jdbcTemplate.query(String.format(SPEND_BY_SHOP_SQL, getField(period)),
+                getRangeParameters(from, to), SPEND_MAPPER);
+        LOG.debug("{} spend(s) by Shop found for {} from {} to {}", spends.size(), period, from, to);
+        return spends;
+    }
+
+    /**
+     * Returns spend by Item and period for days in range [from, to) in Shop. Range and Shop are optional.
+     */
+    @Transactional(readOnly = true)
+    public List<Spend> getSpendByItem(final ReportPeriod period, final Date from, final Date to, final Long shopId) {
+        final List<Spend> spends = jdbcTemplate.query(String.format(SPEND_BY_ITEM_SQL, getField(period)),
+                getRangeParameters(from, to).addValue("shopId", shopId), SPEND_MAPPER);
+        LOG.debug("{} spend(s) by Item found for {} from {} to {} in Shop #{}", spends.size(), period, from, to,
+                shopId);
+        return spends;
+    }
+
+    /**
+     * Returns Id(s) of Item(s) purchased in Visit.
+     */
+    public List<Long> getPurchasedItemIds(final Visit visit) {
+        return jdbcTemplate.queryForList(ITEM_IDS_SQL, new MapSqlParameterSource("visitId", visit.getId()),
+                Long.class);
+    }
+
+    /**
+     * Updates rollups of all Item(s) purchased in Visit.
+     */
+    @Transactional
+    public void updateRollups(final Visit visit) {
+        updateRollups(visit, getPurchasedItemIds(visit));
+    }
+
+    /**
+     * Updates rollups of Item(s) purchased in Visit. Purchase(s) of not completed Visit are not counted.
+     */
+    @Transactional
+    public void updateRollups(final Visit visit, final Collection<Long> itemIds) {
+        if (visit.getCompleted() == null) {
+            return;
+        }
+        updateRollups(visit.getStarted(), visit.getShop().getId(), itemIds);
+    }
+
+    /**
+     * Updates rollups of Item(s) purchased in Shop on day of given time.
+     * Rollups are locked and then recalculated from Purchase(s) of the day, so concurrent updates of the same
+     * rollup are serialized and don't lose changes. Pending changes of Visit(s) and Purchase(s) of the same
+     * transaction are flushed before, so recalculation sees them.
+     */
+    @Transactional
+    public void updateRollups(final Date time, final Long shopId, final Collection<Long> itemIds) {
+        if (time == null || itemIds.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("day", new java.sql.Date(DateUtils.truncate(time, Calendar.DATE).getTime()))
+                .addValue("shopId", shopId)
+                .addValue("itemIds", itemIds);
+        jdbcTemplate.update(CREATE_ROLLUPS_SQL, parameters);
+        jdbcTemplate.queryForList(LOCK_ROLLUPS_SQL, parameters, Long.class);
+        final int count = jdbcTemplate.update(UPDATE_ROLLUPS_SQL, parameters);
+        LOG.debug("{} rollup(s) updated for Shop #{} on {}", count, shopId, parameters.getValue("day"));
+    }
+
+    /**
+     * Returns field of date_trunc() for period.
+     */
+    private static String getField(final ReportPeriod period) {
+        return period.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static MapSqlParameterSource getRangeParameters(final Date from, final Date to) {
+        return new MapSqlParameterSource()
+                .addValue("from", from == null ? null : new java.sql.Date(from.getTime()))
+                .addValue("to", to == null ? null : new java.sql.Date(to.getTime()));
+    }
+}
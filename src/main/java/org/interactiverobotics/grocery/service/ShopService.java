@@ -23,12 +23,17 @@ package org.interactiverobotics.grocery.service;
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.exception.ShopNotFoundException;
 import org.interactiverobotics.grocery.form.ShopForm;
+import org.interactiverobotics.grocery.page.CollectionVersion;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.repository.ShopRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -45,9 +50,12 @@ public class ShopService {
 
     private final ShopRepository shopRepository;
 
+    private final CountCache countCache;
+
     @Autowired
-    public ShopService(final ShopRepository shopRepository) {
+    public ShopService(final ShopRepository shopRepository, final CountCache countCache) {
         this.shopRepository = shopRepository;
+        this.countCache = countCache;
     }
 
     /**
@@ -61,14 +69,41 @@ public class ShopService {
     }
 
     /**
-     * Returns page of Shop(s).
+     * Returns page of Shop(s). Total count is taken from cache.
      */
     public Page<Shop> getShops(Pageable pageable) {
-        final Page<Shop> shops = shopRepository.findAll(pageable);
+        final Page<Shop> shops = new PageImpl<>(shopRepository.findSliceBy(pageable).getContent(), pageable,
+                countCache.get(CountCache.SHOPS, shopRepository::count));
+        LOG.debug("{} Shop(s) found for {}", shops.getNumberOfElements(), pageable);
+        return shops;
+    }
+
+    /**
+     * Returns slice of Shop(s) without total count.
+     */
+    public Slice<Shop> getShopsSlice(Pageable pageable) {
+        final Slice<Shop> shops = shopRepository.findSliceBy(pageable);
         LOG.debug("{} Shop(s) found for {}", shops.getNumberOfElements(), pageable);
         return shops;
     }
 
+    /**
+     * Returns keyset page of Shop(s) after Shop identified by token.
+     */
+    public KeysetPage<Shop> getShops(Pageable pageable, final String after) {
+        final KeysetPage<Shop> shops = KeysetPage.of(shopRepository.findAllByIdGreaterThanOrderById(
+                KeysetPage.request(pageable), KeysetPage.decodeToken(after)), pageable, Shop::getId);
+        LOG.debug("{} Shop(s) found after '{}' for {}", shops.getContent().size(), after, pageable);
+        return shops;
+    }
+
+    /**
+     * Returns version of Shop(s).
+     */
+    public CollectionVersion getShopsVersion() {
+        return shopRepository.findVersion();
+    }
+
     /**
      * Returns Shop by Id.
      */
@@ -94,6 +129,7 @@ public class ShopService {
      */
     public Shop createShop(final ShopForm form) {
         final Shop shop = shopRepository.save(new Shop(form.getName()));
+        countCache.invalidate(CountCache.SHOPS);
         LOG.info("Shop created: {}", shop);
         return shop;
     }
@@ -104,8 +140,10 @@ public class ShopService {
     public Shop updateShop(final Long shopId, final ShopForm form) {
         final Shop shop = shopRepository.findById(shopId)
                 .orElseThrow(() -> new ShopNotFoundException(shopId));
-        shop.setName(form.getName());
-        final Shop updatedShop = shopRepository.save(shop);
+        // Cached Shop is shared, so changes are saved as new instance
+        final Shop changedShop = new Shop(shop.getId(), form.getName());
+        changedShop.setVersion(shop.getVersion());
+        final Shop updatedShop = shopRepository.save(changedShop);
         LOG.info("Shop updated: {}", updatedShop);
         return updatedShop;
     }
@@ -117,6 +155,9 @@ public class ShopService {
         final Shop shop = shopRepository.findById(shopId)
                 .orElseThrow(() -> new ShopNotFoundException(shopId));
         this.shopRepository.delete(shop);
+        countCache.invalidate(CountCache.SHOPS);
+        countCache.invalidate(CountCache.VISITS);
+        countCache.invalidate(CountCache.PURCHASES);
         LOG.info("Shop deleted: {}", shop);
     }
 }
@@ -28,19 +28,25 @@ import org.interactiverobotics.grocery.exception.ShoppingListItemNotFoundExcepti
 import org.interactiverobotics.grocery.exception.ShoppingListNotFoundException;
 import org.interactiverobotics.grocery.form.ShoppingListItemCreateForm;
 import org.interactiverobotics.grocery.form.ShoppingListItemUpdateForm;
+import org.interactiverobotics.grocery.page.CollectionVersion;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.LikePattern;
 import org.interactiverobotics.grocery.repository.ShoppingListItemRepository;
 import org.interactiverobotics.grocery.repository.ShoppingListRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Optional;
 
 /**
  * ShoppingListItem service.
@@ -53,6 +59,7 @@ public class ShoppingListItemService {
     private final ShoppingListRepository shoppingListRepository;
     private final ItemRepository itemRepository;
     private final ShoppingListItemRepository shoppingListItemRepository;
+    private final CountCache countCache;
 
     /**
      * Parametrized constructor.
@@ -60,16 +67,19 @@ public class ShoppingListItemService {
     @Autowired
     public ShoppingListItemService(final ShoppingListRepository shoppingListRepository,
                                    final ItemRepository itemRepository,
-                                   final ShoppingListItemRepository shoppingListItemRepository) {
+                                   final ShoppingListItemRepository shoppingListItemRepository,
+                                   final CountCache countCache) {
 
         this.shoppingListRepository = shoppingListRepository;
         this.itemRepository = itemRepository;
         this.shoppingListItemRepository = shoppingListItemRepository;
+        this.countCache = countCache;
     }
 
     /**
      * Returns ShoppingListItem(s).
      */
+    @Transactional(readOnly = true)
     public List<ShoppingListItem> getShoppingListItems(final Long shoppingListId) {
         final List<ShoppingListItem> shoppingListItems = shoppingListItemRepository.findAllByShoppingList(
                 shoppingListRepository.findById(shoppingListId)
@@ -79,16 +89,56 @@ public class ShoppingListItemService {
     }
 
     /**
-     * Returns page of ShoppingListItem(s).
+     * Returns version of ShoppingListItem(s).
      */
+    public CollectionVersion getShoppingListItemsVersion(final Long shoppingListId) {
+        return shoppingListItemRepository.findVersionByShoppingList(shoppingListRepository.findById(shoppingListId)
+                .orElseThrow(() -> new ShoppingListNotFoundException(shoppingListId)));
+    }
+
+    /**
+     * Returns page of ShoppingListItem(s). Total count is taken from cache.
+     */
+    @Transactional(readOnly = true)
     public Page<ShoppingListItem> getShoppingListItems(Pageable pageable, final Long shoppingListId) {
-        final Page<ShoppingListItem> shoppingListItems = shoppingListItemRepository.findAllByShoppingList(pageable,
+        final ShoppingList shoppingList = shoppingListRepository.findById(shoppingListId)
+                .orElseThrow(() -> new ShoppingListNotFoundException(shoppingListId));
+        final Page<ShoppingListItem> shoppingListItems = new PageImpl<>(shoppingListItemRepository
+                .findSliceByShoppingList(pageable, shoppingList).getContent(), pageable,
+                countCache.get(CountCache.key(CountCache.SHOPPING_LIST_ITEMS, shoppingListId),
+                        () -> shoppingListItemRepository.countByShoppingList(shoppingList)));
+        LOG.debug("{} ShoppingListItem(s) found for {}", shoppingListItems.getNumberOfElements(), pageable);
+        return shoppingListItems;
+    }
+
+    /**
+     * Returns slice of ShoppingListItem(s) without total count.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ShoppingListItem> getShoppingListItemsSlice(Pageable pageable, final Long shoppingListId) {
+        final Slice<ShoppingListItem> shoppingListItems = shoppingListItemRepository.findSliceByShoppingList(pageable,
                 shoppingListRepository.findById(shoppingListId)
                         .orElseThrow(() -> new ShoppingListNotFoundException(shoppingListId)));
         LOG.debug("{} ShoppingListItem(s) found for {}", shoppingListItems.getNumberOfElements(), pageable);
         return shoppingListItems;
     }
 
+    /**
+     * Returns keyset page of ShoppingListItem(s) after ShoppingListItem identified by token.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ShoppingListItem> getShoppingListItems(Pageable pageable, final Long shoppingListId,
+                                                             final String after) {
+        final KeysetPage<ShoppingListItem> shoppingListItems = KeysetPage.of(shoppingListItemRepository
+                .findAllByShoppingListAndIdGreaterThanOrderById(KeysetPage.request(pageable),
+                        shoppingListRepository.findById(shoppingListId)
+                                .orElseThrow(() -> new ShoppingListNotFoundException(shoppingListId)),
+                        KeysetPage.decodeToken(after)), pageable, ShoppingListItem::getId);
+        LOG.debug("{} ShoppingListItem(s) found after '{}' for {}", shoppingListItems.getContent().size(), after,
+                pageable);
+        return shoppingListItems;
+    }
+
     /**
      * Returns ShoppingListItem by Id.
      */
@@ -103,13 +153,30 @@ public class ShoppingListItemService {
     /**
      * Returns Item(s) not included to ShoppingList.
      */
+    @Transactional(readOnly = true)
     public List<Item> getNotAddedItems(final Long shoppingListId) {
         final ShoppingList shoppingList = shoppingListRepository.findById(shoppingListId)
                 .orElseThrow(() -> new ShoppingListNotFoundException(shoppingListId));
-        return StreamSupport.stream(itemRepository.findAll().spliterator(), false)
-                .filter(item ->
-                        shoppingListItemRepository.findOneByShoppingListAndItem(shoppingList, item) == null)
-                .collect(Collectors.toList());
+        final List<Item> items = shoppingListItemRepository.findNotAddedItems(shoppingList);
+        LOG.debug("{} not added Item(s) found for ShoppingList {}", items.size(), shoppingList);
+        return items;
+    }
+
+    /**
+     * Returns next chunk of Item(s) not included to ShoppingList.
+     * Item(s) are ordered by Id, chunk starts after Item with given Id and contains Item(s) which Name starts
+     * with given prefix.
+     */
+    @Transactional(readOnly = true)
+    public List<Item> getNotAddedItems(Pageable pageable, final Long shoppingListId, final String name,
+                                       final Long after) {
+        final ShoppingList shoppingList = shoppingListRepository.findById(shoppingListId)
+                .orElseThrow(() -> new ShoppingListNotFoundException(shoppingListId));
+        final List<Item> items = shoppingListItemRepository.findNotAddedItems(pageable, shoppingList,
+                LikePattern.prefix(name), Optional.ofNullable(after).orElse(0L));
+        LOG.debug("{} not added Item(s) found for ShoppingList {}, Name '{}' after Item #{}",
+                items.size(), shoppingList, name, after);
+        return items;
     }
 
     /**
@@ -132,6 +199,7 @@ public class ShoppingListItemService {
 
         final ShoppingListItem shoppingListItem =
                 shoppingListItemRepository.save(new ShoppingListItem(shoppingList, item, quantity));
+        countCache.invalidate(CountCache.key(CountCache.SHOPPING_LIST_ITEMS, shoppingList.getId()));
 
         LOG.info("ShoppingListItem created: {}", shoppingListItem);
         return shoppingListItem;
@@ -168,6 +236,8 @@ public class ShoppingListItemService {
                 shoppingListItemRepository.findById(shoppingListItemId)
                         .orElseThrow(() -> new ShoppingListItemNotFoundException(shoppingListItemId));
         shoppingListItemRepository.delete(shoppingListItem);
+        countCache.invalidate(CountCache.key(CountCache.SHOPPING_LIST_ITEMS,
+                shoppingListItem.getShoppingList().getId()));
         LOG.info("ShoppingListItem deleted: {}", shoppingListItem);
     }
 }
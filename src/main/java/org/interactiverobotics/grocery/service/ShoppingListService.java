@@ -23,10 +23,14 @@ package org.interactiverobotics.grocery.service;
 import org.interactiverobotics.grocery.domain.ShoppingList;
 import org.interactiverobotics.grocery.exception.ShoppingListNotFoundException;
 import org.interactiverobotics.grocery.form.ShoppingListForm;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.repository.ShoppingListRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -41,9 +45,12 @@ public class ShoppingListService {
 
     private final ShoppingListRepository shoppingListRepository;
 
+    private final CountCache countCache;
+
     @Autowired
-    public ShoppingListService(final ShoppingListRepository shoppingListRepository) {
+    public ShoppingListService(final ShoppingListRepository shoppingListRepository, final CountCache countCache) {
         this.shoppingListRepository = shoppingListRepository;
+        this.countCache = countCache;
     }
 
     /**
@@ -56,10 +63,26 @@ public class ShoppingListService {
     }
 
     /**
-     * Returns page of ShoppingList(s).
+     * Returns page of ShoppingList(s). Total count is taken from cache.
      */
     public Page<ShoppingList> getShoppingLists(Pageable pageable) {
-        return shoppingListRepository.findAll(pageable);
+        return new PageImpl<>(shoppingListRepository.findSliceBy(pageable).getContent(), pageable,
+                countCache.get(CountCache.SHOPPING_LISTS, shoppingListRepository::count));
+    }
+
+    /**
+     * Returns slice of ShoppingList(s) without total count.
+     */
+    public Slice<ShoppingList> getShoppingListsSlice(Pageable pageable) {
+        return shoppingListRepository.findSliceBy(pageable);
+    }
+
+    /**
+     * Returns keyset page of ShoppingList(s) after ShoppingList identified by token.
+     */
+    public KeysetPage<ShoppingList> getShoppingLists(Pageable pageable, final String after) {
+        return KeysetPage.of(shoppingListRepository.findAllByIdGreaterThanOrderById(
+                KeysetPage.request(pageable), KeysetPage.decodeToken(after)), pageable, ShoppingList::getId);
     }
 
     /**
@@ -82,7 +105,9 @@ public class ShoppingListService {
      * Creates ShoppingList.
      */
     public ShoppingList createShoppingList(final ShoppingListForm form) {
-        return shoppingListRepository.save(new ShoppingList(form.getName()));
+        final ShoppingList shoppingList = shoppingListRepository.save(new ShoppingList(form.getName()));
+        countCache.invalidate(CountCache.SHOPPING_LISTS);
+        return shoppingList;
     }
 
     /**
@@ -102,5 +127,7 @@ public class ShoppingListService {
         final ShoppingList shoppingList = shoppingListRepository.findById(itemId)
                 .orElseThrow(() -> new ShoppingListNotFoundException(itemId));
         shoppingListRepository.delete(shoppingList);
+        countCache.invalidate(CountCache.SHOPPING_LISTS);
+        countCache.invalidate(CountCache.key(CountCache.SHOPPING_LIST_ITEMS, shoppingList.getId()));
     }
 }
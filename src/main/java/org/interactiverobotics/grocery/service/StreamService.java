@@ -0,0 +1,113 @@
+/*
+ * StreamService.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.configuration.StreamProperties;
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.exception.ShopNotFoundException;
+import org.interactiverobotics.grocery.page.KeysetFlux;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+
+/**
+ * Stream service.
+ * Streams pages of Item(s), Shop(s) and Visit(s) ordered by Id with backpressure: pages are loaded by keyset
+ * on JDBC scheduler only when client is ready to receive them.
+ */
+@Service
+public class StreamService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamService.class);
+
+    private final ItemRepository itemRepository;
+
+    private final ShopRepository shopRepository;
+
+    private final VisitRepository visitRepository;
+
+    private final Scheduler jdbcScheduler;
+
+    private final int pageSize;
+
+    /**
+     * Parametrized constructor.
+     */
+    @Autowired
+    public StreamService(final ItemRepository itemRepository,
+                         final ShopRepository shopRepository,
+                         final VisitRepository visitRepository,
+                         final Scheduler jdbcScheduler,
+                         final StreamProperties properties) {
+
+        this.itemRepository = itemRepository;
+        this.shopRepository = shopRepository;
+        this.visitRepository = visitRepository;
+        this.jdbcScheduler = jdbcScheduler;
+        this.pageSize = properties.getPageSize();
+    }
+
+    /**
+     * Returns stream of pages of Item(s).
+     */
+    public Flux<List<Item>> streamItems() {
+        return KeysetFlux.of(itemRepository::findAllByIdGreaterThanOrderById, pageSize, Item::getId, jdbcScheduler)
+                .doOnComplete(() -> LOG.debug("Item(s) streamed"));
+    }
+
+    /**
+     * Returns stream of pages of Shop(s).
+     */
+    public Flux<List<Shop>> streamShops() {
+        return KeysetFlux.of(shopRepository::findAllByIdGreaterThanOrderById, pageSize, Shop::getId, jdbcScheduler)
+                .doOnComplete(() -> LOG.debug("Shop(s) streamed"));
+    }
+
+    /**
+     * Returns stream of pages of Visit(s) with Shop(s) and ShoppingList(s).
+     */
+    public Flux<List<Visit>> streamVisits() {
+        return KeysetFlux.of(visitRepository::findAllWithShopByIdGreaterThanOrderById, pageSize, Visit::getId,
+                jdbcScheduler).doOnComplete(() -> LOG.debug("Visit(s) streamed"));
+    }
+
+    /**
+     * Returns stream of pages of Visit(s) by ShopId with Shop(s) and ShoppingList(s).
+     * Shop is checked before stream is returned.
+     */
+    public Flux<List<Visit>> streamVisits(final Long shopId) {
+        final Shop shop = shopRepository.findById(shopId)
+                .orElseThrow(() -> new ShopNotFoundException(shopId));
+        return KeysetFlux.of((pageable, after) -> visitRepository.findAllWithShopByShopAndIdGreaterThanOrderById(
+                pageable, shop, after), pageSize, Visit::getId, jdbcScheduler)
+                .doOnComplete(() -> LOG.debug("Visit(s) of Shop {} streamed", shop));
+    }
+}
@@ -24,16 +24,22 @@ import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.domain.Visit;
 import org.interactiverobotics.grocery.exception.ShopNotFoundException;
 import org.interactiverobotics.grocery.exception.VisitNotFoundException;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.repository.ShopRepository;
 import org.interactiverobotics.grocery.repository.VisitRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -50,20 +56,29 @@ public class VisitService {
 
     private final ShopRepository shopRepository;
 
+    private final CountCache countCache;
+
+    private final ReportService reportService;
+
     /**
      * Parametrized constructor.
      */
     @Autowired
     public VisitService(final VisitRepository visitRepository,
-                        final ShopRepository shopRepository) {
+                        final ShopRepository shopRepository,
+                        final CountCache countCache,
+                        final ReportService reportService) {
 
         this.visitRepository = visitRepository;
         this.shopRepository = shopRepository;
+        this.countCache = countCache;
+        this.reportService = reportService;
     }
 
     /**
      * Return Visit(s).
      */
+    @Transactional(readOnly = true)
     public List<Visit> getVisits() {
         final List<Visit> visits = new ArrayList<>();
         visitRepository.findAll().forEach(visit -> visits.add(visit));
@@ -72,14 +87,37 @@ public class VisitService {
     }
 
     /**
-     * Returns page of Visit(s).
+     * Returns page of Visit(s). Total count is taken from cache.
      */
+    @Transactional(readOnly = true)
     public Page<Visit> getVisits(Pageable pageable) {
-        final Page<Visit> visits = visitRepository.findAll(pageable);
+        final Page<Visit> visits = new PageImpl<>(visitRepository.findSliceBy(pageable).getContent(), pageable,
+                countCache.get(CountCache.VISITS, visitRepository::count));
+        LOG.debug("{} Visit(s) found for {}", visits.getNumberOfElements(), pageable);
+        return visits;
+    }
+
+    /**
+     * Returns slice of Visit(s) without total count.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Visit> getVisitsSlice(Pageable pageable) {
+        final Slice<Visit> visits = visitRepository.findSliceBy(pageable);
         LOG.debug("{} Visit(s) found for {}", visits.getNumberOfElements(), pageable);
         return visits;
     }
 
+    /**
+     * Returns keyset page of Visit(s) after Visit identified by token.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Visit> getVisits(Pageable pageable, final String after) {
+        final KeysetPage<Visit> visits = KeysetPage.of(visitRepository.findAllByIdGreaterThanOrderById(
+                KeysetPage.request(pageable), KeysetPage.decodeToken(after)), pageable, Visit::getId);
+        LOG.debug("{} Visit(s) found after '{}' for {}", visits.getContent().size(), after, pageable);
+        return visits;
+    }
+
     /**
      * Returns Visit by Id.
      */
@@ -111,7 +149,7 @@ public class VisitService {
      */
     public List<Visit> getVisitsByShop(final Shop shop) {
         final List<Visit> visits = new ArrayList<>();
-        visitRepository.findAllByShop(shop).forEach(visit -> visits.add(visit));
+        visitRepository.findAllByShopOrderById(shop).forEach(visit -> visits.add(visit));
         LOG.debug("{} Visit(s) found for Shop {}", visits.size(), shop);
         return visits;
     }
@@ -137,45 +175,67 @@ public class VisitService {
      */
     public Visit createVisit(final Shop shop) {
         final Visit visit = visitRepository.save(new Visit(shop));
+        countCache.invalidate(CountCache.VISITS);
         LOG.info("Visit created: {}", visit);
         return visit;
     }
 
     /**
      * Starts Visit.
+     * Purchase(s) of completed Visit are moved to rollups of new day in the same transaction.
      */
+    @Transactional
     public Visit startVisit(final Long visitId) {
         final Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException(visitId));
+        final Date started = visit.getStarted();
         visit.setStarted(new Date());
         final Visit updatedVisit = visitRepository.save(visit);
+        if (updatedVisit.getCompleted() != null) {
+            final List<Long> itemIds = reportService.getPurchasedItemIds(updatedVisit);
+            reportService.updateRollups(started, updatedVisit.getShop().getId(), itemIds);
+            reportService.updateRollups(updatedVisit, itemIds);
+        }
         LOG.info("Visit started: {}", updatedVisit);
         return updatedVisit;
     }
 
     /**
      * Completes Visit.
+     * Purchase(s) are added to rollups in the same transaction when Visit is completed for the first time.
      */
+    @Transactional
     public Visit completeVisit(final Long visitId) {
         final Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException(visitId));
+        final boolean completed = visit.getCompleted() != null;
         final Date now = new Date();
         if (visit.getStarted() == null) {
             visit.setStarted(now);
         }
         visit.setCompleted(now);
         final Visit updatedVisit = visitRepository.save(visit);
+        if (!completed) {
+            reportService.updateRollups(updatedVisit);
+        }
         LOG.info("Visit completed: {}", updatedVisit);
         return updatedVisit;
     }
 
     /**
      * Deletes Visit.
+     * Purchase(s) of completed Visit are removed from rollups in the same transaction.
      */
+    @Transactional
     public void deleteVisit(final Long visitId) {
         final Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException(visitId));
+        final List<Long> itemIds = visit.getCompleted() == null ? Collections.emptyList()
+                : reportService.getPurchasedItemIds(visit);
         this.visitRepository.delete(visit);
+        reportService.updateRollups(visit, itemIds);
+        countCache.invalidate(CountCache.VISITS);
+        countCache.invalidate(CountCache.key(CountCache.PURCHASES, visit.getId()));
         LOG.info("Visit deleted: {}", visit);
     }
 }
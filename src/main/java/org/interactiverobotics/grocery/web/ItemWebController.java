@@ -22,9 +22,10 @@ package org.interactiverobotics.grocery.web;
 
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.form.ItemForm;
+import org.interactiverobotics.grocery.page.KeysetPage;
+import org.interactiverobotics.grocery.page.PagePatch;
 import org.interactiverobotics.grocery.service.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -35,8 +36,6 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.validation.Valid;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Item web controller.
@@ -67,19 +66,23 @@ public class ItemWebController {
 
     /**
      * Returns HTML block with list of Items.
+     * Only new and changed rows are returned if versions of known rows are passed.
      */
     @RequestMapping("/list")
     public String getItems(@RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
-                           @RequestParam(value = "size", defaultValue = "10") Integer pageSize, Model model) {
+                           @RequestParam(value = "size", defaultValue = "10") Integer pageSize,
+                           @RequestParam(value = "after", defaultValue = "") String after,
+                           @RequestParam(value = "known", required = false) String known, Model model) {
 
-        final Page<Item> page = this.itemService.getItems(PageRequest.of(pageNumber - 1, pageSize));
+        final KeysetPage<Item> page = this.itemService.getItems(PageRequest.of(0, pageSize), after);
 
-        final List<Item> items = new ArrayList<>();
-        page.forEach(item -> items.add(item));
+        final PagePatch<Item> patch = PagePatch.of(page.getContent(), Item::getId, Item::getVersion, known);
 
         model.addAttribute("offset", 1 + (pageNumber - 1) * pageSize);
-        model.addAttribute("items", items);
-        model.addAttribute("totalPages", page.getTotalPages());
+        model.addAttribute("items", patch.getContent());
+        model.addAttribute("versions", patch.getVersions());
+        model.addAttribute("ids", patch.getIds());
+        model.addAttribute("nextPageToken", page.getNext());
         model.addAttribute("currentPage", pageNumber);
 
         return "item_list";
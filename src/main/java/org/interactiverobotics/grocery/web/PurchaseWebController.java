@@ -22,6 +22,8 @@ package org.interactiverobotics.grocery.web;
 
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.page.KeysetPage;
+import org.interactiverobotics.grocery.page.PagePatch;
 import org.interactiverobotics.grocery.service.PurchaseService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -32,8 +34,6 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Purchase web controller.
@@ -67,34 +67,53 @@ public class PurchaseWebController {
     }
 
     /**
-     * Returns HTML block with selector of Item(s) not existing in Visit's Purchase(s).
+     * Returns HTML block with selector of the first Item(s) not existing in Visit's Purchase(s) which Name starts
+     * with given prefix.
      */
     @RequestMapping("/{visitId}/item_selector")
-    public String getNotPurchasedItems(@PathVariable Long visitId, Model model) {
-        final List<Item> items = this.purchaseService.getNotPurchasedItems(visitId);
-        model.addAttribute("items", items);
+    public String getNotPurchasedItems(@PathVariable Long visitId,
+                                       @RequestParam(value = "name", defaultValue = "") String name,
+                                       @RequestParam(value = "size", defaultValue = "20") Integer pageSize,
+                                       Model model) {
+        final Page<Item> items = this.purchaseService
+                .getNotPurchasedItems(PageRequest.of(0, pageSize), visitId, name);
+        model.addAttribute("items", items.getContent());
+        model.addAttribute("moreItems", items.getTotalElements() - items.getNumberOfElements());
         return "purchase_item_selector";
     }
 
     /**
      * Returns HTML block with list of Purchase(s).
+     * Only new and changed rows are returned if versions of known rows are passed.
      */
     @RequestMapping("/{visitId}/list")
     public String getPurchases(@PathVariable Long visitId,
                                @RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
-                               @RequestParam(value = "size", defaultValue = "10") Integer pageSize, Model model) {
+                               @RequestParam(value = "size", defaultValue = "10") Integer pageSize,
+                               @RequestParam(value = "after", defaultValue = "") String after,
+                               @RequestParam(value = "known", required = false) String known, Model model) {
 
-        final Page<Purchase> page = this.purchaseService
-                .getPurchases(PageRequest.of(pageNumber - 1, pageSize), visitId);
+        final KeysetPage<Purchase> page = this.purchaseService
+                .getPurchases(PageRequest.of(0, pageSize), visitId, after);
 
-        final List<Purchase> purchases = new ArrayList<>();
-        page.forEach(purchase -> purchases.add(purchase));
+        final PagePatch<Purchase> patch = PagePatch.of(page.getContent(), Purchase::getId,
+                PurchaseWebController::getRowVersion, known);
 
         model.addAttribute("offset", 1 + (pageNumber - 1) * pageSize);
-        model.addAttribute("purchases", purchases);
-        model.addAttribute("totalPages", page.getTotalPages());
+        model.addAttribute("size", pageSize);
+        model.addAttribute("purchases", patch.getContent());
+        model.addAttribute("versions", patch.getVersions());
+        model.addAttribute("ids", patch.getIds());
+        model.addAttribute("nextPageToken", page.getNext());
         model.addAttribute("currentPage", pageNumber);
 
         return "purchase_list";
     }
+
+    /**
+     * Returns version of row of Purchase, it changes with every shown value.
+     */
+    private static String getRowVersion(final Purchase purchase) {
+        return PagePatch.version(purchase.getItem().getVersion(), purchase.getQuantity(), purchase.getPrice());
+    }
 }
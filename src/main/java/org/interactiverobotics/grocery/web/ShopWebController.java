@@ -22,9 +22,10 @@ package org.interactiverobotics.grocery.web;
 
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.form.ShopForm;
+import org.interactiverobotics.grocery.page.KeysetPage;
+import org.interactiverobotics.grocery.page.PagePatch;
 import org.interactiverobotics.grocery.service.ShopService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -35,8 +36,6 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.validation.Valid;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Shop web controller.
@@ -64,19 +63,23 @@ public class ShopWebController {
 
     /**
      * Returns HTML block with list of Shops.
+     * Only new and changed rows are returned if versions of known rows are passed.
      */
     @RequestMapping("/list")
     public String getShops(@RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
-                           @RequestParam(value = "size", defaultValue = "10") Integer pageSize, Model model) {
+                           @RequestParam(value = "size", defaultValue = "10") Integer pageSize,
+                           @RequestParam(value = "after", defaultValue = "") String after,
+                           @RequestParam(value = "known", required = false) String known, Model model) {
 
-        final Page<Shop> page = this.shopService.getShops(PageRequest.of(pageNumber - 1, pageSize));
+        final KeysetPage<Shop> page = this.shopService.getShops(PageRequest.of(0, pageSize), after);
 
-        final List<Shop> shops = new ArrayList<>();
-        page.forEach(shop -> shops.add(shop));
+        final PagePatch<Shop> patch = PagePatch.of(page.getContent(), Shop::getId, Shop::getVersion, known);
 
         model.addAttribute("offset", 1 + (pageNumber - 1) * pageSize);
-        model.addAttribute("shops", shops);
-        model.addAttribute("totalPages", page.getTotalPages());
+        model.addAttribute("shops", patch.getContent());
+        model.addAttribute("versions", patch.getVersions());
+        model.addAttribute("ids", patch.getIds());
+        model.addAttribute("nextPageToken", page.getNext());
         model.addAttribute("currentPage", pageNumber);
 
         return "shop_list";
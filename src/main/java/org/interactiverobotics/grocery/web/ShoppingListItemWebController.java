@@ -22,9 +22,10 @@ package org.interactiverobotics.grocery.web;
 
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.ShoppingListItem;
+import org.interactiverobotics.grocery.page.KeysetPage;
+import org.interactiverobotics.grocery.page.PagePatch;
 import org.interactiverobotics.grocery.service.ShoppingListItemService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -32,7 +33,6 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -71,36 +71,45 @@ public class ShoppingListItemWebController {
 
     /**
      * Returns HTML block with list of ShoppingListItems.
+     * Only new and changed rows are returned if versions of known rows are passed.
      */
     @RequestMapping("/{shoppingListId}/list")
     public String getShoppingListItems(@PathVariable Long shoppingListId,
                                        @RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
                                        @RequestParam(value = "size", defaultValue = "10") Integer pageSize,
-                                       Model model) {
+                                       @RequestParam(value = "after", defaultValue = "") String after,
+                                       @RequestParam(value = "known", required = false) String known, Model model) {
 
-        final Page<ShoppingListItem> page = this.shoppingListItemService
-                .getShoppingListItems(PageRequest.of(pageNumber - 1, pageSize), shoppingListId);
+        final KeysetPage<ShoppingListItem> page = this.shoppingListItemService
+                .getShoppingListItems(PageRequest.of(0, pageSize), shoppingListId, after);
 
-        final List<ShoppingListItem> shoppingListItems = new ArrayList<>();
-        page.forEach(shoppingListItem -> shoppingListItems.add(shoppingListItem));
+        final PagePatch<ShoppingListItem> patch = PagePatch.of(page.getContent(), ShoppingListItem::getId,
+                ShoppingListItemWebController::getRowVersion, known);
 
         model.addAttribute("offset", 1 + (pageNumber - 1) * pageSize);
-        model.addAttribute("shoppingListItems", shoppingListItems);
-        model.addAttribute("totalPages", page.getTotalPages());
+        model.addAttribute("shoppingListItems", patch.getContent());
+        model.addAttribute("versions", patch.getVersions());
+        model.addAttribute("ids", patch.getIds());
+        model.addAttribute("nextPageToken", page.getNext());
         model.addAttribute("currentPage", pageNumber);
 
         return "shopping_list_item_list";
     }
 
     /**
-     * Returns create ShoppingListItem form.
+     * Returns create ShoppingListItem form with the first Item(s) not included to ShoppingList which Name starts
+     * with given prefix. Next Item(s) are loaded by form from REST endpoint.
      */
     @RequestMapping("/form")
     public String getCreateShoppingListItemForm(@RequestParam(value = "shoppingList") Long shoppingListId,
+                                                @RequestParam(value = "name", defaultValue = "") String name,
+                                                @RequestParam(value = "size", defaultValue = "20") Integer pageSize,
                                                 Model model) {
         model.addAttribute("shoppingListId", shoppingListId);
-        final List<Item> items = this.shoppingListItemService.getNotAddedItems(shoppingListId);
+        final List<Item> items = this.shoppingListItemService
+                .getNotAddedItems(PageRequest.of(0, pageSize), shoppingListId, name, 0L);
         model.addAttribute("items", items);
+        model.addAttribute("pageSize", pageSize);
         return "shopping_list_item_form_create";
     }
 
@@ -113,4 +122,11 @@ public class ShoppingListItemWebController {
         model.addAttribute("shoppingListItem", shoppingListItem);
         return "shopping_list_item_form_update";
     }
+
+    /**
+     * Returns version of row of ShoppingListItem, it changes with every shown value.
+     */
+    private static String getRowVersion(final ShoppingListItem shoppingListItem) {
+        return PagePatch.version(shoppingListItem.getVersion(), shoppingListItem.getItem().getVersion());
+    }
 }
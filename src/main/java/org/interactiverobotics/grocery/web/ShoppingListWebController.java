@@ -22,9 +22,10 @@ package org.interactiverobotics.grocery.web;
 
 import org.interactiverobotics.grocery.domain.ShoppingList;
 import org.interactiverobotics.grocery.form.ShoppingListForm;
+import org.interactiverobotics.grocery.page.KeysetPage;
+import org.interactiverobotics.grocery.page.PagePatch;
 import org.interactiverobotics.grocery.service.ShoppingListService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -35,8 +36,6 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.validation.Valid;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * ShoppingList web controller.
@@ -67,20 +66,25 @@ public class ShoppingListWebController {
 
     /**
      * Returns HTML block with list of ShoppingLists.
+     * Only new and changed rows are returned if versions of known rows are passed.
      */
     @RequestMapping("/list")
     public String getShoppingLists(@RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
-                                   @RequestParam(value = "size", defaultValue = "10") Integer pageSize, Model model) {
+                                   @RequestParam(value = "size", defaultValue = "10") Integer pageSize,
+                                   @RequestParam(value = "after", defaultValue = "") String after,
+                                   @RequestParam(value = "known", required = false) String known, Model model) {
 
-        final Page<ShoppingList> page = this.shoppingListService
-                .getShoppingLists(PageRequest.of(pageNumber - 1, pageSize));
+        final KeysetPage<ShoppingList> page = this.shoppingListService
+                .getShoppingLists(PageRequest.of(0, pageSize), after);
 
-        final List<ShoppingList> shoppingLists = new ArrayList<>();
-        page.forEach(shoppingList -> shoppingLists.add(shoppingList));
+        final PagePatch<ShoppingList> patch = PagePatch.of(page.getContent(), ShoppingList::getId,
+                ShoppingList::getVersion, known);
 
         model.addAttribute("offset", 1 + (pageNumber - 1) * pageSize);
-        model.addAttribute("shoppingLists", shoppingLists);
-        model.addAttribute("totalPages", page.getTotalPages());
+        model.addAttribute("shoppingLists", patch.getContent());
+        model.addAttribute("versions", patch.getVersions());
+        model.addAttribute("ids", patch.getIds());
+        model.addAttribute("nextPageToken", page.getNext());
         model.addAttribute("currentPage", pageNumber);
 
         return "shopping_list_list";
@@ -21,17 +21,16 @@
 package org.interactiverobotics.grocery.web;
 
 import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.page.KeysetPage;
+import org.interactiverobotics.grocery.page.PagePatch;
 import org.interactiverobotics.grocery.service.VisitService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Visit web controller.
@@ -57,21 +56,33 @@ public class VisitWebController {
 
     /**
      * Returns HTML block with list of Visits.
+     * Only new and changed rows are returned if versions of known rows are passed.
      */
     @RequestMapping("/list")
     public String getVisits(@RequestParam(value = "page", defaultValue = "1") Integer pageNumber,
-                            @RequestParam(value = "size", defaultValue = "10") Integer pageSize, Model model) {
+                            @RequestParam(value = "size", defaultValue = "10") Integer pageSize,
+                            @RequestParam(value = "after", defaultValue = "") String after,
+                            @RequestParam(value = "known", required = false) String known, Model model) {
 
-        final Page<Visit> page = this.visitService.getVisits(PageRequest.of(pageNumber - 1, pageSize));
+        final KeysetPage<Visit> page = this.visitService.getVisits(PageRequest.of(0, pageSize), after);
 
-        final List<Visit> visits = new ArrayList<>();
-        page.forEach(visit -> visits.add(visit));
+        final PagePatch<Visit> patch = PagePatch.of(page.getContent(), Visit::getId,
+                VisitWebController::getRowVersion, known);
 
         model.addAttribute("offset", 1 + (pageNumber - 1) * pageSize);
-        model.addAttribute("visits", visits);
-        model.addAttribute("totalPages", page.getTotalPages());
+        model.addAttribute("visits", patch.getContent());
+        model.addAttribute("versions", patch.getVersions());
+        model.addAttribute("ids", patch.getIds());
+        model.addAttribute("nextPageToken", page.getNext());
         model.addAttribute("currentPage", pageNumber);
 
         return "visit_list";
     }
+
+    /**
+     * Returns version of row of Visit, it changes with every shown value.
+     */
+    private static String getRowVersion(final Visit visit) {
+        return PagePatch.version(visit.getShop().getVersion(), visit.getStarted(), visit.getCompleted());
+    }
 }
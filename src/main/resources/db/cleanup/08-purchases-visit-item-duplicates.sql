@@ -0,0 +1,20 @@
+-- Cleanup of duplicate Purchase(s) of the same Item in Visit that block migration 08, run manually after review
+-- of reported rows. Duplicates are merged into the oldest one: quantities are summed, price is average price
+-- weighted by quantity of known prices.
+
+UPDATE purchases SET
+    quantity = duplicates.quantity,
+    price = duplicates.price
+FROM (
+    SELECT
+        MIN(id) AS id,
+        SUM(quantity) AS quantity,
+        SUM(quantity * price) / NULLIF(SUM(CASE WHEN price IS NOT NULL THEN quantity END), 0) AS price
+    FROM purchases
+    GROUP BY visit_id, item_id
+    HAVING COUNT(*) > 1
+) AS duplicates
+WHERE purchases.id = duplicates.id;
+
+DELETE FROM purchases USING purchases AS kept
+WHERE purchases.visit_id = kept.visit_id AND purchases.item_id = kept.item_id AND purchases.id > kept.id;
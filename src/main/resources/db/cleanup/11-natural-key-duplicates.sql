@@ -0,0 +1,27 @@
+-- Cleanup of duplicate natural keys that block migration 11, run manually after review of reported rows.
+-- Duplicate ShoppingListItem(s) are merged into the oldest one, duplicate names (except the oldest) get " #<id>".
+
+UPDATE shopping_list_items SET
+    quantity = duplicates.quantity
+FROM (
+    SELECT
+        MIN(id) AS id,
+        SUM(quantity) AS quantity
+    FROM shopping_list_items
+    GROUP BY shopping_list_id, item_id
+    HAVING COUNT(*) > 1
+) AS duplicates
+WHERE shopping_list_items.id = duplicates.id;
+
+DELETE FROM shopping_list_items USING shopping_list_items AS kept
+WHERE shopping_list_items.shopping_list_id = kept.shopping_list_id AND shopping_list_items.item_id = kept.item_id
+    AND shopping_list_items.id > kept.id;
+
+UPDATE items SET name = LEFT(items.name, 200) || ' #' || items.id FROM items AS kept
+WHERE items.name = kept.name AND items.id > kept.id;
+
+UPDATE shops SET name = LEFT(shops.name, 200) || ' #' || shops.id FROM shops AS kept
+WHERE shops.name = kept.name AND shops.id > kept.id;
+
+UPDATE shopping_lists SET name = LEFT(shopping_lists.name, 200) || ' #' || shopping_lists.id FROM shopping_lists AS kept
+WHERE shopping_lists.name = kept.name AND shopping_lists.id > kept.id;
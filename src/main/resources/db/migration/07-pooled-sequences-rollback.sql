@@ -0,0 +1,11 @@
+ALTER SEQUENCE item_id_seq INCREMENT BY 1;
+
+ALTER SEQUENCE shop_id_seq INCREMENT BY 1;
+
+ALTER SEQUENCE shopping_list_id_seq INCREMENT BY 1;
+
+ALTER SEQUENCE shopping_list_item_id_seq INCREMENT BY 1;
+
+ALTER SEQUENCE visit_id_seq INCREMENT BY 1;
+
+ALTER SEQUENCE purchase_id_seq INCREMENT BY 1;
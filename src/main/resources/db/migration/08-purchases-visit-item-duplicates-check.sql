@@ -0,0 +1,17 @@
+DO $$
+DECLARE
+    conflicts text;
+BEGIN
+    SELECT string_agg(conflict, E'\n') INTO conflicts FROM (
+        SELECT 'purchases (visit_id, item_id) = (' || visit_id || ', ' || item_id
+            || '): id ' || string_agg(id::text, ', ' ORDER BY id) AS conflict
+        FROM purchases
+        GROUP BY visit_id, item_id
+        HAVING COUNT(*) > 1
+    ) AS duplicates;
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'Duplicate purchases (resolve them or run db/cleanup/08-purchases-visit-item-duplicates.sql):%',
+            E'\n' || conflicts;
+    END IF;
+END
+$$;
@@ -0,0 +1 @@
+ALTER TABLE purchases DROP CONSTRAINT purchase_visit_item_uk;
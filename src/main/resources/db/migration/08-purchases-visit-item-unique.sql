@@ -0,0 +1 @@
+ALTER TABLE purchases ADD CONSTRAINT purchase_visit_item_uk UNIQUE (visit_id, item_id);
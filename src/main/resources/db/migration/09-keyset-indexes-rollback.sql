@@ -0,0 +1,3 @@
+DROP INDEX shopping_list_item_shopping_list_id_idx;
+
+DROP INDEX purchase_visit_id_idx;
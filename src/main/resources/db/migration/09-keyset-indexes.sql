@@ -0,0 +1,3 @@
+CREATE INDEX purchase_visit_id_idx ON purchases USING btree (visit_id, id);
+
+CREATE INDEX shopping_list_item_shopping_list_id_idx ON shopping_list_items USING btree (shopping_list_id, id);
@@ -0,0 +1 @@
+DROP INDEX shop_name_idx;
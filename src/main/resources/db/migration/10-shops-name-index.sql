@@ -0,0 +1 @@
+CREATE INDEX shop_name_idx ON shops USING btree (name);
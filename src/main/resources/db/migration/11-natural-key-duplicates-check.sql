@@ -0,0 +1,32 @@
+DO $$
+DECLARE
+    conflicts text;
+BEGIN
+    SELECT string_agg(conflict, E'\n') INTO conflicts FROM (
+        SELECT 'shopping_list_items (shopping_list_id, item_id) = (' || shopping_list_id || ', ' || item_id
+            || '): id ' || string_agg(id::text, ', ' ORDER BY id) AS conflict
+        FROM shopping_list_items
+        GROUP BY shopping_list_id, item_id
+        HAVING COUNT(*) > 1
+        UNION ALL
+        SELECT 'items name = ' || quote_literal(name) || ': id ' || string_agg(id::text, ', ' ORDER BY id)
+        FROM items
+        GROUP BY name
+        HAVING COUNT(*) > 1
+        UNION ALL
+        SELECT 'shops name = ' || quote_literal(name) || ': id ' || string_agg(id::text, ', ' ORDER BY id)
+        FROM shops
+        GROUP BY name
+        HAVING COUNT(*) > 1
+        UNION ALL
+        SELECT 'shopping_lists name = ' || quote_literal(name) || ': id ' || string_agg(id::text, ', ' ORDER BY id)
+        FROM shopping_lists
+        GROUP BY name
+        HAVING COUNT(*) > 1
+    ) AS duplicates;
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'Duplicate natural keys (resolve them or run db/cleanup/11-natural-key-duplicates.sql):%',
+            E'\n' || conflicts;
+    END IF;
+END
+$$;
@@ -0,0 +1,9 @@
+ALTER TABLE shopping_lists DROP CONSTRAINT shopping_list_name_uk;
+
+ALTER TABLE shops DROP CONSTRAINT shop_name_uk;
+
+CREATE INDEX shop_name_idx ON shops USING btree (name);
+
+ALTER TABLE items DROP CONSTRAINT item_name_uk;
+
+ALTER TABLE shopping_list_items DROP CONSTRAINT shopping_list_item_shopping_list_item_uk;
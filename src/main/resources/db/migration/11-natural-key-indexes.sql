@@ -0,0 +1,10 @@
+ALTER TABLE shopping_list_items
+    ADD CONSTRAINT shopping_list_item_shopping_list_item_uk UNIQUE (shopping_list_id, item_id);
+
+ALTER TABLE items ADD CONSTRAINT item_name_uk UNIQUE (name);
+
+DROP INDEX shop_name_idx;
+
+ALTER TABLE shops ADD CONSTRAINT shop_name_uk UNIQUE (name);
+
+ALTER TABLE shopping_lists ADD CONSTRAINT shopping_list_name_uk UNIQUE (name);
@@ -0,0 +1,15 @@
+ALTER TABLE shopping_list_items
+    DROP COLUMN updated,
+    DROP COLUMN version;
+
+ALTER TABLE shopping_lists
+    DROP COLUMN updated,
+    DROP COLUMN version;
+
+ALTER TABLE shops
+    DROP COLUMN updated,
+    DROP COLUMN version;
+
+ALTER TABLE items
+    DROP COLUMN updated,
+    DROP COLUMN version;
@@ -0,0 +1,15 @@
+ALTER TABLE items
+    ADD COLUMN version bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN updated timestamp without time zone DEFAULT now() NOT NULL;
+
+ALTER TABLE shops
+    ADD COLUMN version bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN updated timestamp without time zone DEFAULT now() NOT NULL;
+
+ALTER TABLE shopping_lists
+    ADD COLUMN version bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN updated timestamp without time zone DEFAULT now() NOT NULL;
+
+ALTER TABLE shopping_list_items
+    ADD COLUMN version bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN updated timestamp without time zone DEFAULT now() NOT NULL;
@@ -0,0 +1,7 @@
+DROP INDEX visit_shop_id_started_idx;
+
+DROP INDEX fki_purchase_rollup_item_fk;
+
+DROP INDEX fki_purchase_rollup_shop_fk;
+
+DROP TABLE purchase_rollups;
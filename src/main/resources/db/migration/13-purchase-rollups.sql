@@ -0,0 +1,22 @@
+CREATE TABLE purchase_rollups (
+    day date NOT NULL,
+    shop_id bigint NOT NULL,
+    item_id bigint NOT NULL,
+    quantity bigint DEFAULT 0 NOT NULL,
+    spend numeric(19,2) DEFAULT 0 NOT NULL,
+    CONSTRAINT purchase_rollup_pk PRIMARY KEY (day, shop_id, item_id),
+    CONSTRAINT purchase_rollup_shop_fk FOREIGN KEY (shop_id) REFERENCES shops(id) ON DELETE CASCADE,
+    CONSTRAINT purchase_rollup_item_fk FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
+);
+
+CREATE INDEX fki_purchase_rollup_shop_fk ON purchase_rollups USING btree (shop_id);
+
+CREATE INDEX fki_purchase_rollup_item_fk ON purchase_rollups USING btree (item_id);
+
+CREATE INDEX visit_shop_id_started_idx ON visits USING btree (shop_id, started);
+
+INSERT INTO purchase_rollups (day, shop_id, item_id, quantity, spend)
+SELECT CAST(v.started AS date), v.shop_id, p.item_id, SUM(p.quantity), COALESCE(SUM(p.quantity * p.price), 0)
+FROM purchases p JOIN visits v ON v.id = p.visit_id
+WHERE v.completed IS NOT NULL AND v.started IS NOT NULL
+GROUP BY CAST(v.started AS date), v.shop_id, p.item_id;
@@ -0,0 +1,13 @@
+DROP INDEX fki_price_statistics_shop_fk;
+
+DROP TABLE price_statistics;
+
+DROP INDEX fki_price_observation_visit_fk;
+
+DROP INDEX fki_price_observation_shop_fk;
+
+DROP INDEX price_observation_item_id_shop_id_observed_idx;
+
+DROP TABLE price_observations;
+
+DROP SEQUENCE price_observation_id_seq;
@@ -0,0 +1,55 @@
+CREATE SEQUENCE price_observation_id_seq
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+CREATE TABLE price_observations (
+    id bigint DEFAULT nextval('price_observation_id_seq'::regclass) PRIMARY KEY,
+    item_id bigint NOT NULL,
+    shop_id bigint NOT NULL,
+    visit_id bigint,
+    observed timestamp without time zone NOT NULL,
+    price numeric(10,2) NOT NULL,
+    CONSTRAINT price_observation_item_fk FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+    CONSTRAINT price_observation_shop_fk FOREIGN KEY (shop_id) REFERENCES shops(id) ON DELETE CASCADE,
+    CONSTRAINT price_observation_visit_fk FOREIGN KEY (visit_id) REFERENCES visits(id) ON DELETE SET NULL
+);
+
+CREATE INDEX price_observation_item_id_shop_id_observed_idx ON price_observations
+    USING btree (item_id, shop_id, observed);
+
+CREATE INDEX fki_price_observation_shop_fk ON price_observations USING btree (shop_id);
+
+CREATE INDEX fki_price_observation_visit_fk ON price_observations USING btree (visit_id);
+
+CREATE TABLE price_statistics (
+    item_id bigint NOT NULL,
+    shop_id bigint NOT NULL,
+    day date NOT NULL,
+    count bigint NOT NULL,
+    min_price numeric(10,2) NOT NULL,
+    max_price numeric(10,2) NOT NULL,
+    price_sum numeric(19,2) NOT NULL,
+    last_price numeric(10,2) NOT NULL,
+    last_observed timestamp without time zone NOT NULL,
+    CONSTRAINT price_statistics_pk PRIMARY KEY (item_id, shop_id, day),
+    CONSTRAINT price_statistics_item_fk FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+    CONSTRAINT price_statistics_shop_fk FOREIGN KEY (shop_id) REFERENCES shops(id) ON DELETE CASCADE
+);
+
+CREATE INDEX fki_price_statistics_shop_fk ON price_statistics USING btree (shop_id);
+
+INSERT INTO price_observations (item_id, shop_id, visit_id, observed, price)
+SELECT p.item_id, v.shop_id, v.id, COALESCE(v.started, v.completed, now()), p.price
+FROM purchases p JOIN visits v ON v.id = p.visit_id
+WHERE p.price IS NOT NULL
+ORDER BY p.id;
+
+INSERT INTO price_statistics (item_id, shop_id, day, count, min_price, max_price, price_sum, last_price, last_observed)
+SELECT DISTINCT ON (o.item_id, o.shop_id, CAST(o.observed AS date)) o.item_id, o.shop_id, CAST(o.observed AS date),
+    COUNT(*) OVER w, MIN(o.price) OVER w, MAX(o.price) OVER w, SUM(o.price) OVER w, o.price, o.observed
+FROM price_observations o
+WINDOW w AS (PARTITION BY o.item_id, o.shop_id, CAST(o.observed AS date))
+ORDER BY o.item_id, o.shop_id, CAST(o.observed AS date), o.observed DESC, o.id DESC;
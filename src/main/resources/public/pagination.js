@@ -1,5 +1,7 @@
 var listUrl = "";
 var listContainer = "";
+// Tokens of visited pages, token of page N is pageTokens[N - 1]
+var pageTokens = [""];
 
 function initializePagination(_listUrl, _listContainer) {
     listUrl = _listUrl;
@@ -8,14 +10,12 @@ function initializePagination(_listUrl, _listContainer) {
 }
 
 function gotoDefaultPage() {
-    $.get(listUrl, {}, function(result) {
-        $(listContainer).html(result);
-        updatePaginationControls();
-    });
+    pageTokens = [""];
+    gotoPage(1);
 }
 
-function getTotalPages() {
-    return parseInt($("#total-pages").val(), 10);
+function getNextPageToken() {
+    return $("#next-page-token").val();
 }
 
 function getCurrentPage() {
@@ -23,13 +23,12 @@ function getCurrentPage() {
 }
 
 function updatePaginationControls() {
-    var currentPage = getCurrentPage();
-    if (currentPage > 1) {
+    if (getCurrentPage() > 1) {
         $("#previous-page").removeClass("disabled");
     } else {
         $("#previous-page").addClass("disabled");
     }
-    if (currentPage < getTotalPages()) {
+    if (getNextPageToken()) {
         $("#next-page").removeClass("disabled");
     } else {
         $("#next-page").addClass("disabled");
@@ -41,15 +40,85 @@ function gotoPreviousPage() {
 }
 
 function gotoNextPage() {
-    gotoPage(getCurrentPage() + 1);
+    var nextPageToken = getNextPageToken();
+    if (!nextPageToken) {
+        return;
+    }
+    var currentPage = getCurrentPage();
+    pageTokens = pageTokens.slice(0, currentPage);
+    pageTokens.push(nextPageToken);
+    gotoPage(currentPage + 1);
 }
 
 function gotoPage(page) {
-    if (page < 1 || page > getTotalPages()) {
+    if (page < 1 || page > pageTokens.length) {
         return;
     }
-    $.get(listUrl + "?page=" + page, {}, function(result) {
-        $(listContainer).html(result);
+    loadPage(page, getKnownRows());
+}
+
+function loadPage(page, known) {
+    var params = {page: page, after: pageTokens[page - 1]};
+    if (known !== null) {
+        params.known = known;
+    }
+    $.get(listUrl, params, function(result) {
+        if (!patchList(result)) {
+            // Shown rows were changed while patch was loading
+            loadPage(page, null);
+            return;
+        }
         updatePaginationControls();
     });
 }
+
+// Versions of shown rows as "id:version,...", server renders only rows that are new or changed
+function getKnownRows() {
+    var body = $(listContainer).find("tbody");
+    if (body.length === 0) {
+        return null;
+    }
+    return body.children("tr[data-version]").map(function() {
+        return $(this).attr("data-id") + ":" + $(this).attr("data-version");
+    }).get().join(",");
+}
+
+// Replaces list or patches its rows in place, returns false if patch doesn't match shown rows
+function patchList(result) {
+    var list = $("<div/>").html(result);
+    var ids = list.find("tbody").attr("data-ids");
+    var body = $(listContainer).find("tbody");
+    if (ids === undefined || body.length === 0) {
+        $(listContainer).html(result);
+        return true;
+    }
+    var rows = {};
+    body.children("tr[data-id]").each(function() {
+        rows[$(this).attr("data-id")] = this;
+    });
+    list.find("tbody").children("tr[data-id]").each(function() {
+        rows[$(this).attr("data-id")] = this;
+    });
+    var patchedRows = [];
+    var patched = (ids ? ids.split(",") : []).every(function(id) {
+        patchedRows.push(rows[id]);
+        return rows[id] !== undefined;
+    });
+    if (!patched) {
+        return false;
+    }
+    $(listContainer).find("thead").replaceWith(list.find("thead"));
+    body.attr("data-offset", list.find("tbody").attr("data-offset"));
+    body.children().detach();
+    body.empty().append(patchedRows);
+    numberRows();
+    return true;
+}
+
+function numberRows() {
+    var body = $(listContainer).find("tbody");
+    var offset = parseInt(body.attr("data-offset"), 10);
+    body.children("tr").each(function(index) {
+        $(this).find("td:first span").text(offset + index);
+    });
+}
@@ -2,22 +2,37 @@ $(function() {
     $(".nav-item").find(".active").removeClass("active");
     $(".nav-item").find("#purchase").parent().addClass("active");
 
-    $.get("/purchase/" + getVisitId() + "/item_selector", {}, function(result) {
-        $("#item-selector-container").html(result);
+    loadItemSelector();
+    $("#item-name").on("input", function() {
+        // Selector is reloaded when user stops typing
+        clearTimeout(itemNameTimeout);
+        itemNameTimeout = setTimeout(loadItemSelector, 300);
     });
 
     initializePagination("/purchase/" + getVisitId() + "/list", "#purchase-list-container");
+
+    subscribeToPurchaseEvents();
 });
 
+var itemNameTimeout;
+
+function loadItemSelector() {
+    $.get("/purchase/" + getVisitId() + "/item_selector", {name: $("#item-name").val()}, function(result) {
+        $("#item-selector-container").html(result);
+    });
+}
+
 function getVisitId() {
     return parseInt($("#visit-id").val(), 10);
 }
 
+function getPageSize() {
+    return parseInt($("#page-size").val(), 10);
+}
+
 function buyItem(itemId) {
     $.post("/api/v1/purchase/" + getVisitId() + "/buy/" + itemId + "?quantity=1")
-        .done(function() {
-            window.location = "/purchase/" + getVisitId();
-        })
+        .done(onPurchaseChanged)
         .fail(function() {
             alert("Error buy Item!");
         });
@@ -25,10 +40,94 @@ function buyItem(itemId) {
 
 function returnItem(itemId) {
     $.post("/api/v1/purchase/" + getVisitId() + "/return/" + itemId + "?quantity=1")
-        .done(function() {
-            window.location = "/purchase/" + getVisitId();
-        })
+        .done(onPurchaseChanged)
         .fail(function() {
             alert("Error return Item!");
         });
 }
+
+function onPurchaseChanged() {
+    // Page is patched by Purchase events, reload it only if browser doesn't support them
+    if (!window.EventSource) {
+        window.location = "/purchase/" + getVisitId();
+    }
+}
+
+function subscribeToPurchaseEvents() {
+    if (!window.EventSource) {
+        return;
+    }
+    var connected = false;
+    var source = new EventSource("/api/v1/purchase/" + getVisitId() + "/events");
+    source.onopen = function() {
+        // Events could be missed while reconnecting
+        if (connected) {
+            reloadPage();
+        }
+        connected = true;
+    };
+    source.addEventListener("purchase", function(event) {
+        applyPurchaseEvent(JSON.parse(event.data));
+    });
+}
+
+function reloadPage() {
+    gotoPage(getCurrentPage());
+    loadItemSelector();
+}
+
+function applyPurchaseEvent(purchase) {
+    var rows = $("#purchase-list-container tbody tr");
+    var row = rows.filter("[data-item-id=" + purchase.itemId + "]");
+    if (purchase.type === "DELETED") {
+        // Returned Item could be anywhere in the first page of selector
+        loadItemSelector();
+        if (row.length === 0) {
+            return;
+        }
+        if (getNextPageToken()) {
+            // The first Purchase of the next page moves to this page
+            gotoPage(getCurrentPage());
+            return;
+        }
+        row.remove();
+        numberRows();
+        return;
+    }
+    removeSelectorItem(purchase.itemId);
+    if (row.length > 0) {
+        row.find(".purchase-quantity").text(purchase.quantity);
+        row.find(".purchase-price").text(formatPrice(purchase.price));
+    } else if (!getNextPageToken() && rows.length < getPageSize()) {
+        // New Purchase is the last one
+        $("#purchase-list-container tbody").append(createPurchaseRow(purchase));
+        numberRows();
+    } else if (!getNextPageToken()) {
+        // New Purchase starts the next page
+        gotoPage(getCurrentPage());
+    }
+}
+
+function createPurchaseRow(purchase) {
+    return $("<tr/>").attr("data-id", purchase.id).attr("data-item-id", purchase.itemId)
+        .append($("<td/>").append($("<span/>")))
+        .append($("<td/>").text(purchase.itemName))
+        .append($("<td class='purchase-quantity'/>").text(purchase.quantity))
+        .append($("<td class='purchase-price'/>").text(formatPrice(purchase.price)))
+        .append($("<td/>")
+            .append($("<i class='far fa-plus-square'/>").click(function() {
+                buyItem(purchase.itemId);
+            }))
+            .append("&nbsp;")
+            .append($("<i class='far fa-minus-square'/>").click(function() {
+                returnItem(purchase.itemId);
+            })));
+}
+
+function formatPrice(price) {
+    return price === null ? "" : price.toFixed(2);
+}
+
+function removeSelectorItem(itemId) {
+    $("#item-selector-container .dropdown-item[data-item-id=" + itemId + "]").remove();
+}
@@ -10,13 +10,41 @@ function getShoppingListId() {
     return parseInt($("#shopping-list-id").val(), 10);
 }
 
+var itemNameTimeout;
+
 function showCreateShoppingListItemForm() {
     $.get("/shopping_list_item/form?shoppingList=" + getShoppingListId(), {}, function(result) {
         $("#shopping-list-item-form-container").html(result);
+        $("#item-name").on("input", function() {
+            // Item(s) are reloaded when user stops typing
+            clearTimeout(itemNameTimeout);
+            itemNameTimeout = setTimeout(function() { loadItems(0); }, 300);
+        });
         $("#shopping-list-item-form").modal();
     });
 }
 
+function loadMoreItems() {
+    loadItems(parseInt($("#shopping-list-item-properties #item option:last").val(), 10));
+}
+
+// Loads Items not added to Shopping List which name starts with typed name after Item with given Id.
+// The first page (after 0) replaces Items of selector, next pages are appended.
+function loadItems(after) {
+    var pageSize = parseInt($("#more-items").data("page-size"), 10);
+    $.get("/api/v1/shopping_list_item/" + getShoppingListId() + "/not_added_items",
+        {name: $("#item-name").val(), after: after, size: pageSize}, function(items) {
+            var selector = $("#shopping-list-item-properties #item");
+            if (after === 0) {
+                selector.empty();
+            }
+            $.each(items, function(index, item) {
+                selector.append($("<option/>").val(item.id).text(item.name));
+            });
+            $("#more-items").toggleClass("d-none", items.length < pageSize);
+        });
+}
+
 function showUpdateShoppingListItemForm(id) {
     $.get("/shopping_list_item/" + id + "/form", {}, function(result) {
         $("#shopping-list-item-form-container").html(result);
@@ -0,0 +1,63 @@
+/*
+ * ServerConfigurationTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.configuration;
+
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.Test;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Server configuration test.
+ */
+public class ServerConfigurationTest {
+
+    @Test
+    public void testPoolMode() {
+
+        final JettyServletWebServerFactory factory = new JettyServletWebServerFactory();
+
+        new ServerConfiguration().jettyThreadPoolCustomizer(new ServerExecutionProperties(), 10).customize(factory);
+
+        // Default thread pool of Jetty is used
+        assertNull(factory.getThreadPool());
+    }
+
+    @Test
+    public void testJdbcBoundedMode() {
+
+        final ServerExecutionProperties properties = new ServerExecutionProperties();
+        properties.setMode(ServerExecutionProperties.Mode.JDBC_BOUNDED);
+        properties.setExtraThreads(6);
+        properties.setQueueCapacity(100);
+        final JettyServletWebServerFactory factory = new JettyServletWebServerFactory();
+
+        new ServerConfiguration().jettyThreadPoolCustomizer(properties, 10).customize(factory);
+
+        assertTrue(factory.getThreadPool() instanceof QueuedThreadPool);
+        final QueuedThreadPool threadPool = (QueuedThreadPool) factory.getThreadPool();
+        assertEquals(16, threadPool.getMaxThreads());
+        assertEquals(8, threadPool.getMinThreads());
+    }
+}
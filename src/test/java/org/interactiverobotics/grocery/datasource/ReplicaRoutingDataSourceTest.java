@@ -0,0 +1,297 @@
+/*
+ * ReplicaRoutingDataSourceTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replica routing data source test.
+ * Tests routing of transactions to mocked primary and replicas.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final String ROUTED_PREFIX = "org.interactiverobotics.grocery.service.";
+
+    private static final long MAX_LAG = 1000L;
+
+    private MeterRegistry meterRegistry;
+
+    private Connection primaryConnection;
+
+    private DataSource primary;
+
+    private Connection replicaConnection1;
+
+    private Connection replicaConnection2;
+
+    private Map<String, DataSource> replicas;
+
+
+    @Before
+    public void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        primaryConnection = mock(Connection.class);
+        primary = createDataSource(primaryConnection);
+        replicaConnection1 = mock(Connection.class);
+        replicaConnection2 = mock(Connection.class);
+        replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", createDataSource(replicaConnection1));
+        replicas.put("replica-2", createDataSource(replicaConnection2));
+    }
+
+    private static DataSource createDataSource(final Connection connection) throws SQLException {
+        final DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionName(null);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        StickyPrimary.end();
+    }
+
+
+    @Test
+    public void testRouteReadOnlyTransaction() throws Exception {
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource(lag(100L), lag(0L));
+        startTransaction("ItemService.getItems", true);
+
+        assertSame(replicaConnection1, getTargetConnection(dataSource));
+        assertSame(replicaConnection2, getTargetConnection(dataSource));
+        assertSame(replicaConnection1, getTargetConnection(dataSource));
+
+        assertEquals(2.0, getRouteCount("replica-1", true), 0.0);
+        assertEquals(1.0, getRouteCount("replica-2", true), 0.0);
+        assertEquals(100.0, getLag("replica-1"), 0.0);
+        assertEquals(0.0, getLag("replica-2"), 0.0);
+    }
+
+    @Test
+    public void testRouteWriteTransaction() throws Exception {
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource(lag(0L), lag(0L));
+        startTransaction("PurchaseService.buyItem", false);
+
+        assertSame(primaryConnection, getTargetConnection(dataSource));
+
+        assertEquals(1.0, getRouteCount(ReplicaRoutingDataSource.PRIMARY, false), 0.0);
+        assertEquals(0.0, getRouteCount("replica-1", true), 0.0);
+    }
+
+    @Test
+    public void testRouteWithoutTransaction() throws Exception {
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource(lag(0L), lag(0L));
+
+        assertSame(primaryConnection, getTargetConnection(dataSource));
+
+        assertEquals(1.0, getRouteCount(ReplicaRoutingDataSource.PRIMARY, false), 0.0);
+    }
+
+    @Test
+    public void testRouteReadOnlyTransactionOfRepository() throws Exception {
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource(lag(0L), lag(0L));
+        TransactionSynchronizationManager.setCurrentTransactionName(
+                "org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, getTargetConnection(dataSource));
+
+        assertEquals(1.0, getRouteCount(ReplicaRoutingDataSource.PRIMARY, false), 0.0);
+    }
+
+    @Test
+    public void testFallbackToPrimary() throws Exception {
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource(lag(MAX_LAG + 1L), null);
+        startTransaction("ItemService.getItems", true);
+
+        assertTrue(dataSource.getAvailableReplicas().isEmpty());
+        assertSame(primaryConnection, getTargetConnection(dataSource));
+
+        assertEquals(1.0, getRouteCount(ReplicaRoutingDataSource.PRIMARY, true), 0.0);
+        assertEquals(MAX_LAG + 1.0, getLag("replica-1"), 0.0);
+        assertEquals(-1.0, getLag("replica-2"), 0.0);
+    }
+
+    @Test
+    public void testReplicaAvailableAgain() throws Exception {
+
+        final Statement statement = mock(Statement.class);
+        final ResultSet lagging = lag(MAX_LAG + 1L);
+        final ResultSet replayed = lag(0L);
+        when(replicaConnection1.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(lagging, replayed);
+        replicas.remove("replica-2");
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource();
+        dataSource.checkReplicas();
+        assertTrue(dataSource.getAvailableReplicas().isEmpty());
+
+        dataSource.checkReplicas();
+        assertEquals(Collections.singletonList("replica-1"), dataSource.getAvailableReplicas());
+    }
+
+    @Test
+    public void testReplicaNotReplayed() throws Exception {
+
+        final ResultSet resultSet = lag(0L);
+        when(resultSet.wasNull()).thenReturn(true);
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource(resultSet, resultSet);
+
+        assertTrue(dataSource.getAvailableReplicas().isEmpty());
+        assertEquals(-1.0, getLag("replica-1"), 0.0);
+    }
+
+    @Test
+    public void testStickyPrimaryAfterWrite() throws Exception {
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource(lag(0L), lag(0L));
+        final AtomicInteger writes = new AtomicInteger();
+        StickyPrimary.start(false, writes::incrementAndGet);
+
+        startTransaction("ItemService.getItems", true);
+        assertSame(replicaConnection1, getTargetConnection(dataSource));
+        assertFalse(StickyPrimary.isOn());
+
+        startTransaction("PurchaseService.buyItem", false);
+        assertSame(primaryConnection, getTargetConnection(dataSource));
+        assertSame(primaryConnection, getTargetConnection(dataSource));
+        assertTrue(StickyPrimary.isOn());
+        assertEquals(1, writes.get());
+
+        startTransaction("ItemService.getItems", true);
+        assertSame(primaryConnection, getTargetConnection(dataSource));
+
+        assertEquals(1.0, getRouteCount("replica-1", true), 0.0);
+        assertEquals(1.0, getRouteCount(ReplicaRoutingDataSource.PRIMARY, true), 0.0);
+        assertEquals(1.0, meterRegistry.get(ReplicaRoutingDataSource.STICKY_METRIC).counter().count(), 0.0);
+    }
+
+    @Test
+    public void testStickyPrimaryOfClient() throws Exception {
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource(lag(0L), lag(0L));
+        StickyPrimary.start(true, () -> { });
+        startTransaction("ItemService.getItems", true);
+
+        assertSame(primaryConnection, getTargetConnection(dataSource));
+
+        assertEquals(1.0, getRouteCount(ReplicaRoutingDataSource.PRIMARY, true), 0.0);
+        assertEquals(0.0, getRouteCount("replica-1", true), 0.0);
+    }
+
+    @Test
+    public void testStickyPrimaryNotStarted() throws Exception {
+
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource(lag(0L), lag(0L));
+
+        startTransaction("PurchaseService.buyItem", false);
+        assertSame(primaryConnection, getTargetConnection(dataSource));
+
+        startTransaction("ItemService.getItems", true);
+        assertSame(replicaConnection1, getTargetConnection(dataSource));
+        assertFalse(StickyPrimary.isOn());
+    }
+
+
+    /**
+     * Creates routing data source and checks replicas with given lag result sets, null means failed check.
+     */
+    private ReplicaRoutingDataSource createRoutingDataSource(final ResultSet lag1, final ResultSet lag2)
+            throws SQLException {
+        mockLag(replicaConnection1, lag1);
+        mockLag(replicaConnection2, lag2);
+        final ReplicaRoutingDataSource dataSource = createRoutingDataSource();
+        dataSource.checkReplicas();
+        return dataSource;
+    }
+
+    private ReplicaRoutingDataSource createRoutingDataSource() {
+        return new ReplicaRoutingDataSource(primary, replicas, MAX_LAG, ROUTED_PREFIX, meterRegistry);
+    }
+
+    private static void mockLag(final Connection connection, final ResultSet lag) throws SQLException {
+        if (lag == null) {
+            when(connection.createStatement()).thenThrow(new SQLException("Connection refused"));
+            return;
+        }
+        final Statement statement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(lag);
+    }
+
+    private static ResultSet lag(final long lag) throws SQLException {
+        final ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(lag);
+        return resultSet;
+    }
+
+    private static void startTransaction(final String method, final boolean readOnly) {
+        TransactionSynchronizationManager.setCurrentTransactionName(ROUTED_PREFIX + method);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private static Connection getTargetConnection(final DataSource dataSource) throws SQLException {
+        return ((ConnectionProxy) dataSource.getConnection()).getTargetConnection();
+    }
+
+    private double getRouteCount(final String route, final boolean routed) {
+        return meterRegistry.get(ReplicaRoutingDataSource.ROUTE_METRIC)
+                .tags("route", route, "routed", String.valueOf(routed)).counter().count();
+    }
+
+    private double getLag(final String replica) {
+        return meterRegistry.get(ReplicaRoutingDataSource.LAG_METRIC).tag("replica", replica).gauge().value();
+    }
+}
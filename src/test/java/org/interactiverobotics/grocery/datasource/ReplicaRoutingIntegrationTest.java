@@ -0,0 +1,177 @@
+/*
+ * ReplicaRoutingIntegrationTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.form.ItemForm;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.interactiverobotics.grocery.service.ItemService;
+import org.interactiverobotics.grocery.service.PurchaseService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replica routing integration test.
+ * Requires database access. Replica is primary itself unless GROCERY_REPLICA_URL points to streaming replica.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "grocery.datasource.replicas[0].url=${GROCERY_REPLICA_URL:jdbc:postgresql://localhost/grocery}",
+        "grocery.datasource.lag-check-interval=100"})
+public class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private ReplicaRoutingDataSource dataSource;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+
+    @Before
+    public void setUp() throws Exception {
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (dataSource.getAvailableReplicas().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100L);
+        }
+        assertFalse(dataSource.getAvailableReplicas().isEmpty());
+    }
+
+
+    @Test
+    public void testRouting() {
+
+        final double replicaCount = getRouteCount("replica-1", true);
+        itemService.getItems(PageRequest.of(0, 10));
+        assertEquals(replicaCount + 1.0, getRouteCount("replica-1", true), 0.0);
+
+        final double primaryCount = getRouteCount(ReplicaRoutingDataSource.PRIMARY, false);
+        final Item item = itemService.createItem(new ItemForm("test"));
+        assertEquals(primaryCount + 1.0, getRouteCount(ReplicaRoutingDataSource.PRIMARY, false), 0.0);
+
+        itemRepository.delete(item);
+    }
+
+    @Test
+    public void testRoutingOfNotPurchasedItems() {
+
+        final Shop shop = shopRepository.save(new Shop("test-shop"));
+        final Visit visit = visitRepository.save(new Visit(shop));
+
+        final double replicaCount = getRouteCount("replica-1", true);
+        purchaseService.getNotPurchasedItems(visit.getId());
+        purchaseService.getNotPurchasedItems(PageRequest.of(0, 10), visit.getId(), "");
+        assertEquals(replicaCount + 2.0, getRouteCount("replica-1", true), 0.0);
+
+        visitRepository.delete(visit);
+        shopRepository.delete(shop);
+    }
+
+    @Test
+    public void testPrepareTransaction() {
+
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+
+        assertEquals("on serializable", transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SHOW transaction_read_only", String.class) + " "
+                        + jdbcTemplate.queryForObject("SHOW transaction_isolation", String.class)));
+    }
+
+    @Test
+    public void testStickyPrimary() {
+
+        final ResponseEntity<Item> response = restTemplate.postForEntity("/api/v1/item/",
+                new ItemForm("test"), Item.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        final String cookie = response.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        assertNotNull(cookie);
+        assertTrue(cookie.startsWith(StickyPrimaryFilter.STICKY_PRIMARY_COOKIE + "="));
+
+        final double stickyCount = meterRegistry.get(ReplicaRoutingDataSource.STICKY_METRIC).counter().count();
+        final double replicaCount = getRouteCount("replica-1", true);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, cookie.substring(0, cookie.indexOf(';')));
+        restTemplate.exchange("/api/v1/item/list", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertTrue(meterRegistry.get(ReplicaRoutingDataSource.STICKY_METRIC).counter().count() > stickyCount);
+        assertEquals(replicaCount, getRouteCount("replica-1", true), 0.0);
+
+        restTemplate.getForEntity("/api/v1/item/list", String.class);
+        assertTrue(getRouteCount("replica-1", true) > replicaCount);
+
+        itemRepository.deleteById(response.getBody().getId());
+    }
+
+
+    private double getRouteCount(final String route, final boolean routed) {
+        return meterRegistry.get(ReplicaRoutingDataSource.ROUTE_METRIC)
+                .tags("route", route, "routed", String.valueOf(routed)).counter().count();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * StickyPrimaryFilterTest.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.datasource;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sticky primary filter test.
+ * Tests sticky primary of requests with and without write and cookie of client.
+ */
+public class StickyPrimaryFilterTest {
+
+    private static final long WINDOW = 5000L;
+
+
+    @Test
+    public void testWrite() throws Exception {
+
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/item/");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final long start = System.currentTimeMillis();
+
+        final boolean on = perform(new StickyPrimaryFilter(WINDOW), request, response, true);
+
+        assertTrue(on);
+        assertFalse(StickyPrimary.isOn());
+        final Cookie cookie = response.getCookie(StickyPrimaryFilter.STICKY_PRIMARY_COOKIE);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) >= start + WINDOW);
+        assertTrue(Long.parseLong(cookie.getValue()) <= System.currentTimeMillis() + WINDOW);
+        assertEquals(5, cookie.getMaxAge());
+        assertEquals("/", cookie.getPath());
+        assertTrue(cookie.isHttpOnly());
+    }
+
+    @Test
+    public void testReadWithinWindow() throws Exception {
+
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/item/");
+        request.setCookies(new Cookie(StickyPrimaryFilter.STICKY_PRIMARY_COOKIE,
+                String.valueOf(System.currentTimeMillis() + WINDOW)));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(perform(new StickyPrimaryFilter(WINDOW), request, response, false));
+        assertNull(response.getCookie(StickyPrimaryFilter.STICKY_PRIMARY_COOKIE));
+    }
+
+    @Test
+    public void testReadAfterWindow() throws Exception {
+
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/item/");
+        request.setCookies(new Cookie(StickyPrimaryFilter.STICKY_PRIMARY_COOKIE,
+                String.valueOf(System.currentTimeMillis() - 1L)));
+
+        assertFalse(perform(new StickyPrimaryFilter(WINDOW), request, new MockHttpServletResponse(), false));
+    }
+
+    @Test
+    public void testWrongCookie() throws Exception {
+
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/item/");
+        request.setCookies(new Cookie(StickyPrimaryFilter.STICKY_PRIMARY_COOKIE, "wrong"));
+
+        assertFalse(perform(new StickyPrimaryFilter(WINDOW), request, new MockHttpServletResponse(), false));
+    }
+
+    @Test
+    public void testWindowOff() throws Exception {
+
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/item/");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(perform(new StickyPrimaryFilter(0L), request, response, true));
+        assertNull(response.getCookie(StickyPrimaryFilter.STICKY_PRIMARY_COOKIE));
+    }
+
+
+    /**
+     * Performs request that writes if required and returns sticky primary at the end of request.
+     */
+    private static boolean perform(final StickyPrimaryFilter filter, final MockHttpServletRequest request,
+                                   final MockHttpServletResponse response, final boolean write) throws Exception {
+        final AtomicBoolean on = new AtomicBoolean();
+        filter.doFilter(request, response, (servletRequest, servletResponse) -> {
+            if (write) {
+                StickyPrimary.written();
+            }
+            on.set(StickyPrimary.isOn());
+        });
+        return on.get();
+    }
+}
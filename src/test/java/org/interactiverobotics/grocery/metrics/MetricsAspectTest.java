@@ -0,0 +1,103 @@
+/*
+ * MetricsAspectTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.exception.ItemNotFoundException;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.service.ItemService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Metrics aspect test.
+ * Tests aspect with proxied Service and mocked Repository.
+ */
+@RunWith(SpringRunner.class)
+public class MetricsAspectTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private ItemService itemService;
+
+
+    @Before
+    public void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        final AspectJProxyFactory proxyFactory =
+                new AspectJProxyFactory(new ItemService(itemRepository, new CountCache(1000L, 1000L)));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new MetricsAspect(meterRegistry));
+        itemService = proxyFactory.getProxy();
+    }
+
+
+    @Test
+    public void testTimeService() {
+
+        final Item existingItem = new Item(1L, "test-item");
+        when(itemRepository.findById(existingItem.getId())).thenReturn(Optional.of(existingItem));
+
+        itemService.getItemById(existingItem.getId());
+        itemService.getItemById(existingItem.getId());
+
+        final Timer timer = meterRegistry.find(MetricsAspect.SERVICE_METRIC)
+                .tags("class", "ItemService", "method", "getItemById", "exception", "none").timer();
+        assertNotNull(timer);
+        assertEquals(2L, timer.count());
+    }
+
+    @Test
+    public void testTimeServiceException() {
+
+        when(itemRepository.findById(any())).thenReturn(Optional.empty());
+
+        try {
+            itemService.getItemById(1L);
+            fail();
+        } catch (ItemNotFoundException e) {
+            final Timer timer = meterRegistry.find(MetricsAspect.SERVICE_METRIC)
+                    .tags("class", "ItemService", "method", "getItemById", "exception", "ItemNotFoundException")
+                    .timer();
+            assertNotNull(timer);
+            assertEquals(1L, timer.count());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * QueryCountFilterTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.ServletResponse;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Query count filter test.
+ * Tests filter with filter chain that executes SQL statements through data source wrapped by QueryCounter.
+ */
+public class QueryCountFilterTest {
+
+    private static final String ENDPOINT_PATTERN = "/api/v1/test/{id}";
+
+    private QueryCountProperties properties;
+
+    private MeterRegistry meterRegistry;
+
+    private QueryCountFilter queryCountFilter;
+
+    private DataSource dataSource;
+
+    private ServletResponse servletResponse;
+
+    @Before
+    public void setUp() throws Exception {
+        properties = new QueryCountProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        queryCountFilter = new QueryCountFilter(properties, meterRegistry);
+
+        final Connection connection = mock(Connection.class);
+        final PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.createStatement()).thenReturn(statement);
+        final DataSource targetDataSource = mock(DataSource.class);
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        dataSource = QueryCounter.wrap(new DelegatingDataSource(targetDataSource));
+    }
+
+
+    @Test
+    public void testQueryCount() throws Exception {
+
+        properties.setHeader(true);
+
+        final MockHttpServletResponse response = perform(3);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("3", response.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertEquals("test", response.getContentAsString());
+
+        final DistributionSummary summary = meterRegistry.find(QueryCountFilter.QUERY_COUNT_METRIC)
+                .tags("method", "GET", "uri", ENDPOINT_PATTERN).summary();
+        assertNotNull(summary);
+        assertEquals(3.0, summary.totalAmount(), 0.0);
+    }
+
+    @Test
+    public void testQueryCountWithoutHeader() throws Exception {
+
+        properties.getBudget().put("GET " + ENDPOINT_PATTERN, 2L);
+
+        final MockHttpServletResponse response = perform(3);
+
+        // Response is not buffered
+        assertSame(response, servletResponse);
+        assertNull(response.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertEquals("test", response.getContentAsString());
+
+        final DistributionSummary summary = meterRegistry.find(QueryCountFilter.QUERY_COUNT_METRIC)
+                .tags("method", "GET", "uri", ENDPOINT_PATTERN).summary();
+        assertNotNull(summary);
+        assertEquals(3.0, summary.totalAmount(), 0.0);
+    }
+
+    @Test
+    public void testQueryCountOfBatchAndStatement() throws Exception {
+
+        properties.setHeader(true);
+
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/test/1");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        queryCountFilter.doFilter(request, response, (chainRequest, chainResponse) -> {
+            try (Connection connection = dataSource.getConnection()) {
+                final PreparedStatement statement = connection.prepareStatement("INSERT");
+                statement.addBatch();
+                statement.addBatch();
+                statement.executeBatch();
+                final Statement otherStatement = connection.createStatement();
+                otherStatement.execute("SELECT 1");
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals("2", response.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+    }
+
+    @Test
+    public void testQueryCountWithinBudget() throws Exception {
+
+        properties.getBudget().put("GET " + ENDPOINT_PATTERN, 3L);
+        properties.setFailOnBudgetExceeded(true);
+
+        final MockHttpServletResponse response = perform(3);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("test", response.getContentAsString());
+    }
+
+    @Test
+    public void testQueryCountBudgetExceeded() throws Exception {
+
+        properties.getBudget().put("GET " + ENDPOINT_PATTERN, 2L);
+        properties.setHeader(true);
+
+        final MockHttpServletResponse response = perform(3);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("3", response.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertEquals("test", response.getContentAsString());
+    }
+
+    @Test
+    public void testQueryCountBudgetExceededAndFail() throws Exception {
+
+        properties.getBudget().put("GET " + ENDPOINT_PATTERN, 2L);
+        properties.setFailOnBudgetExceeded(true);
+
+        final MockHttpServletResponse response = perform(3);
+
+        assertEquals(500, response.getStatus());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    public void testQueryCountStreaming() throws Exception {
+
+        properties.getBudget().put("GET " + ENDPOINT_PATTERN, 2L);
+        properties.setFailOnBudgetExceeded(true);
+        properties.setHeader(true);
+        properties.getStreaming().add("/api/v1/test/*");
+
+        final MockHttpServletResponse response = perform(3);
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertEquals("test", response.getContentAsString());
+
+        final DistributionSummary summary = meterRegistry.find(QueryCountFilter.QUERY_COUNT_METRIC)
+                .tags("method", "GET", "uri", ENDPOINT_PATTERN).summary();
+        assertNotNull(summary);
+        assertEquals(3.0, summary.totalAmount(), 0.0);
+    }
+
+
+    private MockHttpServletResponse perform(final int queries) throws Exception {
+
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/test/1");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        queryCountFilter.doFilter(request, response, (chainRequest, chainResponse) -> {
+            chainRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, ENDPOINT_PATTERN);
+            servletResponse = chainResponse;
+            try (Connection connection = dataSource.getConnection()) {
+                for (int i = 0; i < queries; i ++) {
+                    connection.prepareStatement("SELECT 1").executeQuery();
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            chainResponse.getWriter().write("test");
+        });
+        return response;
+    }
+}
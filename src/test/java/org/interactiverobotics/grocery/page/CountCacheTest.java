@@ -0,0 +1,89 @@
+/*
+ * CountCacheTest.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.interactiverobotics.grocery.page;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Count cache test.
+ */
+public class CountCacheTest {
+
+    private final AtomicLong counts = new AtomicLong();
+
+    private final LongSupplier counter = counts::incrementAndGet;
+
+
+    @Test
+    public void testGet() {
+
+        final CountCache countCache = new CountCache(1000L, 1000L);
+
+        assertEquals(1L, countCache.get(CountCache.ITEMS, counter));
+        assertEquals(1L, countCache.get(CountCache.ITEMS, counter));
+        assertEquals(2L, countCache.get(CountCache.key(CountCache.PURCHASES, 1L), counter));
+        assertEquals(2L, countCache.get(CountCache.key(CountCache.PURCHASES, 1L), counter));
+    }
+
+    @Test
+    public void testExpired() {
+
+        final CountCache countCache = new CountCache(0L, 1000L);
+
+        assertEquals(1L, countCache.get(CountCache.ITEMS, counter));
+        assertEquals(2L, countCache.get(CountCache.ITEMS, counter));
+    }
+
+    @Test
+    public void testInvalidateOwner() {
+
+        final CountCache countCache = new CountCache(1000L, 1000L);
+        countCache.get(CountCache.key(CountCache.PURCHASES, 1L), counter);
+        countCache.get(CountCache.key(CountCache.PURCHASES, 2L), counter);
+        countCache.get(CountCache.VISITS, counter);
+
+        countCache.invalidate(CountCache.key(CountCache.PURCHASES, 1L));
+
+        assertEquals(4L, countCache.get(CountCache.key(CountCache.PURCHASES, 1L), counter));
+        assertEquals(2L, countCache.get(CountCache.key(CountCache.PURCHASES, 2L), counter));
+        assertEquals(3L, countCache.get(CountCache.VISITS, counter));
+    }
+
+    @Test
+    public void testInvalidateName() {
+
+        final CountCache countCache = new CountCache(1000L, 1000L);
+        countCache.get(CountCache.key(CountCache.PURCHASES, 1L), counter);
+        countCache.get(CountCache.key(CountCache.PURCHASES, 2L), counter);
+        countCache.get(CountCache.VISITS, counter);
+
+        countCache.invalidate(CountCache.PURCHASES);
+        countCache.invalidate(CountCache.SHOPS);
+
+        assertEquals(4L, countCache.get(CountCache.key(CountCache.PURCHASES, 1L), counter));
+        assertEquals(5L, countCache.get(CountCache.key(CountCache.PURCHASES, 2L), counter));
+        assertEquals(3L, countCache.get(CountCache.VISITS, counter));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * PagePatchTest.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.page;
+
+import org.interactiverobotics.grocery.domain.Item;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Page patch test.
+ */
+public class PagePatchTest {
+
+    private List<Item> items;
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        items = Arrays.asList(new Item(1L, "test-item-1"), new Item(2L, "test-item-2"), new Item(3L, "test-item-3"));
+        items.forEach(item -> item.setVersion(0L));
+    }
+
+
+    @Test
+    public void testWholePage() {
+
+        final PagePatch<Item> patch = PagePatch.of(items, Item::getId, Item::getVersion, null);
+
+        assertEquals(items, patch.getContent());
+        assertNull(patch.getIds());
+        assertEquals("0", patch.getVersions().get(1L));
+    }
+
+    @Test
+    public void testChangedRows() {
+
+        items.get(1).setVersion(1L);
+
+        final PagePatch<Item> patch = PagePatch.of(items, Item::getId, Item::getVersion, "2:0,1:0,4:0");
+
+        assertEquals(Arrays.asList(items.get(1), items.get(2)), patch.getContent());
+        assertEquals("1,2,3", patch.getIds());
+        assertEquals("1", patch.getVersions().get(2L));
+    }
+
+    @Test
+    public void testNoKnownRows() {
+
+        final PagePatch<Item> patch = PagePatch.of(items, Item::getId, Item::getVersion, "");
+
+        assertEquals(items, patch.getContent());
+        assertEquals("1,2,3", patch.getIds());
+    }
+
+    @Test
+    public void testEmptyPage() {
+
+        final PagePatch<Item> patch = PagePatch.of(Collections.emptyList(), Item::getId, Item::getVersion, "1:0");
+
+        assertTrue(patch.getContent().isEmpty());
+        assertEquals("", patch.getIds());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongVersions() {
+        PagePatch.parseVersions("1:0,2");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongVersionId() {
+        PagePatch.parseVersions("x:0");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyVersion() {
+        PagePatch.parseVersions("1:");
+    }
+
+    @Test
+    public void testVersion() {
+
+        assertEquals("1-1000-12.50-", PagePatch.version(1L, new Date(1000L), new BigDecimal("12.50"), null));
+        // Hash codes of these values are equal
+        assertNotEquals(PagePatch.version(0L, 31L), PagePatch.version(1L, 0L));
+
+        final String token = PagePatch.version(1L, 2L, null);
+        assertEquals(token, PagePatch.parseVersions("1:" + token).get(1L));
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * LikePatternTest.java
+ *
+ * Copyright (C) 2016 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.repository;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * LIKE pattern test.
+ */
+public class LikePatternTest {
+
+    @Test
+    public void testPrefix() {
+        assertEquals("test%", LikePattern.prefix("Test"));
+    }
+
+    @Test
+    public void testPrefixWithWildcards() {
+        assertEquals("100\\%\\_\\\\%", LikePattern.prefix("100%_\\"));
+    }
+
+    @Test
+    public void testNullPrefix() {
+        assertEquals("%", LikePattern.prefix(null));
+    }
+}
@@ -23,6 +23,7 @@ package org.interactiverobotics.grocery.rest;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.form.ItemForm;
+import org.interactiverobotics.grocery.metrics.QueryCountFilter;
 import org.interactiverobotics.grocery.repository.ItemRepository;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,17 +32,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -85,6 +91,35 @@ public class ItemRestControllerIntegrationTest {
         assertEquals(existingItems, Arrays.asList(response.getBody()));
     }
 
+    @Test
+    public void testGetNotModifiedItems() {
+
+        final Item existingItem = itemRepository.save(new Item("test-item-1"));
+
+        final ResponseEntity<Item[]> response1 = restTemplate.getForEntity(ITEM_ENDPOINT, Item[].class);
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(response1.getHeaders().getETag());
+        final ResponseEntity<Item[]> response2 = restTemplate.exchange(ITEM_ENDPOINT, HttpMethod.GET,
+                new HttpEntity<>(headers), Item[].class);
+
+        final Item newItem = itemRepository.save(new Item("test-item-2"));
+
+        final ResponseEntity<Item[]> response3 = restTemplate.exchange(ITEM_ENDPOINT, HttpMethod.GET,
+                new HttpEntity<>(headers), Item[].class);
+
+        itemRepository.deleteAll(Arrays.asList(existingItem, newItem));
+
+        assertEquals(HttpStatus.OK, response1.getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, response2.getStatusCode());
+        assertFalse(response2.hasBody());
+        // Version is cached
+        assertEquals("0", response2.getHeaders().getFirst(QueryCountFilter.QUERY_COUNT_HEADER));
+        // Collection is changed
+        assertEquals(HttpStatus.OK, response3.getStatusCode());
+        assertEquals(2, response3.getBody().length);
+    }
+
     @Test
     public void testGetItemsPage() {
 
@@ -189,6 +224,32 @@ public class ItemRestControllerIntegrationTest {
         assertEquals(form.getName(), response.getBody().getName());
     }
 
+    @Test
+    public void testGetCachedItemById() {
+
+        final Item existingItem = itemRepository.save(new Item(TEST_ITEM_NAME));
+
+        final ResponseEntity<Item> response1 = restTemplate
+                .getForEntity(ITEM_ENDPOINT + existingItem.getId(), Item.class);
+        final ResponseEntity<Item> response2 = restTemplate
+                .getForEntity(ITEM_ENDPOINT + existingItem.getId(), Item.class);
+
+        final ItemForm form = new ItemForm("updated-test-item");
+        restTemplate.postForEntity(ITEM_ENDPOINT + existingItem.getId(), form, Item.class);
+
+        final ResponseEntity<Item> response3 = restTemplate
+                .getForEntity(ITEM_ENDPOINT + existingItem.getId(), Item.class);
+
+        itemRepository.delete(existingItem);
+
+        // Second request is served from cache
+        assertEquals("1", response1.getHeaders().getFirst(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertEquals("0", response2.getHeaders().getFirst(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertEquals(existingItem, response2.getBody());
+        // Update evicts cached Item
+        assertEquals(form.getName(), response3.getBody().getName());
+    }
+
     @Test
     public void testUpdateNotExistingItem() {
 
@@ -219,4 +280,36 @@ public class ItemRestControllerIntegrationTest {
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
+
+    @Test
+    public void testImportItems() {
+
+        final Item existingItem = itemRepository.save(new Item("test-item-1"));
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf(ItemRestController.TEXT_CSV_VALUE));
+        final ParameterizedTypeReference<Map<String, Long>> responseType =
+                new ParameterizedTypeReference<Map<String, Long>>() {};
+        final ResponseEntity<Map<String, Long>> response = restTemplate.exchange(ITEM_ENDPOINT + "import",
+                HttpMethod.POST, new HttpEntity<>("name\ntest-item-1\ntest-item-2\n\"test-item-3\"\ntest-item-2\n",
+                        headers), responseType);
+
+        final Item importedItem = itemRepository.findOneByName("test-item-3");
+        // Item created by application after import
+        final Item newItem = itemRepository.save(new Item("test-item-4"));
+
+        final List<Item> items = new ArrayList<>();
+        itemRepository.findAll().forEach(items::add);
+        itemRepository.deleteAll(items);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Long.valueOf(4L), response.getBody().get("read"));
+        assertEquals(Long.valueOf(2L), response.getBody().get("imported"));
+        assertEquals(4, items.size());
+        assertTrue(items.contains(existingItem));
+        assertNotNull(importedItem);
+        assertEquals(Long.valueOf(0L), importedItem.getVersion());
+        assertNotNull(importedItem.getUpdated());
+        assertTrue(items.contains(newItem));
+    }
 }
@@ -23,6 +23,10 @@ package org.interactiverobotics.grocery.rest;
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.exception.ItemNotFoundException;
 import org.interactiverobotics.grocery.form.ItemForm;
+import org.interactiverobotics.grocery.page.CollectionVersion;
+import org.interactiverobotics.grocery.page.KeysetPage;
+import org.interactiverobotics.grocery.service.ItemImportReport;
+import org.interactiverobotics.grocery.service.ItemImportService;
 import org.interactiverobotics.grocery.service.ItemService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -33,12 +37,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -47,12 +55,14 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -74,15 +84,21 @@ public class ItemRestControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemImportService itemImportService;
+
 
     @Test
     public void testGetItems() throws Exception {
 
         final List<Item> existingItems = Arrays.asList(new Item(1L, "test-item-1"), new Item(2L, "test-item-2"));
         when(itemService.getItems()).thenReturn(existingItems);
+        final CollectionVersion version = new CollectionVersion(2L, 0L, new Date(1000L));
+        when(itemService.getItemsVersion()).thenReturn(version);
 
         mvc.perform(get(ITEM_ENDPOINT).accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + version.getETag() + "\""))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id", is(existingItems.get(0).getId().intValue())))
@@ -91,6 +107,20 @@ public class ItemRestControllerTest {
                 .andExpect(jsonPath("$[1].name", is(existingItems.get(1).getName())));
     }
 
+    @Test
+    public void testGetNotModifiedItems() throws Exception {
+
+        final CollectionVersion version = new CollectionVersion(2L, 0L, new Date(1000L));
+        when(itemService.getItemsVersion()).thenReturn(version);
+
+        mvc.perform(get(ITEM_ENDPOINT).header(HttpHeaders.IF_NONE_MATCH, "\"" + version.getETag() + "\"")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(itemService, never()).getItems();
+    }
+
     @Test
     public void testGetItemsPage() throws Exception {
 
@@ -113,6 +143,52 @@ public class ItemRestControllerTest {
                 .andExpect(jsonPath("$.size", is(10)));
     }
 
+    @Test
+    public void testGetItemsKeysetPage() throws Exception {
+
+        final List<Item> existingItems = new ArrayList<>();
+        for (long i = 11; i <= 20; i ++) {
+            existingItems.add(new Item(i, "test-item-" + i));
+        }
+
+        final String after = KeysetPage.encodeToken(10L);
+        final String next = KeysetPage.encodeToken(20L);
+        when(itemService.getItems(any(Pageable.class), eq(after))).thenAnswer(invocation -> {
+            final Pageable pageable = invocation.getArgument(0);
+            assertEquals(10, pageable.getPageSize());
+            return new KeysetPage<>(existingItems, pageable.getPageSize(), next);
+        });
+
+        mvc.perform(get(ITEM_ENDPOINT + "list?after=" + after + "&size=10").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.content", hasSize(10)))
+                .andExpect(jsonPath("$.content[0].id", is(11)))
+                .andExpect(jsonPath("$.size", is(10)))
+                .andExpect(jsonPath("$.next", is(next)));
+    }
+
+    @Test
+    public void testGetItemsSlice() throws Exception {
+
+        final List<Item> existingItems = new ArrayList<>();
+        for (long i = 0; i < 10; i ++) {
+            existingItems.add(new Item(i, "test-item-" + i));
+        }
+
+        when(itemService.getItemsSlice(any(Pageable.class))).thenAnswer(invocation ->
+                new SliceImpl<>(existingItems, invocation.getArgument(0), true));
+
+        mvc.perform(get(ITEM_ENDPOINT + "list?count=false&page=1&size=10").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.content", hasSize(10)))
+                .andExpect(jsonPath("$.last", is(false)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(itemService, never()).getItems(any(Pageable.class));
+    }
+
     @Test
     public void testGetItemById() throws Exception {
 
@@ -265,4 +341,36 @@ public class ItemRestControllerTest {
 
         mvc.perform(delete(ITEM_ENDPOINT + new Long(999L)).accept(MediaType.APPLICATION_JSON_UTF8));
     }
+
+    @Test
+    public void testImportItemsCsv() throws Exception {
+
+        when(itemImportService.importCsv(any(Reader.class))).thenReturn(new ItemImportReport(3L, 2L, 10L));
+
+        mvc.perform(post(ITEM_ENDPOINT + "import")
+                .contentType(ItemRestController.TEXT_CSV_VALUE)
+                .content("name\ntest-item-1\ntest-item-2\ntest-item-2\n")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.read", is(3)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.skipped", is(1)))
+                .andExpect(jsonPath("$.throughput", is(300)));
+    }
+
+    @Test
+    public void testImportItemsNdjson() throws Exception {
+
+        when(itemImportService.importNdjson(any(Reader.class))).thenReturn(new ItemImportReport(1L, 1L, 1L));
+
+        mvc.perform(post(ITEM_ENDPOINT + "import")
+                .contentType(PurchaseRestController.APPLICATION_NDJSON_VALUE)
+                .content("{\"name\":\"test-item-1\"}\n")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)));
+
+        verify(itemImportService, never()).importCsv(any(Reader.class));
+    }
 }
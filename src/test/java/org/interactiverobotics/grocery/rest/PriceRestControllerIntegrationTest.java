@@ -0,0 +1,170 @@
+/*
+ * PriceRestControllerIntegrationTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.PurchaseRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Price REST controller integration test.
+ * Performs queries to running instance of the application.
+ * Requires database access.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PriceRestControllerIntegrationTest {
+
+    private static final String PRICE_ENDPOINT = "/api/v1/price/";
+    private static final String PURCHASE_ENDPOINT = "/api/v1/purchase/";
+
+    private static final ParameterizedTypeReference<Map<String, Object>> STATISTICS_TYPE =
+            new ParameterizedTypeReference<Map<String, Object>>() { };
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    private Shop shop;
+
+    private Visit visit;
+
+    private Item item;
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        shop = shopRepository.save(new Shop("test-shop"));
+
+        visit = visitRepository.save(new Visit(shop));
+
+        item = itemRepository.save(new Item("test-item"));
+    }
+
+    /**
+     * Finalises test.
+     */
+    @After
+    public void tearDown() throws Exception {
+
+        purchaseRepository.deleteAll(purchaseRepository.findAllByVisit(visit));
+
+        itemRepository.delete(item);
+
+        visitRepository.delete(visit);
+
+        shopRepository.delete(shop);
+    }
+
+
+    @Test
+    public void testGetPriceStatistics() {
+
+        restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId() + "/buy/" + item.getId()
+                + "?quantity=1&price=2", null, Purchase.class);
+        restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId() + "/buy/" + item.getId()
+                + "?quantity=1", null, Purchase.class);
+        restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId() + "/buy/" + item.getId()
+                + "?quantity=1&price=4", null, Purchase.class);
+        restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId() + "/price/" + item.getId()
+                + "?price=1.5", null, Purchase.class);
+
+        final Map<String, Object> statistics = getPriceStatistics("?shop=" + shop.getId());
+
+        // Unknown Price is not observed
+        assertEquals(3, statistics.get("count"));
+        assertEquals(1.5, statistics.get("minPrice"));
+        assertEquals(4.0, statistics.get("maxPrice"));
+        assertEquals(2.5, statistics.get("averagePrice"));
+        assertEquals(1.5, statistics.get("lastPrice"));
+
+        // Observed today
+        assertEquals(3, getPriceStatistics("?from=" + LocalDate.now()).get("count"));
+        assertEquals(0, getPriceStatistics("?to=" + LocalDate.now()).get("count"));
+    }
+
+    @Test
+    public void testGetPriceStatisticsForNotObservedPrice() {
+
+        final Map<String, Object> statistics = getPriceStatistics("");
+
+        assertEquals(0, statistics.get("count"));
+        assertNull(statistics.get("lastPrice"));
+    }
+
+    @Test
+    public void testGetPriceStatisticsForWrongItemId() {
+
+        final ResponseEntity<String> response = restTemplate.getForEntity(PRICE_ENDPOINT + new Long(999L)
+                + "/statistics", String.class);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+
+    private Map<String, Object> getPriceStatistics(final String query) {
+
+        final ResponseEntity<Map<String, Object>> response = restTemplate.exchange(PRICE_ENDPOINT + item.getId()
+                + "/statistics" + query, HttpMethod.GET, null, STATISTICS_TYPE);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        return response.getBody();
+    }
+}
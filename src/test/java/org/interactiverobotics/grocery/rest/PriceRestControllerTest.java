@@ -0,0 +1,98 @@
+/*
+ * PriceRestControllerTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import org.interactiverobotics.grocery.report.PriceStatistics;
+import org.interactiverobotics.grocery.service.PriceService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Price REST controller test.
+ * Tests Controller with mocked Service.
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(PriceRestController.class)
+public class PriceRestControllerTest {
+
+    private static final String PRICE_ENDPOINT = "/api/v1/price/";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private PriceService priceService;
+
+
+    @Test
+    public void testGetPriceStatistics() throws Exception {
+
+        final PriceStatistics existingStatistics = new PriceStatistics(1L, 2L, 2L, BigDecimal.valueOf(150, 2),
+                BigDecimal.valueOf(250, 2), BigDecimal.valueOf(200, 2), BigDecimal.valueOf(250, 2), new Date());
+        when(priceService.getPriceStatistics(eq(1L), eq(2L), any(Date.class), isNull()))
+                .thenReturn(existingStatistics);
+
+        mvc.perform(get(PRICE_ENDPOINT + "1/statistics?shop=2&from=2018-01-01")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.itemId", is(1)))
+                .andExpect(jsonPath("$.shopId", is(2)))
+                .andExpect(jsonPath("$.count", is(2)))
+                .andExpect(jsonPath("$.minPrice", is(1.5)))
+                .andExpect(jsonPath("$.maxPrice", is(2.5)))
+                .andExpect(jsonPath("$.averagePrice", is(2.0)))
+                .andExpect(jsonPath("$.lastPrice", is(2.5)));
+    }
+
+    @Test
+    public void testGetPriceStatisticsForNotObservedPrice() throws Exception {
+
+        when(priceService.getPriceStatistics(eq(1L), isNull(), isNull(), isNull()))
+                .thenReturn(new PriceStatistics(1L, null, 0L, null, null, null, null, null));
+
+        mvc.perform(get(PRICE_ENDPOINT + "1/statistics")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(0)))
+                .andExpect(jsonPath("$.lastPrice", nullValue()));
+    }
+}
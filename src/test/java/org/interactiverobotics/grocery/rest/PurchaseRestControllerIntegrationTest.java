@@ -25,10 +25,13 @@ import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.Purchase;
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.form.PurchaseBuyForm;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.repository.ItemRepository;
 import org.interactiverobotics.grocery.repository.PurchaseRepository;
 import org.interactiverobotics.grocery.repository.ShopRepository;
 import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.interactiverobotics.grocery.service.PurchaseEventService;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -37,15 +40,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -81,6 +95,9 @@ public class PurchaseRestControllerIntegrationTest {
     @Autowired
     private PurchaseRepository purchaseRepository;
 
+    @Autowired
+    private PurchaseEventService purchaseEventService;
+
     private Shop shop;
 
     private Visit visit;
@@ -138,12 +155,62 @@ public class PurchaseRestControllerIntegrationTest {
         assertTrue(Arrays.asList(response.getBody()).contains(existingItems.get(1)));
     }
 
+    @Test
+    public void testGetNotPurchasedItemsPage() {
+
+        final List<Item> existingItems = new ArrayList<>();
+        itemRepository.saveAll(Arrays.asList(new Item("test-filter-item-1"), new Item("test-filter-item-2"),
+                new Item("test-other-item"))).forEach(item -> existingItems.add(item));
+
+        final Purchase purchase = purchaseRepository.save(new Purchase(visit, existingItems.get(0), 1L, null));
+
+        final ParameterizedTypeReference<PageResponse<Item>> responseType =
+                new ParameterizedTypeReference<PageResponse<Item>>() {};
+        final ResponseEntity<PageResponse<Item>> response = restTemplate.exchange(PURCHASE_ENDPOINT
+                + visit.getId() + "/not_purchased_items/list?name=test-filter&page=1&size=10", HttpMethod.GET,
+                null, responseType);
+
+        purchaseRepository.delete(purchase);
+
+        itemRepository.deleteAll(existingItems);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.hasBody());
+        assertEquals(1, response.getBody().getTotalElements());
+        assertEquals(existingItems.get(1), response.getBody().getContent().get(0));
+    }
+
+    @Test
+    public void testGetNotPurchasedItemsPageWithWildcards() {
+
+        final List<Item> existingItems = new ArrayList<>();
+        itemRepository.saveAll(Arrays.asList(new Item("test_100%-item"), new Item("test-100-item")))
+                .forEach(item -> existingItems.add(item));
+
+        final ParameterizedTypeReference<PageResponse<Item>> responseType =
+                new ParameterizedTypeReference<PageResponse<Item>>() {};
+        final ResponseEntity<PageResponse<Item>> response = restTemplate.exchange(PURCHASE_ENDPOINT
+                + visit.getId() + "/not_purchased_items/list?name={name}&page=1&size=10", HttpMethod.GET,
+                null, responseType, "TEST_100%");
+
+        itemRepository.deleteAll(existingItems);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.hasBody());
+        assertEquals(1, response.getBody().getTotalElements());
+        assertEquals(existingItems.get(0), response.getBody().getContent().get(0));
+    }
+
     @Test
     public void testGetPurchasesPage() {
 
+        // Purchase is unique for Visit and Item
+        final List<Item> existingItems = new ArrayList<>();
         final List<Purchase> existingPurchases = new ArrayList<>();
         for (long i = 0; i < 100; i ++) {
-            existingPurchases.add(purchaseRepository.save(new Purchase(visit, item, 1L, null)));
+            final Item existingItem = itemRepository.save(new Item("test-item-" + i));
+            existingItems.add(existingItem);
+            existingPurchases.add(purchaseRepository.save(new Purchase(visit, existingItem, 1L, null)));
         }
 
         final ParameterizedTypeReference<PageResponse<Purchase>> responseType =
@@ -152,6 +219,7 @@ public class PurchaseRestControllerIntegrationTest {
                         + visit.getId() + "/list?page=1&size=10", HttpMethod.GET, null, responseType);
 
         purchaseRepository.deleteAll(existingPurchases);
+        itemRepository.deleteAll(existingItems);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.hasBody());
@@ -160,7 +228,139 @@ public class PurchaseRestControllerIntegrationTest {
         assertEquals(10, response.getBody().getSize());
     }
 
+    @Test
+    public void testGetPurchasesKeysetPages() {
+
+        final List<Item> existingItems = new ArrayList<>();
+        final List<Purchase> existingPurchases = new ArrayList<>();
+        for (long i = 0; i < 25; i ++) {
+            final Item existingItem = itemRepository.save(new Item("test-item-" + i));
+            existingItems.add(existingItem);
+            existingPurchases.add(purchaseRepository.save(new Purchase(visit, existingItem, 1L, null)));
+        }
+
+        final ParameterizedTypeReference<KeysetPage<Purchase>> responseType =
+                new ParameterizedTypeReference<KeysetPage<Purchase>>() {};
+        final List<Purchase> purchases = new ArrayList<>();
+        final List<HttpStatus> statuses = new ArrayList<>();
+        String after = "";
+        do {
+            final ResponseEntity<KeysetPage<Purchase>> response = restTemplate.exchange(PURCHASE_ENDPOINT
+                    + visit.getId() + "/list?after=" + after + "&size=10", HttpMethod.GET, null, responseType);
+            statuses.add(response.getStatusCode());
+            if (!response.hasBody()) {
+                break;
+            }
+            purchases.addAll(response.getBody().getContent());
+            after = response.getBody().getNext();
+        } while (after != null);
+
+        purchaseRepository.deleteAll(existingPurchases);
+        itemRepository.deleteAll(existingItems);
+
+        assertEquals(Arrays.asList(HttpStatus.OK, HttpStatus.OK, HttpStatus.OK), statuses);
+        assertEquals(existingPurchases, purchases);
+    }
+
     @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
+    @Test
+    public void testExportPurchases() {
+
+        final Shop otherShop = shopRepository.save(new Shop("test-shop-other"));
+        final Visit otherVisit = visitRepository.save(new Visit(otherShop));
+
+        final List<Item> existingItems = new ArrayList<>();
+        final List<Purchase> existingPurchases = new ArrayList<>();
+        for (long i = 0; i < 5; i ++) {
+            final Item existingItem = itemRepository.save(new Item("test-item-" + i));
+            existingItems.add(existingItem);
+            existingPurchases.add(purchaseRepository.save(new Purchase(visit, existingItem, i + 1, null)));
+        }
+        final Purchase otherPurchase = purchaseRepository.save(new Purchase(otherVisit, item, 1L, null));
+
+        final ResponseEntity<String> response = restTemplate.getForEntity(PURCHASE_ENDPOINT + "export?shop="
+                + shop.getId(), String.class);
+
+        purchaseRepository.delete(otherPurchase);
+        purchaseRepository.deleteAll(existingPurchases);
+        itemRepository.deleteAll(existingItems);
+        visitRepository.delete(otherVisit);
+        shopRepository.delete(otherShop);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getHeaders().getContentType()
+                .isCompatibleWith(MediaType.valueOf(PurchaseRestController.APPLICATION_NDJSON_VALUE)));
+        final String[] lines = response.getBody().split("\n");
+        assertEquals(existingPurchases.size(), lines.length);
+        for (int i = 0; i < lines.length; i ++) {
+            assertTrue(lines[i].startsWith("{\"id\":" + existingPurchases.get(i).getId() + ",\"visitId\":"
+                    + visit.getId() + ","));
+            assertTrue(lines[i].contains("\"itemName\":\"test-item-" + i + "\",\"quantity\":" + (i + 1)));
+        }
+    }
+
+    @Test
+    public void testExportPurchasesForDateRange() {
+
+        final Purchase purchase = purchaseRepository.save(new Purchase(visit, item, 1L, null));
+
+        final ResponseEntity<String> response = restTemplate.getForEntity(PURCHASE_ENDPOINT
+                + "export?from=2000-01-01&to=2000-01-02", String.class);
+
+        purchaseRepository.delete(purchase);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(response.hasBody());
+    }
+
+    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
+    @Test
+    public void testPurchaseEvents() throws Exception {
+
+        // Reads data of 2 events: Purchase created and Purchase deleted
+        final CompletableFuture<List<String>> events = CompletableFuture.supplyAsync(() -> {
+            final List<String> data = new ArrayList<>();
+            HttpURLConnection connection = null;
+            try {
+                connection = (HttpURLConnection) new URL(restTemplate.getRootUri() + PURCHASE_ENDPOINT
+                        + visit.getId() + "/events").openConnection();
+                connection.setRequestProperty(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+                final BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while (data.size() < 2 && (line = reader.readLine()) != null) {
+                    if (line.startsWith("data:")) {
+                        data.add(line.substring(5));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                // Stream is endless, so connection is closed without reading it to the end
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+            return data;
+        });
+
+        for (int i = 0; i < 100 && purchaseEventService.getSubscriberCount(visit.getId()) == 0; i ++) {
+            Thread.sleep(50L);
+        }
+
+        restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId() + BUY_ACTION + item.getId() + QUANTITY_1,
+                null, Purchase.class);
+        restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId() + RETURN_ACTION + item.getId() + QUANTITY_1,
+                null, Purchase.class);
+
+        final List<String> data = events.get(10L, TimeUnit.SECONDS);
+
+        assertEquals(2, data.size());
+        assertTrue(data.get(0).startsWith("{\"type\":\"UPDATED\",\"visitId\":" + visit.getId()));
+        assertTrue(data.get(0).contains("\"itemId\":" + item.getId() + ",\"itemName\":\"test-item\",\"quantity\":1"));
+        assertTrue(data.get(1).startsWith("{\"type\":\"DELETED\",\"visitId\":" + visit.getId()));
+    }
+
     @Test
     public void testBuyItem() {
 
@@ -242,7 +442,7 @@ public class PurchaseRestControllerIntegrationTest {
 
         purchaseRepository.delete(response.getBody());
 
-        assertEquals(BigDecimal.valueOf(10L), response.getBody().getPrice());
+        assertEquals(BigDecimal.valueOf(1000, 2), response.getBody().getPrice());
     }
 
     @Test
@@ -257,7 +457,7 @@ public class PurchaseRestControllerIntegrationTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.hasBody());
-        assertEquals(BigDecimal.valueOf(10L), response.getBody().getPrice());
+        assertEquals(BigDecimal.valueOf(1000, 2), response.getBody().getPrice());
     }
 
     @Test
@@ -276,6 +476,49 @@ public class PurchaseRestControllerIntegrationTest {
         assertEquals(BigDecimal.valueOf(1500, 2), response.getBody().getPrice());
     }
 
+    @Test
+    public void testBuyItems() {
+
+        final Item otherItem = itemRepository.save(new Item("test-item-2"));
+
+        final Purchase existingPurchase = purchaseRepository
+                .save(new Purchase(visit, item, 1L, BigDecimal.valueOf(10L)));
+
+        final List<PurchaseBuyForm> basket = Arrays.asList(
+                new PurchaseBuyForm(item.getId(), 1L, BigDecimal.valueOf(20L)),
+                new PurchaseBuyForm(otherItem.getId(), 2L, null));
+
+        final ResponseEntity<Purchase[]> response = restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId()
+                + "/buy", basket, Purchase[].class);
+
+        final List<Purchase> purchases = purchaseRepository.findAllByVisit(visit);
+        purchaseRepository.deleteAll(purchases);
+        itemRepository.delete(otherItem);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.hasBody());
+        assertEquals(2, response.getBody().length);
+        assertEquals(existingPurchase.getId(), response.getBody()[0].getId());
+        assertEquals(Long.valueOf(2L), response.getBody()[0].getQuantity());
+        assertEquals(BigDecimal.valueOf(1500, 2), response.getBody()[0].getPrice());
+        assertEquals(otherItem, response.getBody()[1].getItem());
+        assertEquals(Long.valueOf(2L), response.getBody()[1].getQuantity());
+        assertEquals(2, purchases.size());
+    }
+
+    @Test
+    public void testBuyItemsForWrongItemId() {
+
+        final List<PurchaseBuyForm> basket = Arrays.asList(
+                new PurchaseBuyForm(item.getId(), 1L, null), new PurchaseBuyForm(999L, 1L, null));
+
+        final ResponseEntity<String> response = restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId()
+                + "/buy", basket, String.class);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertTrue(purchaseRepository.findAllByVisit(visit).isEmpty());
+    }
+
     @Test
     public void testReturnItem() {
 
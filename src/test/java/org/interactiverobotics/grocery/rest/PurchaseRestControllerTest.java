@@ -25,6 +25,10 @@ import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.Purchase;
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.event.PurchaseEvent;
+import org.interactiverobotics.grocery.export.PurchaseExport;
+import org.interactiverobotics.grocery.form.PurchaseBuyForm;
+import org.interactiverobotics.grocery.service.PurchaseEventService;
 import org.interactiverobotics.grocery.service.PurchaseService;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,22 +44,29 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -76,6 +87,9 @@ public class PurchaseRestControllerTest {
     @MockBean
     private PurchaseService purchaseService;
 
+    @MockBean
+    private PurchaseEventService purchaseEventService;
+
     private Visit visit;
 
     private Item item;
@@ -110,6 +124,30 @@ public class PurchaseRestControllerTest {
                 .andExpect(jsonPath("$[1].name", is(notPurchasedItems.get(1).getName())));
     }
 
+    @Test
+    public void testGetNotPurchasedItemsPage() throws Exception {
+
+        final List<Item> notPurchasedItems = new ArrayList<>();
+        for (long i = 0; i < 100; i ++) {
+            notPurchasedItems.add(new Item(i, "test-item-" + i));
+        }
+
+        when(purchaseService.getNotPurchasedItems(any(Pageable.class), eq(visit.getId()), eq("test")))
+                .thenAnswer(invocation -> {
+                    assertEquals(3, invocation.getArguments().length);
+                    final Pageable pageable = invocation.getArgument(0);
+                    return new PageImpl<>(notPurchasedItems, pageable, notPurchasedItems.size());
+                });
+
+        mvc.perform(get(PURCHASE_ENDPOINT + visit.getId() + "/not_purchased_items/list?name=test&page=1&size=10")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.totalElements", is(notPurchasedItems.size())))
+                .andExpect(jsonPath("$.totalPages", is(10)))
+                .andExpect(jsonPath("$.size", is(10)));
+    }
+
     @Test
     public void testGetPurchasesPage() throws Exception {
 
@@ -133,6 +171,31 @@ public class PurchaseRestControllerTest {
                 .andExpect(jsonPath("$.size", is(10)));
     }
 
+    @Test
+    public void testExportPurchases() throws Exception {
+
+        final List<PurchaseExport> existingPurchases = Arrays.asList(
+                new PurchaseExport(1L, visit.getId(), null, null, 1L, "test-shop", 1L, "test-item-1", 1L, null),
+                new PurchaseExport(2L, visit.getId(), null, null, 1L, "test-shop", 2L, "test-item-2", 2L, null));
+
+        when(purchaseService.exportPurchases(eq(1L), any(Date.class), isNull(), any())).thenAnswer(invocation -> {
+            final Consumer<PurchaseExport> consumer = invocation.getArgument(3);
+            existingPurchases.forEach(consumer);
+            return (long) existingPurchases.size();
+        });
+
+        mvc.perform(get(PURCHASE_ENDPOINT + "export?shop=1&from=2018-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(PurchaseRestController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(
+                        "{\"id\":1,\"visitId\":1,\"started\":null,\"completed\":null,\"shopId\":1,"
+                        + "\"shopName\":\"test-shop\",\"itemId\":1,\"itemName\":\"test-item-1\","
+                        + "\"quantity\":1,\"price\":null}\n"
+                        + "{\"id\":2,\"visitId\":1,\"started\":null,\"completed\":null,\"shopId\":1,"
+                        + "\"shopName\":\"test-shop\",\"itemId\":2,\"itemName\":\"test-item-2\","
+                        + "\"quantity\":2,\"price\":null}\n"));
+    }
+
 
     public static class BuyItemAnswer implements Answer<Purchase> {
 
@@ -178,6 +241,28 @@ public class PurchaseRestControllerTest {
     }
 
 
+    @Test
+    public void testSubscribe() throws Exception {
+
+        final SseEmitter emitter = new SseEmitter();
+        when(purchaseEventService.subscribe(visit.getId())).thenReturn(emitter);
+
+        final MvcResult result = mvc.perform(get(PURCHASE_ENDPOINT + visit.getId() + "/events")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        emitter.send(SseEmitter.event().name(PurchaseEventService.PURCHASE_EVENT_NAME)
+                .data(PurchaseEvent.updated(visit.getId(), new Purchase(1L, visit, item, 2L, null), item),
+                        MediaType.APPLICATION_JSON));
+        emitter.complete();
+
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE + ";charset=UTF-8", result.getResponse().getContentType());
+        assertEquals("event:purchase\ndata:{\"type\":\"UPDATED\",\"visitId\":1,\"id\":1,\"itemId\":1,"
+                + "\"itemName\":\"test-item\",\"quantity\":2,\"price\":null}\n\n",
+                result.getResponse().getContentAsString());
+    }
+
     @Test
     public void testBuyItem() throws Exception {
 
@@ -264,6 +349,29 @@ public class PurchaseRestControllerTest {
     }
 
 
+    @Test
+    public void testBuyItems() throws Exception {
+
+        when(purchaseService.buyItems(eq(visit.getId()), any())).thenAnswer(invocation -> {
+            final List<PurchaseBuyForm> basket = invocation.getArgument(1);
+            assertEquals(1, basket.size());
+            assertEquals(item.getId(), basket.get(0).getItem());
+            assertEquals(BigDecimal.valueOf(10L), basket.get(0).getPrice());
+            return Collections.singletonList(
+                    new Purchase(1L, visit, item, basket.get(0).getQuantity(), basket.get(0).getPrice()));
+        });
+
+        mvc.perform(post(PURCHASE_ENDPOINT + visit.getId() + "/buy")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("[{\"item\":" + item.getId() + ",\"quantity\":2,\"price\":10}]")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].item.id", is(item.getId().intValue())))
+                .andExpect(jsonPath("$[0].quantity", is(2)));
+    }
+
     @Test
     public void testReturnItem() throws Exception {
 
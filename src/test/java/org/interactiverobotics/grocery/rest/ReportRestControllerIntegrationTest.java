@@ -0,0 +1,173 @@
+/*
+ * ReportRestControllerIntegrationTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.PurchaseRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Report REST controller integration test.
+ * Performs queries to running instance of the application.
+ * Requires database access.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReportRestControllerIntegrationTest {
+
+    private static final String REPORT_ENDPOINT = "/api/v1/report/";
+    private static final String PURCHASE_ENDPOINT = "/api/v1/purchase/";
+    private static final String VISIT_ENDPOINT = "/api/v1/visit/";
+
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> SPEND_LIST_TYPE =
+            new ParameterizedTypeReference<List<Map<String, Object>>>() { };
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    private Shop shop;
+
+    private Visit visit;
+
+    private Item item;
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        shop = shopRepository.save(new Shop("test-shop"));
+
+        visit = visitRepository.save(new Visit(shop));
+
+        item = itemRepository.save(new Item("test-item"));
+    }
+
+    /**
+     * Finalises test.
+     */
+    @After
+    public void tearDown() throws Exception {
+
+        purchaseRepository.deleteAll(purchaseRepository.findAllByVisit(visit));
+
+        itemRepository.delete(item);
+
+        visitRepository.findById(visit.getId()).ifPresent(visitRepository::delete);
+
+        shopRepository.delete(shop);
+    }
+
+
+    @Test
+    public void testGetSpend() {
+
+        restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId() + "/buy/" + item.getId()
+                + "?quantity=2&price=1.5", null, Purchase.class);
+
+        // Purchases of not completed Visit are not reported
+        assertTrue(getSpend("spend/shop", shop.getId()).isEmpty());
+
+        restTemplate.postForEntity(VISIT_ENDPOINT + visit.getId() + "/complete", null, Visit.class);
+
+        final List<Map<String, Object>> shopSpends = getSpend("spend/shop", shop.getId());
+        assertEquals(1, shopSpends.size());
+        assertEquals(LocalDate.now().toString(), shopSpends.get(0).get("period"));
+        assertEquals("test-shop", shopSpends.get(0).get("name"));
+        assertEquals(2, shopSpends.get(0).get("quantity"));
+        assertEquals(3.0, shopSpends.get(0).get("spend"));
+
+        restTemplate.postForEntity(PURCHASE_ENDPOINT + visit.getId() + "/return/" + item.getId()
+                + "?quantity=1", null, Purchase.class);
+
+        final List<Map<String, Object>> itemSpends = getSpend("spend/item?period=MONTH&shop=" + shop.getId(), item.getId());
+        assertEquals(1, itemSpends.size());
+        assertEquals(LocalDate.now().withDayOfMonth(1).toString(), itemSpends.get(0).get("period"));
+        assertEquals("test-item", itemSpends.get(0).get("name"));
+        assertEquals(1, itemSpends.get(0).get("quantity"));
+        assertEquals(1.5, itemSpends.get(0).get("spend"));
+
+        restTemplate.delete(VISIT_ENDPOINT + visit.getId());
+
+        assertTrue(getSpend("spend/shop", shop.getId()).isEmpty());
+    }
+
+    @Test
+    public void testGetSpendForWrongPeriod() {
+
+        final ResponseEntity<String> response = restTemplate.getForEntity(REPORT_ENDPOINT
+                + "spend/shop?period=YEAR", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+
+    private List<Map<String, Object>> getSpend(final String report, final Long id) {
+
+        final ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(REPORT_ENDPOINT + report,
+                HttpMethod.GET, null, SPEND_LIST_TYPE);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        return response.getBody().stream()
+                .filter(spend -> id.equals(((Number) spend.get("id")).longValue()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * ReportRestControllerTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import org.interactiverobotics.grocery.report.ReportPeriod;
+import org.interactiverobotics.grocery.report.Spend;
+import org.interactiverobotics.grocery.service.ReportService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Report REST controller test.
+ * Tests Controller with mocked Service.
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(ReportRestController.class)
+public class ReportRestControllerTest {
+
+    private static final String REPORT_ENDPOINT = "/api/v1/report/";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private ReportService reportService;
+
+
+    @Test
+    public void testGetSpendByShop() throws Exception {
+
+        final List<Spend> existingSpends = Arrays.asList(
+                new Spend(LocalDate.of(2018, 3, 1), 1L, "test-shop-1", 10L, BigDecimal.valueOf(1050, 2)),
+                new Spend(LocalDate.of(2018, 3, 1), 2L, "test-shop-2", 1L, BigDecimal.ZERO));
+        when(reportService.getSpendByShop(eq(ReportPeriod.MONTH), any(Date.class), isNull()))
+                .thenReturn(existingSpends);
+
+        mvc.perform(get(REPORT_ENDPOINT + "spend/shop?period=MONTH&from=2018-01-01")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].period", is("2018-03-01")))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].name", is("test-shop-1")))
+                .andExpect(jsonPath("$[0].quantity", is(10)))
+                .andExpect(jsonPath("$[0].spend", is(10.5)));
+    }
+
+    @Test
+    public void testGetSpendByItem() throws Exception {
+
+        final List<Spend> existingSpends = Arrays.asList(
+                new Spend(LocalDate.of(2018, 3, 15), 1L, "test-item", 2L, BigDecimal.ONE));
+        when(reportService.getSpendByItem(eq(ReportPeriod.DAY), isNull(), isNull(), eq(1L)))
+                .thenReturn(existingSpends);
+
+        mvc.perform(get(REPORT_ENDPOINT + "spend/item?shop=1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].period", is("2018-03-15")))
+                .andExpect(jsonPath("$[0].name", is("test-item")));
+    }
+
+    @Test
+    public void testGetSpendForWrongPeriod() throws Exception {
+
+        mvc.perform(get(REPORT_ENDPOINT + "spend/shop?period=YEAR")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -23,6 +23,7 @@ package org.interactiverobotics.grocery.rest;
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.exception.ShopNotFoundException;
 import org.interactiverobotics.grocery.form.ShopForm;
+import org.interactiverobotics.grocery.page.CollectionVersion;
 import org.interactiverobotics.grocery.service.ShopService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,6 +40,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -80,6 +82,7 @@ public class ShopRestControllerTest {
 
         final List<Shop> existingShops = Arrays.asList(new Shop(1L, "test-shop-1"), new Shop(2L, "test-shop-2"));
         when(shopService.getShops()).thenReturn(existingShops);
+        when(shopService.getShopsVersion()).thenReturn(new CollectionVersion(2L, 0L, new Date()));
 
         mvc.perform(get(SHOP_ENDPOINT).accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk())
@@ -40,6 +40,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -76,6 +80,31 @@ public class ShoppingListItemRestControllerIntegrationTest {
     }
 
 
+    @Test
+    public void testGetNotAddedItems() {
+
+        final ShoppingList existingShoppingList = shoppingListRepository
+                .save(new ShoppingList(TEST_SHOPPING_LIST_NAME));
+        final List<Item> existingItems = new ArrayList<>();
+        itemRepository.saveAll(Arrays.asList(new Item("test-filter-item-1"), new Item("test-filter-item-2"),
+                new Item("test-filter-item-3"), new Item("test-other-item")))
+                .forEach(item -> existingItems.add(item));
+        final ShoppingListItem existingShoppingListItem = shoppingListItemRepository
+                .save(new ShoppingListItem(existingShoppingList, existingItems.get(1), 1L));
+
+        final ResponseEntity<Item[]> response = restTemplate.getForEntity(SHOPPING_LIST_ITEM_ENDPOINT
+                + existingShoppingList.getId() + "/not_added_items?name=test-filter&after="
+                + existingItems.get(0).getId() + "&size=10", Item[].class);
+
+        shoppingListItemRepository.delete(existingShoppingListItem);
+        itemRepository.deleteAll(existingItems);
+        shoppingListRepository.delete(existingShoppingList);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.hasBody());
+        assertEquals(Arrays.asList(existingItems.get(2)), Arrays.asList(response.getBody()));
+    }
+
     @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
     @Test
     public void testCreateShoppingListItem() {
@@ -26,6 +26,7 @@ import org.interactiverobotics.grocery.domain.ShoppingListItem;
 import org.interactiverobotics.grocery.exception.ShoppingListNotFoundException;
 import org.interactiverobotics.grocery.form.ShoppingListItemCreateForm;
 import org.interactiverobotics.grocery.form.ShoppingListItemUpdateForm;
+import org.interactiverobotics.grocery.page.CollectionVersion;
 import org.interactiverobotics.grocery.service.ShoppingListItemService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,11 +35,13 @@ import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -85,6 +88,8 @@ public class ShoppingListItemRestControllerTest {
                 new ShoppingListItem(2L, existingShoppingList, existingItem, 2L));
         when(shoppingListItemService.getShoppingListItems(existingShoppingList.getId()))
                 .thenReturn(existingShoppingListItems);
+        when(shoppingListItemService.getShoppingListItemsVersion(existingShoppingList.getId()))
+                .thenReturn(new CollectionVersion(2L, 0L, new Date()));
 
         mvc.perform(get(SHOPPING_LIST_ITEM_ENDPOINT + existingShoppingList.getId())
                 .accept(MediaType.APPLICATION_JSON_UTF8))
@@ -106,12 +111,33 @@ public class ShoppingListItemRestControllerTest {
     @Test(expected = Exception.class)
     public void testGetShoppingListItemsForWrongShoppingListId() throws Exception {
 
-        when(shoppingListItemService.getShoppingListItems(anyLong())).thenThrow(new ShoppingListNotFoundException(-1L));
+        when(shoppingListItemService.getShoppingListItemsVersion(anyLong()))
+                .thenThrow(new ShoppingListNotFoundException(-1L));
 
         mvc.perform(get(SHOPPING_LIST_ITEM_ENDPOINT + new Long(999L))
                 .accept(MediaType.APPLICATION_JSON_UTF8));
     }
 
+    @Test
+    public void testGetNotAddedItems() throws Exception {
+
+        final List<Item> notAddedItems = Arrays.asList(new Item(2L, "test-item-2"), new Item(3L, "test-item-3"));
+        when(shoppingListItemService.getNotAddedItems(any(Pageable.class), eq(1L), eq("test"), eq(1L)))
+                .thenAnswer(invocation -> {
+                    final Pageable pageable = invocation.getArgument(0);
+                    assertEquals(5, pageable.getPageSize());
+                    return notAddedItems;
+                });
+
+        mvc.perform(get(SHOPPING_LIST_ITEM_ENDPOINT + "1/not_added_items?name=test&after=1&size=5")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(notAddedItems.get(0).getId().intValue())))
+                .andExpect(jsonPath("$[1].id", is(notAddedItems.get(1).getId().intValue())));
+    }
+
 
     public static class CreateShoppingListItemAnswer implements Answer<ShoppingListItem> {
 
@@ -0,0 +1,175 @@
+/*
+ * StreamRestControllerIntegrationTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stream REST controller integration test.
+ * Performs queries to running instance of the application.
+ * Requires database access.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "grocery.stream.page-size=2")
+public class StreamRestControllerIntegrationTest {
+
+    private static final String STREAM_ENDPOINT = "/api/v1/stream/";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private Shop shop;
+
+    private final List<Visit> visits = new ArrayList<>();
+
+    private final List<Item> items = new ArrayList<>();
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        shop = shopRepository.save(new Shop("test-shop"));
+
+        visitRepository.saveAll(Arrays.asList(new Visit(shop), new Visit(shop), new Visit(shop)))
+                .forEach(visits::add);
+
+        itemRepository.saveAll(Arrays.asList(new Item("test-item-1"), new Item("test-item-2"),
+                new Item("test-item-3"), new Item("test-item-4"), new Item("test-item-5")))
+                .forEach(items::add);
+    }
+
+    /**
+     * Finalises test.
+     */
+    @After
+    public void tearDown() throws Exception {
+
+        itemRepository.deleteAll(items);
+
+        visitRepository.deleteAll(visits);
+
+        shopRepository.delete(shop);
+    }
+
+
+    @Test
+    public void testStreamItems() {
+
+        final List<JsonNode> streamedItems = getStream("item").stream()
+                .filter(item -> item.get("name").asText().startsWith("test-item-"))
+                .collect(Collectors.toList());
+
+        assertEquals(items.size(), streamedItems.size());
+        for (int i = 0; i < items.size(); i ++) {
+            assertEquals(items.get(i).getId().longValue(), streamedItems.get(i).get("id").asLong());
+            assertEquals(items.get(i).getName(), streamedItems.get(i).get("name").asText());
+        }
+    }
+
+    @Test
+    public void testStreamShops() {
+
+        assertTrue(getStream("shop").stream()
+                .anyMatch(streamedShop -> streamedShop.get("id").asLong() == shop.getId()));
+    }
+
+    @Test
+    public void testStreamVisitsByShop() {
+
+        final List<JsonNode> streamedVisits = getStream("visit/shop/" + shop.getId());
+
+        assertEquals(visits.size(), streamedVisits.size());
+        for (int i = 0; i < visits.size(); i ++) {
+            assertEquals(visits.get(i).getId().longValue(), streamedVisits.get(i).get("id").asLong());
+            assertEquals(shop.getName(), streamedVisits.get(i).get("shop").get("name").asText());
+        }
+    }
+
+    @Test
+    public void testStreamVisits() {
+
+        assertEquals(visits.size(), getStream("visit").stream()
+                .filter(visit -> visit.get("shop").get("id").asLong() == shop.getId())
+                .count());
+    }
+
+
+    private List<JsonNode> getStream(final String stream) {
+
+        final ResponseEntity<String> response = restTemplate.getForEntity(STREAM_ENDPOINT + stream, String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_STREAM_JSON.isCompatibleWith(response.getHeaders().getContentType()));
+
+        return Arrays.stream(response.getBody().split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+}
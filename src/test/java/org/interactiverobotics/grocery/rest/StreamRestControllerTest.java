@@ -0,0 +1,127 @@
+/*
+ * StreamRestControllerTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.rest;
+
+import org.interactiverobotics.grocery.configuration.JsonConfiguration;
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.service.StreamService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Stream REST controller test.
+ * Tests Controller with mocked Service.
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(StreamRestController.class)
+@ImportAutoConfiguration(JsonConfiguration.class)
+public class StreamRestControllerTest {
+
+    private static final String STREAM_ENDPOINT = "/api/v1/stream/";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private StreamService streamService;
+
+
+    @Test
+    public void testStreamItems() throws Exception {
+
+        when(streamService.streamItems()).thenReturn(Flux.just(
+                Arrays.asList(new Item(1L, "test-item-1"), new Item(2L, "test-item-2")),
+                Collections.singletonList(new Item(3L, "test-item-3"))));
+
+        final String content = getStream("item");
+
+        assertEquals(3, content.split("\n").length);
+        assertEquals('\n', content.charAt(content.length() - 1));
+        assertEquals("{\"id\":1,\"name\":\"test-item-1\"", content.substring(0, 28));
+        assertEquals("{\"id\":3,\"name\":\"test-item-3\"", content.split("\n")[2].substring(0, 28));
+    }
+
+    @Test
+    public void testStreamShops() throws Exception {
+
+        when(streamService.streamShops()).thenReturn(Flux.just(
+                Collections.singletonList(new Shop(1L, "test-shop"))));
+
+        final String content = getStream("shop");
+
+        assertEquals(1, content.split("\n").length);
+        assertEquals("{\"id\":1,\"name\":\"test-shop\"", content.substring(0, 26));
+    }
+
+    @Test
+    public void testStreamVisitsByShop() throws Exception {
+
+        final Shop shop = new Shop(1L, "test-shop");
+        when(streamService.streamVisits(shop.getId())).thenReturn(Flux.just(
+                Arrays.asList(new Visit(1L, shop), new Visit(2L, shop))));
+
+        final String content = getStream("visit/shop/1");
+
+        assertEquals(2, content.split("\n").length);
+        assertEquals("{\"id\":2,\"shop\":{\"id\":1", content.split("\n")[1].substring(0, 22));
+    }
+
+    @Test
+    public void testStreamVisitsForEmptyStream() throws Exception {
+
+        when(streamService.streamVisits()).thenReturn(Flux.empty());
+
+        assertEquals("", getStream("visit"));
+    }
+
+
+    private String getStream(final String stream) throws Exception {
+
+        final MvcResult result = mvc.perform(get(STREAM_ENDPOINT + stream)
+                .accept(MediaType.APPLICATION_STREAM_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        assertEquals(MediaType.APPLICATION_STREAM_JSON_VALUE, result.getResponse().getContentType());
+
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -21,6 +21,7 @@
 package org.interactiverobotics.grocery.rest;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.interactiverobotics.grocery.configuration.CacheConfiguration;
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.domain.Visit;
 import org.interactiverobotics.grocery.repository.ShopRepository;
@@ -32,6 +33,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
@@ -68,6 +70,9 @@ public class VisitRestControllerIntegrationTest {
     @Autowired
     private VisitRepository visitRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     private Shop shop;
 
 
@@ -185,6 +190,22 @@ public class VisitRestControllerIntegrationTest {
         visitRepository.delete(response.getBody());
     }
 
+    @Test
+    public void testCreateVisitForCachedShop() {
+
+        final ResponseEntity<Visit> response1 = restTemplate
+                .postForEntity(VISIT_SHOP_ENDPOINT + shop.getId(), null, Visit.class);
+        final ResponseEntity<Visit> response2 = restTemplate
+                .postForEntity(VISIT_SHOP_ENDPOINT + shop.getId(), null, Visit.class);
+
+        visitRepository.deleteAll(Arrays.asList(response1.getBody(), response2.getBody()));
+
+        assertEquals(HttpStatus.OK, response2.getStatusCode());
+        assertEquals(shop, response2.getBody().getShop());
+        // Shop is cached by the first request
+        assertNotNull(cacheManager.getCache(CacheConfiguration.SHOPS).get(shop.getId()));
+    }
+
     @Test
     public void testCreateVisitsForNotExistingShop() {
 
@@ -0,0 +1,191 @@
+/*
+ * ItemImportServiceTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.interactiverobotics.grocery.configuration.CacheConfiguration;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Item import service test.
+ * Existing Name(s) are emulated by mocked JDBC template.
+ */
+@RunWith(SpringRunner.class)
+public class ItemImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private CacheManager cacheManager;
+
+    private ItemImportService itemImportService;
+
+    private List<Long> ids;
+
+    private List<String> names;
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        cacheManager = new ConcurrentMapCacheManager(CacheConfiguration.ITEMS_VERSION);
+        cacheManager.getCache(CacheConfiguration.ITEMS_VERSION).put("version", "test");
+
+        itemImportService = new ItemImportService(jdbcTemplate, new ObjectMapper(), new CountCache(1000L, 1000L),
+                cacheManager);
+
+        ids = new ArrayList<>();
+        names = new ArrayList<>(Collections.singletonList("existing-item"));
+
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any())).thenAnswer(invocation -> {
+            final int blocks = invocation.getArgument(2);
+            final List<Long> firstIds = new ArrayList<>();
+            for (int i = 0; i < blocks; i ++) {
+                firstIds.add(1L + (long) ItemImportService.ID_ALLOCATION_SIZE * i);
+            }
+            return firstIds;
+        });
+
+        // Insert is emulated by connection that keeps arrays of Id(s) and Name(s) of batch
+        final List<Object[]> arrays = new ArrayList<>();
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.createArrayOf(anyString(), any())).thenAnswer(invocation -> {
+            arrays.add(invocation.getArgument(1));
+            return null;
+        });
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenAnswer(invocation -> {
+            arrays.clear();
+            ((PreparedStatementCreator) invocation.getArgument(0)).createPreparedStatement(connection);
+            int count = 0;
+            for (int i = 0; i < arrays.get(1).length; i ++) {
+                final String name = (String) arrays.get(1)[i];
+                if (!names.contains(name)) {
+                    ids.add((Long) arrays.get(0)[i]);
+                    names.add(name);
+                    count ++;
+                }
+            }
+            return count;
+        });
+    }
+
+
+    @Test
+    public void testImportCsv() throws Exception {
+
+        final ItemImportReport report = itemImportService.importCsv(new StringReader(
+                "id,Name,comment\n1,test-item-1,\"first, best\"\r\n2,\"test \"\"item\"\" 2\",\"multi\nline\"\n"
+                + "3,existing-item,\n4,test-item-1,\n5,  ,\n6\n"));
+
+        assertEquals(6, report.getRead());
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getSkipped());
+        assertEquals(Arrays.asList("existing-item", "test-item-1", "test \"item\" 2"), names);
+        assertEquals(Arrays.asList(1L, 2L), ids);
+        // Version of Item(s) is evicted
+        assertNull(cacheManager.getCache(CacheConfiguration.ITEMS_VERSION).get("version"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testImportCsvWithoutNameColumn() throws Exception {
+        itemImportService.importCsv(new StringReader("id,title\n1,test-item-1\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testImportEmptyCsv() throws Exception {
+        itemImportService.importCsv(new StringReader(""));
+    }
+
+    @Test
+    public void testImportNdjson() throws Exception {
+
+        final ItemImportReport report = itemImportService.importNdjson(new StringReader(
+                "{\"name\":\"test-item-1\",\"price\":1}\n{\"name\":\"existing-item\"}\n{}\n{\"name\":\"test-item-2\"}\n"));
+
+        assertEquals(4, report.getRead());
+        assertEquals(2, report.getImported());
+        assertEquals(Arrays.asList("existing-item", "test-item-1", "test-item-2"), names);
+    }
+
+    @Test
+    public void testImportByBatches() throws Exception {
+
+        final StringBuilder csv = new StringBuilder("name\n");
+        for (int i = 0; i < ItemImportService.BATCH_SIZE * 2 + 1; i ++) {
+            csv.append("test-item-").append(i).append('\n');
+        }
+
+        final ItemImportReport report = itemImportService.importCsv(new StringReader(csv.toString()));
+
+        assertEquals(ItemImportService.BATCH_SIZE * 2 + 1, report.getImported());
+        verify(jdbcTemplate, times(3)).update(any(PreparedStatementCreator.class));
+        // Id(s) of batch are unique and allocated by blocks
+        assertEquals(ItemImportService.BATCH_SIZE, ids.stream().limit(ItemImportService.BATCH_SIZE).distinct().count());
+        assertEquals(Long.valueOf(ItemImportService.ID_ALLOCATION_SIZE + 1L),
+                ids.get(ItemImportService.ID_ALLOCATION_SIZE));
+    }
+
+    @Test
+    public void testReadCsvRecord() throws Exception {
+
+        final BufferedReader reader = new BufferedReader(new StringReader("a,\"b,\"\"c\"\"\",\n\"d\ne\""));
+
+        assertEquals(Arrays.asList("a", "b,\"c\"", ""), ItemImportService.readCsvRecord(reader));
+        assertEquals(Collections.singletonList("d\ne"), ItemImportService.readCsvRecord(reader));
+        assertNull(ItemImportService.readCsvRecord(reader));
+    }
+}
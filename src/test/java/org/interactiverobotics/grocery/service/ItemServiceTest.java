@@ -23,6 +23,7 @@ package org.interactiverobotics.grocery.service;
 import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.exception.ItemNotFoundException;
 import org.interactiverobotics.grocery.form.ItemForm;
+import org.interactiverobotics.grocery.page.CountCache;
 import org.interactiverobotics.grocery.repository.ItemRepository;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,9 +32,10 @@ import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
@@ -42,8 +44,11 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -64,7 +69,7 @@ public class ItemServiceTest {
 
     @Before
     public void setUp() throws Exception {
-        itemService = new ItemService(itemRepository);
+        itemService = new ItemService(itemRepository, new CountCache(1000L, 1000L));
     }
 
 
@@ -87,11 +92,12 @@ public class ItemServiceTest {
             existingItems.add(new Item(i, "test-item-" + i));
         }
 
-        when(itemRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+        when(itemRepository.findSliceBy(any(Pageable.class))).thenAnswer(invocation -> {
             assertEquals(1, invocation.getArguments().length);
             final Pageable pageable = invocation.getArgument(0);
-            return new PageImpl<>(existingItems, pageable, existingItems.size());
+            return new SliceImpl<>(existingItems.subList(0, pageable.getPageSize()), pageable, true);
         });
+        when(itemRepository.count()).thenReturn((long) existingItems.size());
 
         final Page<Item> items = itemService.getItems(PageRequest.of(0, 10));
 
@@ -99,6 +105,42 @@ public class ItemServiceTest {
         assertEquals(10, items.getTotalPages());
     }
 
+    @Test
+    public void testGetItemsPageCountIsCached() {
+
+        when(itemRepository.findSliceBy(any(Pageable.class))).thenAnswer(invocation ->
+                new SliceImpl<>(new ArrayList<>(), invocation.getArgument(0), false));
+        when(itemRepository.count()).thenReturn(100L);
+        when(itemRepository.save(any(Item.class))).then(new SaveAndReturnItemAnswer());
+
+        itemService.getItems(PageRequest.of(0, 10));
+        itemService.getItems(PageRequest.of(1, 10));
+        verify(itemRepository, times(1)).count();
+
+        // Count is invalidated when Item is created
+        itemService.createItem(new ItemForm(TEST_ITEM_NAME));
+        itemService.getItems(PageRequest.of(0, 10));
+        verify(itemRepository, times(2)).count();
+    }
+
+    @Test
+    public void testGetItemsSlice() {
+
+        final List<Item> existingItems = new ArrayList<>();
+        for (long i = 0; i < 10; i ++) {
+            existingItems.add(new Item(i, "test-item-" + i));
+        }
+
+        when(itemRepository.findSliceBy(any(Pageable.class))).thenAnswer(invocation ->
+                new SliceImpl<>(existingItems, invocation.getArgument(0), true));
+
+        final Slice<Item> items = itemService.getItemsSlice(PageRequest.of(0, 10));
+
+        assertEquals(existingItems, items.getContent());
+        assertTrue(items.hasNext());
+        verify(itemRepository, never()).count();
+    }
+
     @Test
     public void testGetItemById() {
 
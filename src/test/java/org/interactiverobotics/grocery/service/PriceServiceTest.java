@@ -0,0 +1,165 @@
+/*
+ * PriceServiceTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.exception.ItemNotFoundException;
+import org.interactiverobotics.grocery.exception.ShopNotFoundException;
+import org.interactiverobotics.grocery.report.PriceStatistics;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Price service test.
+ */
+@RunWith(SpringRunner.class)
+public class PriceServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    private PriceService priceService;
+
+    private Visit visit;
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        priceService = new PriceService(jdbcTemplate, itemRepository, shopRepository);
+
+        visit = new Visit(1L, new Shop(1L, "test-shop"));
+
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(shopRepository.existsById(1L)).thenReturn(true);
+    }
+
+
+    @Test
+    public void testObservePrices() {
+
+        final Map<Long, BigDecimal> prices = new HashMap<>();
+        prices.put(1L, BigDecimal.TEN);
+        prices.put(2L, null);
+
+        priceService.observePrices(visit, prices);
+
+        final ArgumentCaptor<MapSqlParameterSource[]> batch = ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        // Unknown Price is not observed
+        assertEquals(1, batch.getValue().length);
+        assertEquals(1L, batch.getValue()[0].getValue("itemId"));
+        assertEquals(visit.getShop().getId(), batch.getValue()[0].getValue("shopId"));
+        assertEquals(visit.getId(), batch.getValue()[0].getValue("visitId"));
+        assertEquals(BigDecimal.TEN, batch.getValue()[0].getValue("price"));
+    }
+
+    @Test
+    public void testObservePricesInOrderOfItem() {
+
+        final Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        prices.put(3L, BigDecimal.TEN);
+        prices.put(1L, BigDecimal.ONE);
+        prices.put(2L, BigDecimal.TEN);
+
+        priceService.observePrices(visit, prices);
+
+        final ArgumentCaptor<MapSqlParameterSource[]> batch = ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertEquals(3, batch.getValue().length);
+        assertEquals(1L, batch.getValue()[0].getValue("itemId"));
+        assertEquals(2L, batch.getValue()[1].getValue("itemId"));
+        assertEquals(3L, batch.getValue()[2].getValue("itemId"));
+    }
+
+    @Test
+    public void testObserveUnknownPrice() {
+
+        priceService.observePrices(visit, Collections.singletonMap(1L, null));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(MapSqlParameterSource[].class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetPriceStatistics() {
+
+        final PriceStatistics existingStatistics = new PriceStatistics(1L, 1L, 2L, BigDecimal.ONE, BigDecimal.TEN,
+                BigDecimal.valueOf(55, 1), BigDecimal.ONE, null);
+        final ArgumentCaptor<MapSqlParameterSource> parameters = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        when(jdbcTemplate.queryForObject(anyString(), parameters.capture(), any(RowMapper.class)))
+                .thenReturn(existingStatistics);
+
+        final PriceStatistics statistics = priceService.getPriceStatistics(1L, 1L,
+                java.sql.Date.valueOf(LocalDate.of(2018, 3, 1)), null);
+
+        assertSame(existingStatistics, statistics);
+        assertEquals(1L, parameters.getValue().getValue("itemId"));
+        assertEquals(1L, parameters.getValue().getValue("shopId"));
+        assertEquals(java.sql.Date.valueOf(LocalDate.of(2018, 3, 1)), parameters.getValue().getValue("from"));
+        assertNull(parameters.getValue().getValue("to"));
+    }
+
+    @Test(expected = ItemNotFoundException.class)
+    public void testGetPriceStatisticsForWrongItemId() {
+        priceService.getPriceStatistics(999L, null, null, null);
+    }
+
+    @Test(expected = ShopNotFoundException.class)
+    public void testGetPriceStatisticsForWrongShopId() {
+        priceService.getPriceStatistics(1L, 999L, null, null);
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * PurchaseEventServiceTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.configuration.PurchaseEventProperties;
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.event.PurchaseEvent;
+import org.interactiverobotics.grocery.exception.VisitNotFoundException;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Purchase event service test.
+ * Sending tasks are queued and run by test.
+ */
+@RunWith(SpringRunner.class)
+public class PurchaseEventServiceTest {
+
+    @Mock
+    private VisitRepository visitRepository;
+
+    @Mock
+    private SseEmitter emitter;
+
+    private PurchaseEventProperties properties;
+
+    private List<Runnable> tasks;
+
+    private boolean rejectTasks;
+
+    private PurchaseEventService purchaseEventService;
+
+    private Visit visit;
+
+    private PurchaseEvent event;
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        properties = new PurchaseEventProperties();
+        tasks = new ArrayList<>();
+        rejectTasks = false;
+
+        purchaseEventService = new PurchaseEventService(visitRepository, properties, task -> {
+            if (rejectTasks) {
+                throw new TaskRejectedException("test");
+            }
+            tasks.add(task);
+        }) {
+            @Override
+            SseEmitter createEmitter() {
+                return emitter;
+            }
+        };
+
+        visit = new Visit(1L, new Shop(1L, "test-shop"));
+
+        final Item item = new Item(1L, "test-item");
+        event = PurchaseEvent.updated(visit.getId(), new Purchase(1L, visit, item, 1L, null), item);
+
+        when(visitRepository.existsById(visit.getId())).thenReturn(true);
+    }
+
+
+    @Test
+    public void testSubscribe() throws Exception {
+
+        assertSame(emitter, purchaseEventService.subscribe(visit.getId()));
+
+        assertEquals(1, purchaseEventService.getSubscriberCount(visit.getId()));
+        assertEquals(0, purchaseEventService.getSubscriberCount(999L));
+    }
+
+    @Test
+    public void testUnsubscribeOnCompletion() throws Exception {
+
+        purchaseEventService.subscribe(visit.getId());
+
+        final ArgumentCaptor<Runnable> callback = ArgumentCaptor.forClass(Runnable.class);
+        verify(emitter).onCompletion(callback.capture());
+        callback.getValue().run();
+
+        assertEquals(0, purchaseEventService.getSubscriberCount(visit.getId()));
+    }
+
+    @Test(expected = VisitNotFoundException.class)
+    public void testSubscribeForWrongVisitId() throws Exception {
+        purchaseEventService.subscribe(999L);
+    }
+
+    @Test
+    public void testOnPurchaseEvent() throws Exception {
+
+        purchaseEventService.subscribe(visit.getId());
+
+        purchaseEventService.onPurchaseEvent(event);
+        purchaseEventService.onPurchaseEvent(event);
+
+        // Events are sent by executor
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(1, tasks.size());
+
+        runTasks();
+
+        verify(emitter, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(1, purchaseEventService.getSubscriberCount(visit.getId()));
+    }
+
+    @Test
+    public void testOnPurchaseEventOfOtherVisit() throws Exception {
+
+        purchaseEventService.subscribe(visit.getId());
+
+        final Visit otherVisit = new Visit(2L, visit.getShop());
+        final Item item = new Item(1L, "test-item");
+        purchaseEventService.onPurchaseEvent(PurchaseEvent.updated(otherVisit.getId(),
+                new Purchase(2L, otherVisit, item, 1L, null), item));
+
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    public void testOnPurchaseEventForClosedConnection() throws Exception {
+
+        final IOException exception = new IOException("Broken pipe");
+        doThrow(exception).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        purchaseEventService.subscribe(visit.getId());
+
+        purchaseEventService.onPurchaseEvent(event);
+        runTasks();
+
+        verify(emitter).completeWithError(exception);
+        assertEquals(0, purchaseEventService.getSubscriberCount(visit.getId()));
+    }
+
+    @Test
+    public void testOnPurchaseEventForFullQueue() throws Exception {
+
+        properties.setSubscriberQueueCapacity(1);
+
+        purchaseEventService.subscribe(visit.getId());
+
+        purchaseEventService.onPurchaseEvent(event);
+        purchaseEventService.onPurchaseEvent(event);
+
+        assertEquals(0, purchaseEventService.getSubscriberCount(visit.getId()));
+
+        runTasks();
+
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter).complete();
+    }
+
+    @Test
+    public void testOnPurchaseEventForTimedOutSend() throws Exception {
+
+        properties.setSendTimeout(10L);
+
+        // Next event is published while send is blocked
+        doAnswer(invocation -> {
+            Thread.sleep(50L);
+            purchaseEventService.onPurchaseEvent(event);
+            return null;
+        }).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        purchaseEventService.subscribe(visit.getId());
+
+        purchaseEventService.onPurchaseEvent(event);
+        runTasks();
+
+        assertEquals(0, purchaseEventService.getSubscriberCount(visit.getId()));
+        verify(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter).complete();
+    }
+
+    @Test
+    public void testOnPurchaseEventForBusyExecutor() throws Exception {
+
+        rejectTasks = true;
+
+        purchaseEventService.subscribe(visit.getId());
+
+        purchaseEventService.onPurchaseEvent(event);
+
+        assertEquals(0, purchaseEventService.getSubscriberCount(visit.getId()));
+        verify(emitter).complete();
+    }
+
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+}
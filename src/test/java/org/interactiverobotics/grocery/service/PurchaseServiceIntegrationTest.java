@@ -0,0 +1,330 @@
+/*
+ * PurchaseServiceIntegrationTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Purchase;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.form.PurchaseBuyForm;
+import org.interactiverobotics.grocery.report.ReportPeriod;
+import org.interactiverobotics.grocery.report.Spend;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.PurchaseRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Purchase service integration test.
+ * Checks atomic changes of Quantity, averaging of Price by database and transactions of Price updates.
+ * Requires database access.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PurchaseServiceIntegrationTest {
+
+    private static final int THREADS = 8;
+
+    private static final int BUYS_PER_THREAD = 25;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @SpyBean
+    private PriceService priceService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Shop shop;
+
+    private Visit visit;
+
+    private Item item;
+
+    private Item otherItem;
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        shop = shopRepository.save(new Shop("test-shop"));
+
+        visit = visitRepository.save(new Visit(shop));
+
+        item = itemRepository.save(new Item("test-item"));
+
+        otherItem = itemRepository.save(new Item("test-item-2"));
+    }
+
+    /**
+     * Finalises test.
+     */
+    @After
+    public void tearDown() throws Exception {
+
+        purchaseRepository.deleteAll(purchaseRepository.findAllByVisit(visit));
+
+        itemRepository.delete(item);
+
+        itemRepository.delete(otherItem);
+
+        visitRepository.delete(visit);
+
+        shopRepository.delete(shop);
+    }
+
+
+    @Test
+    public void testConcurrentBuys() throws Exception {
+
+        // Half of buys are at Price 10, half at Price 20
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final List<CompletableFuture<Void>> buys = new ArrayList<>();
+        for (int i = 0; i < THREADS; i ++) {
+            final BigDecimal price = BigDecimal.valueOf(i % 2 == 0 ? 10L : 20L);
+            buys.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < BUYS_PER_THREAD; j ++) {
+                    purchaseService.buyItem(visit.getId(), item.getId(), 1L, price);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(buys.toArray(new CompletableFuture<?>[0])).get(60L, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        final Purchase purchase = purchaseRepository.findOneByVisitAndItem(visit, item);
+
+        assertEquals(Long.valueOf(THREADS * BUYS_PER_THREAD), purchase.getQuantity());
+        // Average is rounded to cents after every buy
+        assertTrue(purchase.getPrice().subtract(BigDecimal.valueOf(15L)).abs()
+                .compareTo(BigDecimal.valueOf(5L, 2)) <= 0);
+    }
+
+    @Test
+    public void testConcurrentBaskets() throws Exception {
+
+        // Baskets list Items in different order
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final List<CompletableFuture<Void>> buys = new ArrayList<>();
+        for (int i = 0; i < THREADS; i ++) {
+            final List<PurchaseBuyForm> basket = i % 2 == 0
+                    ? Arrays.asList(new PurchaseBuyForm(item.getId(), 1L, BigDecimal.valueOf(10L)),
+                            new PurchaseBuyForm(otherItem.getId(), 2L, null))
+                    : Arrays.asList(new PurchaseBuyForm(otherItem.getId(), 2L, BigDecimal.valueOf(20L)),
+                            new PurchaseBuyForm(item.getId(), 1L, BigDecimal.valueOf(20L)));
+            buys.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < BUYS_PER_THREAD; j ++) {
+                    purchaseService.buyItems(visit.getId(), basket);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(buys.toArray(new CompletableFuture<?>[0])).get(60L, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        final Purchase purchase = purchaseRepository.findOneByVisitAndItem(visit, item);
+        assertEquals(Long.valueOf(THREADS * BUYS_PER_THREAD), purchase.getQuantity());
+        assertTrue(purchase.getPrice().subtract(BigDecimal.valueOf(15L)).abs()
+                .compareTo(BigDecimal.valueOf(5L, 2)) <= 0);
+
+        final Purchase otherPurchase = purchaseRepository.findOneByVisitAndItem(visit, otherItem);
+        assertEquals(Long.valueOf(2 * THREADS * BUYS_PER_THREAD), otherPurchase.getQuantity());
+        assertEquals(0, BigDecimal.valueOf(20L).compareTo(otherPurchase.getPrice()));
+    }
+
+    @Test
+    public void testBuyItemsSetAndAveragePrices() {
+
+        purchaseService.buyItem(visit.getId(), item.getId(), 1L, BigDecimal.valueOf(10L));
+
+        final List<Purchase> purchases = purchaseService.buyItems(visit.getId(), Arrays.asList(
+                new PurchaseBuyForm(otherItem.getId(), 1L, BigDecimal.valueOf(5L)),
+                new PurchaseBuyForm(item.getId(), 3L, BigDecimal.valueOf(20L))));
+
+        assertEquals(2, purchases.size());
+        assertEquals(otherItem.getId(), purchases.get(0).getItem().getId());
+        assertEquals(Long.valueOf(1L), purchases.get(0).getQuantity());
+        assertEquals(new BigDecimal("5.00"), purchases.get(0).getPrice());
+        assertEquals(item.getId(), purchases.get(1).getItem().getId());
+        assertEquals(Long.valueOf(4L), purchases.get(1).getQuantity());
+        assertEquals(new BigDecimal("17.50"), purchases.get(1).getPrice());
+    }
+
+    @Test
+    public void testUpdatePriceRollback() {
+
+        purchaseService.buyItem(visit.getId(), item.getId(), 1L, BigDecimal.valueOf(10L));
+        doThrow(new IllegalStateException()).when(priceService).observePrices(eq(visit), any());
+
+        try {
+            purchaseService.updatePrice(visit.getId(), item.getId(), BigDecimal.valueOf(20L));
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(new BigDecimal("10.00"), purchaseRepository.findOneByVisitAndItem(visit, item).getPrice());
+        }
+    }
+
+    @Test
+    public void testUpdatePriceRollups() {
+
+        visit.setStarted(new Date());
+        visit.setCompleted(visit.getStarted());
+        visit = visitRepository.save(visit);
+        purchaseService.buyItem(visit.getId(), item.getId(), 2L, BigDecimal.valueOf(10L));
+
+        purchaseService.updatePrice(visit.getId(), item.getId(), BigDecimal.valueOf(20L));
+
+        final List<Spend> spends = reportService.getSpendByItem(ReportPeriod.DAY, null, null, shop.getId()).stream()
+                .filter(spend -> item.getId().equals(spend.getId()))
+                .collect(Collectors.toList());
+        assertEquals(1, spends.size());
+        assertEquals(new BigDecimal("40.00"), spends.get(0).getSpend());
+    }
+
+    @Test
+    public void testBuyItemSetPrice() {
+
+        final Purchase purchase = purchaseService.buyItem(visit, item, 1L, BigDecimal.valueOf(10L));
+
+        assertEquals(Long.valueOf(1L), purchase.getQuantity());
+        assertEquals(BigDecimal.valueOf(1000L, 2), purchase.getPrice());
+    }
+
+    @Test
+    public void testBuyItemSetPriceForExistingPurchase() {
+
+        purchaseRepository.save(new Purchase(visit, item, 1L, null));
+
+        final Purchase purchase = purchaseService.buyItem(visit, item, 1L, BigDecimal.valueOf(10L));
+
+        assertEquals(Long.valueOf(2L), purchase.getQuantity());
+        assertEquals(BigDecimal.valueOf(1000L, 2), purchase.getPrice());
+    }
+
+    @Test
+    public void testBuyItemKeepPrice() {
+
+        purchaseRepository.save(new Purchase(visit, item, 1L, BigDecimal.valueOf(10L)));
+
+        final Purchase purchase = purchaseService.buyItem(visit, item, 2L, null);
+
+        assertEquals(Long.valueOf(3L), purchase.getQuantity());
+        assertEquals(BigDecimal.valueOf(1000L, 2), purchase.getPrice());
+    }
+
+    @Test
+    public void testBuyItemUpdatePrice() {
+
+        purchaseRepository.save(new Purchase(visit, item, 1L, BigDecimal.valueOf(10L)));
+
+        // Price = (10 * 1 + 20 * 3) / 4
+        final Purchase purchase = purchaseService.buyItem(visit, item, 3L, BigDecimal.valueOf(20L));
+
+        assertEquals(Long.valueOf(4L), purchase.getQuantity());
+        assertEquals(BigDecimal.valueOf(1750L, 2), purchase.getPrice());
+    }
+
+    @Test
+    public void testBuyItemForManagedPurchase() {
+
+        purchaseRepository.save(new Purchase(visit, item, 1L, BigDecimal.valueOf(10L)));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+
+            final Purchase managedPurchase = purchaseRepository.findOneByVisitAndItem(visit, item);
+
+            final Purchase purchase = purchaseService.buyItem(visit, item, 1L, BigDecimal.valueOf(20L));
+
+            // Purchase loaded after buy in the same persistence context has new Quantity and Price
+            final Purchase loadedPurchase = purchaseRepository.findOneByVisitAndItem(visit, item);
+
+            assertEquals(managedPurchase.getId(), purchase.getId());
+            assertEquals(Long.valueOf(2L), purchase.getQuantity());
+            assertEquals(Long.valueOf(2L), loadedPurchase.getQuantity());
+            assertEquals(BigDecimal.valueOf(1500L, 2), loadedPurchase.getPrice());
+            return null;
+        });
+    }
+
+    @Test
+    public void testReturnItemForManagedPurchase() {
+
+        purchaseRepository.save(new Purchase(visit, item, 2L, null));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+
+            purchaseRepository.findOneByVisitAndItem(visit, item);
+
+            assertEquals(Long.valueOf(1L), purchaseService.returnItem(visit, item, 1L).getQuantity());
+            assertEquals(Long.valueOf(1L), purchaseRepository.findOneByVisitAndItem(visit, item).getQuantity());
+
+            // Empty Purchase is deleted
+            purchaseService.returnItem(visit, item, 1L);
+            assertNull(purchaseRepository.findOneByVisitAndItem(visit, item));
+            return null;
+        });
+    }
+}
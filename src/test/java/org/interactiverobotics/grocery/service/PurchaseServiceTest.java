@@ -24,34 +24,54 @@ import org.interactiverobotics.grocery.domain.Item;
 import org.interactiverobotics.grocery.domain.Purchase;
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.event.PurchaseEvent;
 import org.interactiverobotics.grocery.exception.ItemNotFoundException;
 import org.interactiverobotics.grocery.exception.PurchaseNotFoundException;
 import org.interactiverobotics.grocery.exception.VisitNotFoundException;
+import org.interactiverobotics.grocery.export.PurchaseExport;
+import org.interactiverobotics.grocery.form.PurchaseBuyForm;
+import org.interactiverobotics.grocery.page.CountCache;
+import org.interactiverobotics.grocery.page.KeysetPage;
 import org.interactiverobotics.grocery.repository.ItemRepository;
 import org.interactiverobotics.grocery.repository.PurchaseRepository;
 import org.interactiverobotics.grocery.repository.VisitRepository;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -70,6 +90,15 @@ public class PurchaseServiceTest {
     @Mock
     private PurchaseRepository purchaseRepository;
 
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private PriceService priceService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private PurchaseService purchaseService;
 
     private Visit visit;
@@ -83,7 +112,8 @@ public class PurchaseServiceTest {
     @Before
     public void setUp() throws Exception {
 
-        purchaseService = new PurchaseService(visitRepository, itemRepository, purchaseRepository);
+        purchaseService = new PurchaseService(visitRepository, itemRepository, purchaseRepository,
+                new CountCache(1000L, 1000L), reportService, priceService, eventPublisher);
 
         visit = new Visit(1L, new Shop(1L, "test-shop"));
 
@@ -121,47 +151,72 @@ public class PurchaseServiceTest {
     @Test
     public void testGetNotPurchasedItems1() throws Exception {
 
-        final List<Item> existingItems = Arrays.asList(new Item(1L, "test-item-1"), new Item(2L, "test-item-2"));
-        when(itemRepository.findAll()).thenReturn(existingItems);
-
-        when(purchaseRepository.findOneByVisitAndItem(visit, existingItems.get(0)))
-                .thenReturn(new Purchase(visit, existingItems.get(0), 1L, null));
+        final List<Item> notPurchasedItems = Arrays.asList(new Item(2L, "test-item-2"));
+        when(purchaseRepository.findNotPurchasedItems(visit)).thenReturn(notPurchasedItems);
 
         final List<Item> items = purchaseService.getNotPurchasedItems(visit.getId());
 
         assertEquals(1, items.size());
-        assertEquals(existingItems.get(1), items.get(0));
+        assertEquals(notPurchasedItems.get(0), items.get(0));
     }
 
     @Test
     public void testGetNotPurchasedItems2() throws Exception {
 
-        final List<Item> existingItems = Arrays.asList(new Item(1L, "test-item-1"), new Item(2L, "test-item-2"));
-        when(itemRepository.findAll()).thenReturn(existingItems);
-
-        when(purchaseRepository.findOneByVisitAndItem(visit, existingItems.get(0)))
-                .thenReturn(new Purchase(visit, existingItems.get(0), 1L, null));
+        final List<Item> notPurchasedItems = Arrays.asList(new Item(2L, "test-item-2"));
+        when(purchaseRepository.findNotPurchasedItems(visit)).thenReturn(notPurchasedItems);
 
         final List<Item> items = purchaseService.getNotPurchasedItems(visit);
 
         assertEquals(1, items.size());
-        assertEquals(existingItems.get(1), items.get(0));
+        assertEquals(notPurchasedItems.get(0), items.get(0));
+    }
+
+    @Test
+    public void testGetNotPurchasedItemsPage() throws Exception {
+
+        final List<Item> notPurchasedItems = new ArrayList<>();
+        for (long i = 0; i < 100; i ++) {
+            notPurchasedItems.add(new Item(i, "test-item-" + i));
+        }
+
+        when(purchaseRepository.findNotPurchasedItems(any(Pageable.class), eq(visit), eq("test%")))
+                .thenAnswer(invocation -> {
+                    final Pageable pageable = invocation.getArgument(0);
+                    return new PageImpl<>(notPurchasedItems, pageable, notPurchasedItems.size());
+                });
+
+        final Page<Item> items = purchaseService.getNotPurchasedItems(PageRequest.of(0, 10), visit.getId(), "test");
+
+        assertEquals(notPurchasedItems.size(), items.getTotalElements());
+        assertEquals(10, items.getTotalPages());
     }
 
+    @Test
+    public void testGetNotPurchasedItemsPageWithoutName() throws Exception {
 
-    public static class PurchasePageAnswer implements Answer<Page<Purchase>> {
+        when(purchaseRepository.findNotPurchasedItems(any(Pageable.class), eq(visit), eq("%")))
+                .thenAnswer(invocation -> new PageImpl<Item>(new ArrayList<>(), invocation.getArgument(0), 0));
+
+        final Page<Item> items = purchaseService.getNotPurchasedItems(PageRequest.of(0, 10), visit, null);
+
+        assertEquals(0, items.getTotalElements());
+    }
+
+
+    public static class PurchaseSliceAnswer implements Answer<Slice<Purchase>> {
 
         private final List<Purchase> purchases;
 
-        public PurchasePageAnswer(final List<Purchase> purchases) {
+        public PurchaseSliceAnswer(final List<Purchase> purchases) {
             this.purchases = purchases;
         }
 
         @Override
-        public Page<Purchase> answer(InvocationOnMock invocation) throws Throwable {
+        public Slice<Purchase> answer(InvocationOnMock invocation) throws Throwable {
             assertEquals(2, invocation.getArguments().length);
             final Pageable pageable = invocation.getArgument(0);
-            return new PageImpl<>(purchases, pageable, purchases.size());
+            return new SliceImpl<>(purchases.subList(0, pageable.getPageSize()), pageable, true);
         }
     }
 
@@ -174,8 +229,9 @@ public class PurchaseServiceTest {
             existingPurchases.add(new Purchase(i, visit, item, 1L, null));
         }
 
-        final PurchasePageAnswer purchasePageAnswer = new PurchasePageAnswer(existingPurchases);
-        when(purchaseRepository.findAllByVisit(any(Pageable.class), eq(visit))).thenAnswer(purchasePageAnswer);
+        final PurchaseSliceAnswer purchaseSliceAnswer = new PurchaseSliceAnswer(existingPurchases);
+        when(purchaseRepository.findSliceByVisit(any(Pageable.class), eq(visit))).thenAnswer(purchaseSliceAnswer);
+        when(purchaseRepository.countByVisit(visit)).thenReturn((long) existingPurchases.size());
 
         final Page<Purchase> purchases = purchaseService.getPurchases(PageRequest.of(0, 10), visit.getId());
 
@@ -191,8 +247,9 @@ public class PurchaseServiceTest {
             existingPurchases.add(new Purchase(i, visit, item, 1L, null));
         }
 
-        final PurchasePageAnswer purchasePageAnswer = new PurchasePageAnswer(existingPurchases);
-        when(purchaseRepository.findAllByVisit(any(Pageable.class), eq(visit))).thenAnswer(purchasePageAnswer);
+        final PurchaseSliceAnswer purchaseSliceAnswer = new PurchaseSliceAnswer(existingPurchases);
+        when(purchaseRepository.findSliceByVisit(any(Pageable.class), eq(visit))).thenAnswer(purchaseSliceAnswer);
+        when(purchaseRepository.countByVisit(visit)).thenReturn((long) existingPurchases.size());
 
         final Page<Purchase> purchases = purchaseService.getPurchases(PageRequest.of(0, 10), visit);
 
@@ -200,6 +257,92 @@ public class PurchaseServiceTest {
         assertEquals(10, purchases.getTotalPages());
     }
 
+    @Test
+    public void testExportPurchases() {
+
+        final List<PurchaseExport> existingPurchases = new ArrayList<>();
+        for (long i = 0; i < 10; i ++) {
+            existingPurchases.add(new PurchaseExport(i, visit.getId(), null, null, visit.getShop().getId(),
+                    visit.getShop().getName(), item.getId(), item.getName(), 1L, null));
+        }
+        final Date from = new Date(0L);
+        final Date to = new Date();
+        when(purchaseRepository.streamForExport(visit.getShop().getId(), from, to))
+                .thenReturn(existingPurchases.stream());
+
+        final List<PurchaseExport> purchases = new ArrayList<>();
+        final long count = purchaseService.exportPurchases(visit.getShop().getId(), from, to, purchases::add);
+
+        assertEquals(existingPurchases.size(), count);
+        assertEquals(existingPurchases, purchases);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExportPurchasesForWrongRange() {
+        final Date from = new Date();
+        purchaseService.exportPurchases(null, from, from, purchase -> fail());
+    }
+
+    @Test
+    public void testGetPurchaseKeysetPage() throws Exception {
+
+        final List<Purchase> existingPurchases = new ArrayList<>();
+        for (long i = 21; i <= 31; i ++) {
+            existingPurchases.add(new Purchase(i, visit, item, 1L, null));
+        }
+
+        when(purchaseRepository.findAllByVisitAndIdGreaterThanOrderById(any(Pageable.class), eq(visit), eq(20L)))
+                .thenAnswer(invocation -> {
+                    final Pageable pageable = invocation.getArgument(0);
+                    // One more Purchase is requested to know if there is the next page
+                    assertEquals(11, pageable.getPageSize());
+                    return existingPurchases;
+                });
+
+        final KeysetPage<Purchase> purchases = purchaseService.getPurchases(PageRequest.of(0, 10), visit.getId(),
+                KeysetPage.encodeToken(20L));
+
+        assertEquals(existingPurchases.subList(0, 10), purchases.getContent());
+        assertEquals(10, purchases.getSize());
+        assertEquals(KeysetPage.encodeToken(30L), purchases.getNext());
+    }
+
+    @Test
+    public void testGetPurchaseLastKeysetPage() throws Exception {
+
+        final List<Purchase> existingPurchases = new ArrayList<>();
+        for (long i = 1; i <= 10; i ++) {
+            existingPurchases.add(new Purchase(i, visit, item, 1L, null));
+        }
+
+        when(purchaseRepository.findAllByVisitAndIdGreaterThanOrderById(any(Pageable.class), eq(visit), eq(0L)))
+                .thenReturn(existingPurchases);
+
+        final KeysetPage<Purchase> purchases = purchaseService.getPurchases(PageRequest.of(0, 10), visit, "");
+
+        assertEquals(existingPurchases, purchases.getContent());
+        assertNull(purchases.getNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetPurchaseKeysetPageForWrongToken() throws Exception {
+
+        purchaseService.getPurchases(PageRequest.of(0, 10), visit, "wrong token");
+    }
+
+    /**
+     * Checks that single Purchase event of test Item is published.
+     */
+    private void assertPurchaseEvent(final PurchaseEvent.Type type, final Purchase purchase) {
+        final ArgumentCaptor<PurchaseEvent> event = ArgumentCaptor.forClass(PurchaseEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(type, event.getValue().getType());
+        assertEquals(visit.getId(), event.getValue().getVisitId());
+        assertEquals(purchase.getId(), event.getValue().getId());
+        assertEquals(item.getId(), event.getValue().getItemId());
+        assertEquals(item.getName(), event.getValue().getItemName());
+    }
+
 
     public static class SaveAndReturnPurchaseAnswer implements Answer<Purchase> {
 
@@ -224,65 +367,40 @@ public class PurchaseServiceTest {
     @Test
     public void testBuyItem1() throws Exception {
 
-        final SaveAndReturnPurchaseAnswer saveAndReturnPurchaseAnswer = new SaveAndReturnPurchaseAnswer();
-        when(purchaseRepository.save(any(Purchase.class))).then(saveAndReturnPurchaseAnswer);
-
-        final Long quantity = 1L;
-
-        final Purchase purchase = purchaseService.buyItem(visit.getId(), item.getId(), quantity, null);
+        final Purchase updatedPurchase = new Purchase(1L, visit, item, 1L, null);
+        when(purchaseRepository.addQuantity(visit, item, 1L, null))
+                .thenReturn(updatedPurchase);
 
-        // Check that Service returns what was saved
-        final Purchase savedPurchase = saveAndReturnPurchaseAnswer.getPurchase();
-        assertEquals(savedPurchase, purchase);
+        final Purchase purchase = purchaseService.buyItem(visit.getId(), item.getId(), 1L, null);
 
-        // Check response content
-        assertEquals(visit, purchase.getVisit());
-        assertEquals(item, purchase.getItem());
-        assertEquals(quantity, purchase.getQuantity());
-        assertNull(purchase.getPrice());
+        assertSame(updatedPurchase, purchase);
+        verify(reportService).updateRollups(visit, Collections.singleton(item.getId()));
+        assertPurchaseEvent(PurchaseEvent.Type.UPDATED, updatedPurchase);
     }
 
     @Test
     public void testBuyItem2() {
 
-        final SaveAndReturnPurchaseAnswer saveAndReturnPurchaseAnswer = new SaveAndReturnPurchaseAnswer();
-        when(purchaseRepository.save(any(Purchase.class))).then(saveAndReturnPurchaseAnswer);
-
-        final Long quantity = 1L;
-
-        final Purchase purchase = purchaseService.buyItem(visit, item, quantity, null);
+        final Purchase updatedPurchase = new Purchase(1L, visit, item, 1L, null);
+        when(purchaseRepository.addQuantity(visit, item, 1L, null))
+                .thenReturn(updatedPurchase);
 
-        // Check that Service returns what was saved
-        final Purchase savedPurchase = saveAndReturnPurchaseAnswer.getPurchase();
-        assertEquals(savedPurchase, purchase);
+        final Purchase purchase = purchaseService.buyItem(visit, item, 1L, null);
 
-        // Check response content
-        assertEquals(visit, purchase.getVisit());
-        assertEquals(item, purchase.getItem());
-        assertEquals(quantity, purchase.getQuantity());
-        assertNull(purchase.getPrice());
+        assertSame(updatedPurchase, purchase);
     }
 
     @Test
-    public void testBuyItemForExistingPurchase() {
-
-        final Purchase existingPurchase = new Purchase(1L, visit, item, 1L, null);
-        when(purchaseRepository.findOneByVisitAndItem(visit, item)).thenReturn(existingPurchase);
-
-        final SaveAndReturnPurchaseAnswer saveAndReturnPurchaseAnswer = new SaveAndReturnPurchaseAnswer();
-        when(purchaseRepository.save(any(Purchase.class))).then(saveAndReturnPurchaseAnswer);
+    public void testBuyItemSetPrice() {
 
-        final Purchase purchase = purchaseService.buyItem(visit, item, 1L, null);
+        final Purchase updatedPurchase = new Purchase(1L, visit, item, 1L, BigDecimal.valueOf(10L));
+        when(purchaseRepository.addQuantity(visit, item, 1L, BigDecimal.valueOf(10L)))
+                .thenReturn(updatedPurchase);
 
-        // Check that Service returns what was saved
-        final Purchase savedPurchase = saveAndReturnPurchaseAnswer.getPurchase();
-        assertEquals(savedPurchase, purchase);
+        final Purchase purchase = purchaseService.buyItem(visit, item, 1L, BigDecimal.valueOf(10L));
 
-        // Check response content
-        assertEquals(visit, purchase.getVisit());
-        assertEquals(item, purchase.getItem());
-        assertEquals(Long.valueOf(2), purchase.getQuantity());
-        assertNull(purchase.getPrice());
+        assertSame(updatedPurchase, purchase);
+        verify(priceService).observePrices(visit, Collections.singletonMap(item.getId(), BigDecimal.valueOf(10L)));
     }
 
     @Test(expected = VisitNotFoundException.class)
@@ -306,101 +424,127 @@ public class PurchaseServiceTest {
     }
 
     @Test
-    public void testBuyItemSetPriceForNewPurchase() {
-
-        final SaveAndReturnPurchaseAnswer saveAndReturnPurchaseAnswer = new SaveAndReturnPurchaseAnswer();
-        when(purchaseRepository.save(any(Purchase.class))).then(saveAndReturnPurchaseAnswer);
-
-        final Purchase purchase = purchaseService.buyItem(visit, item, 1L, BigDecimal.valueOf(10L));
-
-        // Check that Service returns what was saved
-        final Purchase savedPurchase = saveAndReturnPurchaseAnswer.getPurchase();
-        assertEquals(savedPurchase, purchase);
-
-        // Check response content
-        assertEquals(BigDecimal.valueOf(10L), purchase.getPrice());
+    public void testBuyItems() {
+
+        final Item otherItem = new Item(2L, "test-item-2");
+        when(itemRepository.findAllById(any())).thenReturn(Arrays.asList(item, otherItem));
+
+        final Purchase updatedPurchase = new Purchase(1L, visit, item, 2L, BigDecimal.valueOf(15L));
+        final Purchase createdPurchase = new Purchase(2L, visit, otherItem, 2L, null);
+        when(purchaseRepository.addQuantities(eq(visit), any()))
+                .thenReturn(Arrays.asList(updatedPurchase, createdPurchase));
+
+        final List<Purchase> purchases = purchaseService.buyItems(visit.getId(), Arrays.asList(
+                new PurchaseBuyForm(item.getId(), 1L, BigDecimal.valueOf(20L)),
+                new PurchaseBuyForm(otherItem.getId(), 2L, null)));
+
+        assertEquals(Arrays.asList(updatedPurchase, createdPurchase), purchases);
+        final List<Purchase> lines = captureAddedQuantities();
+        assertEquals(2, lines.size());
+        assertPurchaseLine(item, 1L, BigDecimal.valueOf(20L), lines.get(0));
+        assertPurchaseLine(otherItem, 2L, null, lines.get(1));
+        final ArgumentCaptor<PurchaseEvent> events = ArgumentCaptor.forClass(PurchaseEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(Arrays.asList("test-item", "test-item-2"), events.getAllValues().stream()
+                .map(PurchaseEvent::getItemName).collect(Collectors.toList()));
+        verify(reportService).updateRollups(eq(visit), eq(new HashSet<>(Arrays.asList(item.getId(),
+                otherItem.getId()))));
+        final Map<Long, BigDecimal> prices = new HashMap<>();
+        prices.put(item.getId(), BigDecimal.valueOf(20L));
+        prices.put(otherItem.getId(), null);
+        verify(priceService).observePrices(visit, prices);
     }
 
     @Test
-    public void testBuyItemSetPriceForExistingPurchase() {
+    public void testBuyItemsWithSameItem() {
 
-        final Purchase existingPurchase = new Purchase(1L, visit, item, 1L, null);
-        when(purchaseRepository.findOneByVisitAndItem(visit, item)).thenReturn(existingPurchase);
+        when(itemRepository.findAllById(any())).thenReturn(Collections.singletonList(item));
 
-        final SaveAndReturnPurchaseAnswer saveAndReturnPurchaseAnswer = new SaveAndReturnPurchaseAnswer();
-        when(purchaseRepository.save(any(Purchase.class))).then(saveAndReturnPurchaseAnswer);
+        final Purchase updatedPurchase = new Purchase(1L, visit, item, 4L, BigDecimal.valueOf(15L));
+        when(purchaseRepository.addQuantities(eq(visit), any()))
+                .thenReturn(Collections.singletonList(updatedPurchase));
 
-        final Purchase purchase = purchaseService.buyItem(visit, item, 1L, BigDecimal.valueOf(10L));
+        final List<Purchase> purchases = purchaseService.buyItems(visit, Arrays.asList(
+                new PurchaseBuyForm(item.getId(), 1L, BigDecimal.valueOf(10L)),
+                new PurchaseBuyForm(item.getId(), 2L, null),
+                new PurchaseBuyForm(item.getId(), 1L, BigDecimal.valueOf(30L))));
 
-        // Check that Service returns what was saved
-        final Purchase savedPurchase = saveAndReturnPurchaseAnswer.getPurchase();
-        assertEquals(savedPurchase, purchase);
+        assertEquals(Arrays.asList(updatedPurchase, updatedPurchase, updatedPurchase), purchases);
 
-        // Check response content
-        assertEquals(BigDecimal.valueOf(10L), purchase.getPrice());
+        final List<Purchase> lines = captureAddedQuantities();
+        assertEquals(1, lines.size());
+        assertPurchaseLine(item, 4L, BigDecimal.valueOf(15L), lines.get(0));
     }
 
     @Test
-    public void testBuyItemUpdatePrice() {
+    public void testBuyItemsForEmptyBasket() {
+        assertTrue(purchaseService.buyItems(visit, Collections.emptyList()).isEmpty());
+    }
 
-        final Purchase existingPurchase = new Purchase(1L, visit, item, 1L, BigDecimal.valueOf(10L));
-        when(purchaseRepository.findOneByVisitAndItem(visit, item)).thenReturn(existingPurchase);
+    @Test(expected = VisitNotFoundException.class)
+    public void testBuyItemsForWrongVisitId() {
+        purchaseService.buyItems(999L, Collections.singletonList(new PurchaseBuyForm(item.getId(), 1L, null)));
+    }
 
-        final SaveAndReturnPurchaseAnswer saveAndReturnPurchaseAnswer = new SaveAndReturnPurchaseAnswer();
-        when(purchaseRepository.save(any(Purchase.class))).then(saveAndReturnPurchaseAnswer);
+    @Test
+    public void testBuyItemsForWrongItemId() {
 
-        final Purchase purchase = purchaseService.buyItem(visit, item, 1L, BigDecimal.valueOf(20L));
+        when(itemRepository.findAllById(any())).thenReturn(Collections.singletonList(item));
 
-        // Check that Service returns what was saved
-        final Purchase savedPurchase = saveAndReturnPurchaseAnswer.getPurchase();
-        assertEquals(savedPurchase, purchase);
+        try {
+            purchaseService.buyItems(visit, Arrays.asList(
+                    new PurchaseBuyForm(item.getId(), 1L, null), new PurchaseBuyForm(999L, 1L, null)));
+            fail();
+        } catch (ItemNotFoundException e) {
+            verify(purchaseRepository, never()).addQuantities(any(), any());
+        }
+    }
 
-        // Check response content
-        assertEquals(BigDecimal.valueOf(15L), purchase.getPrice());
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuyItemsForWrongQuantity() {
+        purchaseService.buyItems(visit, Collections.singletonList(new PurchaseBuyForm(item.getId(), 0L, null)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Purchase> captureAddedQuantities() {
+        final ArgumentCaptor<List<Purchase>> lines = ArgumentCaptor.forClass(List.class);
+        verify(purchaseRepository).addQuantities(eq(visit), lines.capture());
+        return lines.getValue();
+    }
+
+    private static void assertPurchaseLine(final Item item, final Long quantity, final BigDecimal price,
+                                           final Purchase line) {
+        assertSame(item, line.getItem());
+        assertEquals(quantity, line.getQuantity());
+        if (price == null) {
+            assertNull(line.getPrice());
+        } else {
+            assertEquals(0, price.compareTo(line.getPrice()));
+        }
     }
 
     @Test
     public void testReturnItem1() {
 
-        final Purchase existingPurchase = new Purchase(1L, visit, item, 2L, null);
-        when(purchaseRepository.findOneByVisitAndItem(visit, item)).thenReturn(existingPurchase);
-
-        final SaveAndReturnPurchaseAnswer saveAndReturnPurchaseAnswer = new SaveAndReturnPurchaseAnswer();
-        when(purchaseRepository.save(any(Purchase.class))).then(saveAndReturnPurchaseAnswer);
+        final Purchase updatedPurchase = new Purchase(1L, visit, item, 1L, null);
+        when(purchaseRepository.subtractQuantity(visit, item, 1L)).thenReturn(updatedPurchase);
 
         final Purchase purchase = purchaseService.returnItem(visit.getId(), item.getId(), 1L);
 
-        // Check that Service returns what was saved
-        final Purchase savedPurchase = saveAndReturnPurchaseAnswer.getPurchase();
-        assertEquals(savedPurchase, purchase);
-
-        // Check response content
-        assertEquals(visit, purchase.getVisit());
-        assertEquals(item, purchase.getItem());
-        assertEquals(Long.valueOf(1L), purchase.getQuantity());
-        assertNull(purchase.getPrice());
+        assertSame(updatedPurchase, purchase);
+        verify(reportService).updateRollups(visit, Collections.singleton(item.getId()));
+        assertPurchaseEvent(PurchaseEvent.Type.UPDATED, updatedPurchase);
     }
 
     @Test
     public void testReturnItem2() {
 
-        final Purchase existingPurchase = new Purchase(1L, visit, item, 2L, null);
-        when(purchaseRepository.findOneByVisitAndItem(visit, item)).thenReturn(existingPurchase);
-
-        final SaveAndReturnPurchaseAnswer saveAndReturnPurchaseAnswer = new SaveAndReturnPurchaseAnswer();
-        when(purchaseRepository.save(any(Purchase.class))).then(saveAndReturnPurchaseAnswer);
+        final Purchase updatedPurchase = new Purchase(1L, visit, item, 1L, null);
+        when(purchaseRepository.subtractQuantity(visit, item, 1L)).thenReturn(updatedPurchase);
 
         final Purchase purchase = purchaseService.returnItem(visit, item, 1L);
 
-        // Check that Service returns what was saved
-        final Purchase savedPurchase = saveAndReturnPurchaseAnswer.getPurchase();
-        assertEquals(savedPurchase, purchase);
-
-        // Check response content
-        assertEquals(visit, purchase.getVisit());
-        assertEquals(item, purchase.getItem());
-        assertEquals(Long.valueOf(1L), purchase.getQuantity());
-        assertNull(purchase.getPrice());
+        assertSame(updatedPurchase, purchase);
     }
 
     @Test(expected = VisitNotFoundException.class)
@@ -420,10 +564,6 @@ public class PurchaseServiceTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testReturnItemForWrongQuantity1() throws Exception {
-
-        final Purchase existingPurchase = new Purchase(1L, visit, item, 1L, null);
-        when(purchaseRepository.findOneByVisitAndItem(visit, item)).thenReturn(existingPurchase);
-
         purchaseService.returnItem(visit, item, 0L);
     }
 
@@ -439,14 +579,15 @@ public class PurchaseServiceTest {
     @Test
     public void testReturnItemAndDeletePurchase() {
 
-        final Purchase existingPurchase = new Purchase(1L, visit, item, 1L, null);
-        when(purchaseRepository.findOneByVisitAndItem(visit, item)).thenReturn(existingPurchase);
+        final Purchase emptyPurchase = new Purchase(1L, visit, item, 0L, null);
+        when(purchaseRepository.subtractQuantity(visit, item, 1L)).thenReturn(emptyPurchase);
 
         final Purchase purchase = purchaseService.returnItem(visit, item, 1L);
 
-        verify(purchaseRepository).delete(eq(existingPurchase));
+        verify(purchaseRepository).deleteEmpty(eq(emptyPurchase));
 
         assertNull(purchase);
+        assertPurchaseEvent(PurchaseEvent.Type.DELETED, emptyPurchase);
     }
 
     @Test
@@ -485,6 +626,9 @@ public class PurchaseServiceTest {
 
         // Check response content
         assertEquals(BigDecimal.valueOf(10L), purchase.getPrice());
+        verify(reportService).updateRollups(visit, Collections.singleton(item.getId()));
+        verify(priceService).observePrices(visit, Collections.singletonMap(item.getId(), BigDecimal.valueOf(10L)));
+        assertPurchaseEvent(PurchaseEvent.Type.UPDATED, savedPurchase);
     }
 
     @Test(expected = VisitNotFoundException.class)
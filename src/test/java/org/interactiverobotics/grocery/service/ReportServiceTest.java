@@ -0,0 +1,161 @@
+/*
+ * ReportServiceTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.report.ReportPeriod;
+import org.interactiverobotics.grocery.report.Spend;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Report service test.
+ */
+@RunWith(SpringRunner.class)
+public class ReportServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ReportService reportService;
+
+    private Visit visit;
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        reportService = new ReportService(jdbcTemplate, entityManager);
+
+        visit = new Visit(1L, new Shop(1L, "test-shop"));
+        visit.setStarted(new GregorianCalendar(2018, Calendar.MARCH, 15, 18, 30).getTime());
+    }
+
+
+    @Test
+    public void testUpdateRollups() {
+
+        visit.setCompleted(new GregorianCalendar(2018, Calendar.MARCH, 15, 19, 0).getTime());
+
+        reportService.updateRollups(visit, Arrays.asList(1L, 2L));
+
+        // Changes of Visit and Purchase(s) are flushed before rollups are recalculated
+        final InOrder inOrder = inOrder(entityManager, jdbcTemplate);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(jdbcTemplate).update(anyString(), any(MapSqlParameterSource.class));
+
+        final ArgumentCaptor<MapSqlParameterSource> parameters = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate, times(2)).update(anyString(), parameters.capture());
+        verify(jdbcTemplate).queryForList(anyString(), any(MapSqlParameterSource.class), eq(Long.class));
+        // Rollup of the day when Visit is started
+        assertEquals(java.sql.Date.valueOf(LocalDate.of(2018, 3, 15)), parameters.getValue().getValue("day"));
+        assertEquals(visit.getShop().getId(), parameters.getValue().getValue("shopId"));
+        assertEquals(Arrays.asList(1L, 2L), parameters.getValue().getValue("itemIds"));
+    }
+
+    @Test
+    public void testUpdateRollupsForNotCompletedVisit() {
+
+        reportService.updateRollups(visit, Arrays.asList(1L, 2L));
+
+        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+    }
+
+    @Test
+    public void testUpdateRollupsWithoutItems() {
+
+        visit.setCompleted(visit.getStarted());
+
+        reportService.updateRollups(visit, Collections.emptyList());
+
+        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetSpendByShop() {
+
+        final List<Spend> existingSpends = Collections.singletonList(new Spend(LocalDate.of(2018, 3, 12),
+                visit.getShop().getId(), visit.getShop().getName(), 10L, BigDecimal.TEN));
+        final ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        final ArgumentCaptor<MapSqlParameterSource> parameters = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        when(jdbcTemplate.query(sql.capture(), parameters.capture(), any(RowMapper.class))).thenReturn(existingSpends);
+
+        final List<Spend> spends = reportService.getSpendByShop(ReportPeriod.WEEK,
+                java.sql.Date.valueOf(LocalDate.of(2018, 3, 1)), null);
+
+        assertEquals(existingSpends, spends);
+        assertTrue(sql.getValue().contains("date_trunc('week', r.day)"));
+        assertEquals(java.sql.Date.valueOf(LocalDate.of(2018, 3, 1)), parameters.getValue().getValue("from"));
+        assertNull(parameters.getValue().getValue("to"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetSpendByItem() {
+
+        final ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        final ArgumentCaptor<MapSqlParameterSource> parameters = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        when(jdbcTemplate.query(sql.capture(), parameters.capture(), any(RowMapper.class)))
+                .thenReturn(Collections.emptyList());
+
+        reportService.getSpendByItem(ReportPeriod.MONTH, null, null, visit.getShop().getId());
+
+        assertTrue(sql.getValue().contains("date_trunc('month', r.day)"));
+        assertEquals(visit.getShop().getId(), parameters.getValue().getValue("shopId"));
+    }
+}
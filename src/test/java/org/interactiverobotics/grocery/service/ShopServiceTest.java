@@ -23,6 +23,7 @@ package org.interactiverobotics.grocery.service;
 import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.exception.ShopNotFoundException;
 import org.interactiverobotics.grocery.form.ShopForm;
+import org.interactiverobotics.grocery.page.CountCache;
 import org.interactiverobotics.grocery.repository.ShopRepository;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,9 +32,9 @@ import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
@@ -63,7 +64,7 @@ public class ShopServiceTest {
 
     @Before
     public void setUp() throws Exception {
-        shopService = new ShopService(shopRepository);
+        shopService = new ShopService(shopRepository, new CountCache(1000L, 1000L));
     }
 
 
@@ -86,11 +87,12 @@ public class ShopServiceTest {
             existingShops.add(new Shop(i, "test-shop-" + i));
         }
 
-        when(shopRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+        when(shopRepository.findSliceBy(any(Pageable.class))).thenAnswer(invocation -> {
             assertEquals(1, invocation.getArguments().length);
             final Pageable pageable = invocation.getArgument(0);
-            return new PageImpl<>(existingShops, pageable, existingShops.size());
+            return new SliceImpl<>(existingShops.subList(0, pageable.getPageSize()), pageable, true);
         });
+        when(shopRepository.count()).thenReturn((long) existingShops.size());
 
         final Page<Shop> shops = shopService.getShops(PageRequest.of(0, 10));
 
@@ -28,6 +28,7 @@ import org.interactiverobotics.grocery.exception.ShoppingListItemNotFoundExcepti
 import org.interactiverobotics.grocery.exception.ShoppingListNotFoundException;
 import org.interactiverobotics.grocery.form.ShoppingListItemCreateForm;
 import org.interactiverobotics.grocery.form.ShoppingListItemUpdateForm;
+import org.interactiverobotics.grocery.page.CountCache;
 import org.interactiverobotics.grocery.repository.ItemRepository;
 import org.interactiverobotics.grocery.repository.ShoppingListItemRepository;
 import org.interactiverobotics.grocery.repository.ShoppingListRepository;
@@ -38,9 +39,9 @@ import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
@@ -84,7 +85,7 @@ public class ShoppingListItemServiceTest {
     public void setUp() throws Exception {
 
         shoppingListItemService = new ShoppingListItemService(shoppingListRepository, itemRepository,
-                shoppingListItemRepository);
+                shoppingListItemRepository, new CountCache(1000L, 1000L));
 
         shoppingList = new ShoppingList(1L, "test-shopping-list");
 
@@ -123,12 +124,15 @@ public class ShoppingListItemServiceTest {
             existingShoppingListItems.add(new ShoppingListItem(i + 1, shoppingList, item, 1L));
         }
 
-        when(shoppingListItemRepository.findAllByShoppingList(any(Pageable.class), eq(shoppingList)))
+        when(shoppingListItemRepository.findSliceByShoppingList(any(Pageable.class), eq(shoppingList)))
                 .thenAnswer(invocation -> {
                     assertEquals(2, invocation.getArguments().length);
                     final Pageable pageable = invocation.getArgument(0);
-                    return new PageImpl<>(existingShoppingListItems, pageable, existingShoppingListItems.size());
+                    return new SliceImpl<>(existingShoppingListItems.subList(0, pageable.getPageSize()), pageable,
+                            true);
                 });
+        when(shoppingListItemRepository.countByShoppingList(shoppingList))
+                .thenReturn((long) existingShoppingListItems.size());
 
         final Page<ShoppingListItem> shoppingListItems =
                 shoppingListItemService.getShoppingListItems(PageRequest.of(0, 10), shoppingList.getId());
@@ -167,20 +171,44 @@ public class ShoppingListItemServiceTest {
     @Test
     public void testGetNotAddedItems() {
 
-        final List<Item> existingItems = Arrays.asList(new Item(1L, "test-item-1"),
-                new Item(2L, "test-item-2"));
-        when(itemRepository.findAll()).thenReturn(existingItems);
-
-        final ShoppingListItem existingShoppingListItem =
-                new ShoppingListItem(1L, shoppingList, existingItems.get(0), 1L);
-
-        when(shoppingListItemRepository.findOneByShoppingListAndItem(shoppingList, existingItems.get(0)))
-                .thenReturn(existingShoppingListItem);
+        final List<Item> existingItems = Arrays.asList(new Item(2L, "test-item-2"));
+        when(shoppingListItemRepository.findNotAddedItems(shoppingList)).thenReturn(existingItems);
 
         final List<Item> notAddedItems = shoppingListItemService.getNotAddedItems(shoppingList.getId());
 
         assertEquals(1, notAddedItems.size());
-        assertEquals(existingItems.get(1), notAddedItems.get(0));
+        assertEquals(existingItems.get(0), notAddedItems.get(0));
+    }
+
+    @Test
+    public void testGetNotAddedItemsAfter() {
+
+        final List<Item> existingItems = Arrays.asList(new Item(2L, "test-item-2"), new Item(3L, "test-item-3"));
+        when(shoppingListItemRepository.findNotAddedItems(any(Pageable.class), eq(shoppingList), eq("test%"), eq(1L)))
+                .thenReturn(existingItems);
+
+        final List<Item> notAddedItems = shoppingListItemService
+                .getNotAddedItems(PageRequest.of(0, 10), shoppingList.getId(), "test", 1L);
+
+        assertEquals(existingItems, notAddedItems);
+    }
+
+    @Test
+    public void testGetNotAddedItemsFromStart() {
+
+        final List<Item> existingItems = Arrays.asList(new Item(1L, "test-item-1"));
+        when(shoppingListItemRepository.findNotAddedItems(any(Pageable.class), eq(shoppingList), eq("%"), eq(0L)))
+                .thenReturn(existingItems);
+
+        final List<Item> notAddedItems = shoppingListItemService
+                .getNotAddedItems(PageRequest.of(0, 10), shoppingList.getId(), null, null);
+
+        assertEquals(existingItems, notAddedItems);
+    }
+
+    @Test(expected = ShoppingListNotFoundException.class)
+    public void testGetNotAddedItemsForWrongShoppingListId() {
+        shoppingListItemService.getNotAddedItems(PageRequest.of(0, 10), 999L, null, null);
     }
 
 
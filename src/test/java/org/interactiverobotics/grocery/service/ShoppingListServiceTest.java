@@ -23,6 +23,7 @@ package org.interactiverobotics.grocery.service;
 import org.interactiverobotics.grocery.domain.ShoppingList;
 import org.interactiverobotics.grocery.exception.ShoppingListNotFoundException;
 import org.interactiverobotics.grocery.form.ShoppingListForm;
+import org.interactiverobotics.grocery.page.CountCache;
 import org.interactiverobotics.grocery.repository.ShoppingListRepository;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,9 +32,9 @@ import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
@@ -64,7 +65,7 @@ public class ShoppingListServiceTest {
 
     @Before
     public void setUp() throws Exception {
-        shoppingListService = new ShoppingListService(shoppingListRepository);
+        shoppingListService = new ShoppingListService(shoppingListRepository, new CountCache(1000L, 1000L));
     }
 
 
@@ -89,11 +90,12 @@ public class ShoppingListServiceTest {
             existingShoppingLists.add(new ShoppingList(i, "test-shopping-list-" + i));
         }
 
-        when(shoppingListRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+        when(shoppingListRepository.findSliceBy(any(Pageable.class))).thenAnswer(invocation -> {
             assertEquals(1, invocation.getArguments().length);
             final Pageable pageable = invocation.getArgument(0);
-            return new PageImpl<>(existingShoppingLists, pageable, existingShoppingLists.size());
+            return new SliceImpl<>(existingShoppingLists.subList(0, pageable.getPageSize()), pageable, true);
         });
+        when(shoppingListRepository.count()).thenReturn((long) existingShoppingLists.size());
 
         final Page<ShoppingList> shoppingLists = shoppingListService.getShoppingLists(PageRequest.of(0, 10));
 
@@ -0,0 +1,158 @@
+/*
+ * StreamServiceTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.configuration.StreamProperties;
+import org.interactiverobotics.grocery.domain.Item;
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.exception.ShopNotFoundException;
+import org.interactiverobotics.grocery.repository.ItemRepository;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.reactivestreams.Subscription;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stream service test.
+ */
+@RunWith(SpringRunner.class)
+public class StreamServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private VisitRepository visitRepository;
+
+    private StreamService streamService;
+
+    private List<Item> items;
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        final StreamProperties properties = new StreamProperties();
+        properties.setPageSize(2);
+
+        streamService = new StreamService(itemRepository, shopRepository, visitRepository, Schedulers.immediate(),
+                properties);
+
+        items = Arrays.asList(new Item(1L, "test-item-1"), new Item(2L, "test-item-2"),
+                new Item(3L, "test-item-3"));
+
+        when(itemRepository.findAllByIdGreaterThanOrderById(PageRequest.of(0, 2), 0L))
+                .thenReturn(items.subList(0, 2));
+        when(itemRepository.findAllByIdGreaterThanOrderById(PageRequest.of(0, 2), 2L))
+                .thenReturn(items.subList(2, 3));
+    }
+
+
+    @Test
+    public void testStreamItems() {
+
+        final List<List<Item>> pages = streamService.streamItems().collectList().block();
+
+        assertEquals(Arrays.asList(items.subList(0, 2), items.subList(2, 3)), pages);
+        verify(itemRepository, times(2)).findAllByIdGreaterThanOrderById(any(), anyLong());
+    }
+
+    @Test
+    public void testStreamItemsWithBackpressure() {
+
+        final List<List<Item>> pages = new ArrayList<>();
+        streamService.streamItems().subscribe(new BaseSubscriber<List<Item>>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(List<Item> page) {
+                pages.add(page);
+            }
+        });
+
+        // The next page is not loaded until requested
+        assertEquals(Collections.singletonList(items.subList(0, 2)), pages);
+        verify(itemRepository, times(1)).findAllByIdGreaterThanOrderById(any(), anyLong());
+    }
+
+    @Test
+    public void testStreamShopsForLastFullPage() {
+
+        final List<Shop> shops = Arrays.asList(new Shop(1L, "test-shop-1"), new Shop(2L, "test-shop-2"));
+        when(shopRepository.findAllByIdGreaterThanOrderById(PageRequest.of(0, 2), 0L)).thenReturn(shops);
+        when(shopRepository.findAllByIdGreaterThanOrderById(PageRequest.of(0, 2), 2L))
+                .thenReturn(Collections.emptyList());
+
+        final List<List<Shop>> pages = streamService.streamShops().collectList().block();
+
+        // Empty page is not streamed
+        assertEquals(Collections.singletonList(shops), pages);
+    }
+
+    @Test
+    public void testStreamVisitsByShop() {
+
+        final Shop shop = new Shop(1L, "test-shop");
+        final List<Visit> visits = Collections.singletonList(new Visit(1L, shop));
+        when(shopRepository.findById(shop.getId())).thenReturn(Optional.of(shop));
+        when(visitRepository.findAllWithShopByShopAndIdGreaterThanOrderById(PageRequest.of(0, 2), shop, 0L))
+                .thenReturn(visits);
+
+        final List<List<Visit>> pages = streamService.streamVisits(shop.getId()).collectList().block();
+
+        assertEquals(Collections.singletonList(visits), pages);
+    }
+
+    @Test(expected = ShopNotFoundException.class)
+    public void testStreamVisitsForWrongShopId() {
+        streamService.streamVisits(999L);
+    }
+}
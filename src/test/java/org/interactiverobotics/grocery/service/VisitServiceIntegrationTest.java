@@ -0,0 +1,137 @@
+/*
+ * VisitServiceIntegrationTest.java
+ *
+ * Copyright (C) 2016-2018 Pavel Prokhorov (pavelvpster@gmail.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.interactiverobotics.grocery.service;
+
+import org.interactiverobotics.grocery.domain.Shop;
+import org.interactiverobotics.grocery.domain.Visit;
+import org.interactiverobotics.grocery.repository.ShopRepository;
+import org.interactiverobotics.grocery.repository.VisitRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Visit service integration test.
+ * Checks that changes of Visit and its rollups are made in one transaction.
+ * Requires database access.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class VisitServiceIntegrationTest {
+
+    @Autowired
+    private VisitService visitService;
+
+    @SpyBean
+    private ReportService reportService;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    private Shop shop;
+
+    private Visit visit;
+
+
+    /**
+     * Initializes test.
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        shop = shopRepository.save(new Shop("test-shop"));
+
+        visit = visitRepository.save(new Visit(shop));
+    }
+
+    /**
+     * Finalises test.
+     */
+    @After
+    public void tearDown() throws Exception {
+
+        visitRepository.findById(visit.getId()).ifPresent(visitRepository::delete);
+
+        shopRepository.delete(shop);
+    }
+
+
+    @Test
+    public void testStartVisitRollback() {
+
+        final Date started = new Date(0L);
+        visit.setStarted(started);
+        visit.setCompleted(started);
+        visitRepository.save(visit);
+        doThrow(new IllegalStateException()).when(reportService).updateRollups(any(Visit.class), anyCollection());
+
+        try {
+            visitService.startVisit(visit.getId());
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(started.getTime(), visitRepository.findById(visit.getId()).get().getStarted().getTime());
+        }
+    }
+
+    @Test
+    public void testCompleteVisitRollback() {
+
+        doThrow(new IllegalStateException()).when(reportService).updateRollups(any(Visit.class));
+
+        try {
+            visitService.completeVisit(visit.getId());
+            fail();
+        } catch (IllegalStateException e) {
+            assertNull(visitRepository.findById(visit.getId()).get().getCompleted());
+        }
+    }
+
+    @Test
+    public void testDeleteVisitRollback() {
+
+        doThrow(new IllegalStateException()).when(reportService).updateRollups(any(Visit.class), anyCollection());
+
+        try {
+            visitService.deleteVisit(visit.getId());
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(visitRepository.findById(visit.getId()).isPresent());
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.interactiverobotics.grocery.domain.Shop;
 import org.interactiverobotics.grocery.domain.Visit;
 import org.interactiverobotics.grocery.exception.ShopNotFoundException;
 import org.interactiverobotics.grocery.exception.VisitNotFoundException;
+import org.interactiverobotics.grocery.page.CountCache;
 import org.interactiverobotics.grocery.repository.ShopRepository;
 import org.interactiverobotics.grocery.repository.VisitRepository;
 import org.junit.Before;
@@ -33,14 +34,15 @@ import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,6 +50,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -63,6 +66,9 @@ public class VisitServiceTest {
     @Mock
     private ShopRepository shopRepository;
 
+    @Mock
+    private ReportService reportService;
+
     private VisitService visitService;
 
     private Shop shop;
@@ -74,7 +80,7 @@ public class VisitServiceTest {
     @Before
     public void setUp() throws Exception {
 
-        visitService = new VisitService(visitRepository, shopRepository);
+        visitService = new VisitService(visitRepository, shopRepository, new CountCache(1000L, 1000L), reportService);
 
         shop = new Shop(1L, "test-shop");
     }
@@ -99,11 +105,12 @@ public class VisitServiceTest {
             existingVisits.add(new Visit(i, shop));
         }
 
-        when(visitRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+        when(visitRepository.findSliceBy(any(Pageable.class))).thenAnswer(invocation -> {
             assertEquals(1, invocation.getArguments().length);
             final Pageable pageable = invocation.getArgument(0);
-            return new PageImpl<>(existingVisits, pageable, existingVisits.size());
+            return new SliceImpl<>(existingVisits.subList(0, pageable.getPageSize()), pageable, true);
         });
+        when(visitRepository.count()).thenReturn((long) existingVisits.size());
 
         final Page<Visit> visits = visitService.getVisits(PageRequest.of(0, 10));
 
@@ -134,7 +141,7 @@ public class VisitServiceTest {
     public void testGetVisitsByShopId() {
 
         Visit existingVisit = new Visit(1L, shop);
-        when(visitRepository.findAllByShop(shop)).thenReturn(Collections.singletonList(existingVisit));
+        when(visitRepository.findAllByShopOrderById(shop)).thenReturn(Collections.singletonList(existingVisit));
 
         when(shopRepository.findById(shop.getId())).thenReturn(Optional.of(shop));
 
@@ -156,7 +163,7 @@ public class VisitServiceTest {
     public void testGetVisitsByShopName() {
 
         Visit existingVisit = new Visit(1L, shop);
-        when(visitRepository.findAllByShop(shop)).thenReturn(Collections.singletonList(existingVisit));
+        when(visitRepository.findAllByShopOrderById(shop)).thenReturn(Collections.singletonList(existingVisit));
 
         when(shopRepository.findOneByName(shop.getName())).thenReturn(shop);
 
@@ -178,7 +185,7 @@ public class VisitServiceTest {
     public void testGetVisitsByShop() {
 
         Visit existingVisit = new Visit(1L, shop);
-        when(visitRepository.findAllByShop(shop)).thenReturn(Collections.singletonList(existingVisit));
+        when(visitRepository.findAllByShopOrderById(shop)).thenReturn(Collections.singletonList(existingVisit));
 
         final List<Visit> visits = visitService.getVisitsByShop(shop);
 
@@ -293,6 +300,28 @@ public class VisitServiceTest {
         // Check response content
         assertEquals(existingVisit.getId(), visit.getId());
         assertNotNull(visit.getStarted());
+
+        // Purchase(s) of not completed Visit are not in rollups
+        verify(reportService, never()).updateRollups(any(Visit.class), any());
+    }
+
+    @Test
+    public void testStartCompletedVisit() {
+
+        final Date started = new Date(1000L);
+        final Visit existingVisit = new Visit(1L, shop);
+        existingVisit.setStarted(started);
+        existingVisit.setCompleted(started);
+        when(visitRepository.findById(existingVisit.getId())).thenReturn(Optional.of(existingVisit));
+        when(visitRepository.save(any(Visit.class))).then(new SaveAndReturnVisitAnswer());
+        final List<Long> itemIds = Arrays.asList(1L, 2L);
+        when(reportService.getPurchasedItemIds(existingVisit)).thenReturn(itemIds);
+
+        final Visit visit = visitService.startVisit(existingVisit.getId());
+
+        // Purchase(s) are moved from rollups of previous day
+        verify(reportService).updateRollups(started, shop.getId(), itemIds);
+        verify(reportService).updateRollups(visit, itemIds);
     }
 
     @Test(expected = VisitNotFoundException.class)
@@ -321,6 +350,23 @@ public class VisitServiceTest {
         // Check response content
         assertEquals(existingVisit.getId(), visit.getId());
         assertNotNull(visit.getCompleted());
+
+        verify(reportService).updateRollups(visit);
+    }
+
+    @Test
+    public void testCompleteCompletedVisit() {
+
+        final Visit existingVisit = new Visit(1L, shop);
+        existingVisit.setStarted(new Date(1000L));
+        existingVisit.setCompleted(new Date(2000L));
+        when(visitRepository.findById(existingVisit.getId())).thenReturn(Optional.of(existingVisit));
+        when(visitRepository.save(any(Visit.class))).then(new SaveAndReturnVisitAnswer());
+
+        visitService.completeVisit(existingVisit.getId());
+
+        // Purchase(s) are already in rollups
+        verify(reportService, never()).updateRollups(any(Visit.class));
     }
 
     @Test(expected = VisitNotFoundException.class)
@@ -342,6 +388,22 @@ public class VisitServiceTest {
         verify(visitRepository).delete(eq(existingVisit));
     }
 
+    @Test
+    public void testDeleteCompletedVisit() {
+
+        final Visit existingVisit = new Visit(1L, shop);
+        existingVisit.setStarted(new Date(1000L));
+        existingVisit.setCompleted(new Date(2000L));
+        when(visitRepository.findById(existingVisit.getId())).thenReturn(Optional.of(existingVisit));
+        final List<Long> itemIds = Arrays.asList(1L, 2L);
+        when(reportService.getPurchasedItemIds(existingVisit)).thenReturn(itemIds);
+
+        visitService.deleteVisit(existingVisit.getId());
+
+        verify(visitRepository).delete(eq(existingVisit));
+        verify(reportService).updateRollups(existingVisit, itemIds);
+    }
+
     @Test(expected = VisitNotFoundException.class)
     public void testDeleteNotExistingVisit() {
 